@@ -0,0 +1,24 @@
+package fun.prof_chen.teamviewer.mixin.client;
+
+import fun.prof_chen.teamviewer.multipleplayeresp.core.ClientEntityTracker;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 客户端世界实体开始/停止追踪（生成、移除与区块卸载）时同步 {@link ClientEntityTracker} 的索引。
+ */
+@Mixin(targets = "net.minecraft.client.world.ClientWorld$ClientEntityHandler")
+public abstract class ClientEntityHandlerMixin {
+	@Inject(method = "startTracking(Lnet/minecraft/entity/Entity;)V", at = @At("TAIL"))
+	private void teamviewer$onStartTracking(Entity entity, CallbackInfo ci) {
+		ClientEntityTracker.onStartTracking(entity);
+	}
+
+	@Inject(method = "stopTracking(Lnet/minecraft/entity/Entity;)V", at = @At("HEAD"))
+	private void teamviewer$onStopTracking(Entity entity, CallbackInfo ci) {
+		ClientEntityTracker.onStopTracking(entity);
+	}
+}
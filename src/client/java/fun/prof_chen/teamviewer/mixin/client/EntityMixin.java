@@ -0,0 +1,29 @@
+package fun.prof_chen.teamviewer.mixin.client;
+
+import fun.prof_chen.teamviewer.multipleplayeresp.core.ClientEntityTracker;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 实体坐标、尺寸与自定义名称变化时标记为脏，供上报路径只采集变化的实体。
+ */
+@Mixin(Entity.class)
+public abstract class EntityMixin {
+	@Inject(method = "setPos(DDD)V", at = @At("TAIL"))
+	private void teamviewer$markDirtyOnSetPos(double x, double y, double z, CallbackInfo ci) {
+		ClientEntityTracker.markDirty((Entity) (Object) this);
+	}
+
+	@Inject(method = "calculateDimensions()V", at = @At("TAIL"))
+	private void teamviewer$markDirtyOnDimensions(CallbackInfo ci) {
+		ClientEntityTracker.markDirty((Entity) (Object) this);
+	}
+
+	@Inject(method = "setCustomName(Lnet/minecraft/text/Text;)V", at = @At("TAIL"))
+	private void teamviewer$markDirtyOnCustomName(CallbackInfo ci) {
+		ClientEntityTracker.markDirty((Entity) (Object) this);
+	}
+}
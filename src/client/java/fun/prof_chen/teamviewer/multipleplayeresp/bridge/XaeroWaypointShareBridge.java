@@ -8,6 +8,7 @@ import net.minecraft.util.math.Vec3d;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import fun.prof_chen.teamviewer.multipleplayeresp.config.Config;
+import fun.prof_chen.teamviewer.multipleplayeresp.core.ClientEntityTracker;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.ReportDataSchemas;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.SharedWaypointInfo;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.PlayerESPNetworkManager;
@@ -650,12 +651,11 @@ public final class XaeroWaypointShareBridge {
 		if (client.world != null) {
 			String worldDimension = client.world.getRegistryKey().getValue().toString();
 			if (Objects.equals(currentDimension, worldDimension)) {
-				for (Entity entity : client.world.getEntities()) {
-					if (entity != null && targetEntityId.equals(entity.getUuidAsString())) {
-						Vec3d pos = entity.getPos();
-						trackedEntityWaypointLastPositions.put(waypoint.waypointId(), pos);
-						return pos;
-					}
+				Entity entity = ClientEntityTracker.find(targetEntityId);
+				if (entity != null) {
+					Vec3d pos = entity.getPos();
+					trackedEntityWaypointLastPositions.put(waypoint.waypointId(), pos);
+					return pos;
 				}
 
 				if (isPlayerTarget(waypoint)) {
@@ -33,7 +33,7 @@ public class Config {
     private int enemyTeamColor = DEFAULT_ENEMY_TEAM_COLOR;
     private String tracerStartMode = TRACER_START_CROSSHAIR; // 追踪线起始点模式：crosshair 或 top
     private double tracerTopOffset = 0.42; // 顶部模式上抬偏移
-    private boolean enableCompression = true; // 是否启用WebSocket压缩
+    private boolean enableCompression = true; // 是否启用逐帧压缩（握手协商，传输层已有 permessage-deflate 时跳过）
     private int updateInterval = 5; // 上报频率间隔（tick），默认20tick约每秒1次
     private boolean enablePlayerESP = true; // 是否启用PlayerESP功能
     private boolean uploadEntities = true; // 是否上传实体信息（网络开销较高）
@@ -55,6 +55,11 @@ public class Config {
     private double tampermonkeyBeamHeight = 384.0D; // 网页下发顶天立地光柱高度
     private boolean useSystemProxy = false; // 连接服务器时是否使用系统代理
     private boolean preferLocalDataForEsp = true; // 本地可见玩家优先使用本地数据（降低远程延迟影响）
+    private boolean quantizePositions = false; // 握手协商后以定点整数上报坐标与速度
+    private int positionQuantizationScale = 32; // 坐标精度：每格的刻度数（32 即 1/32 格）
+    private int velocityQuantizationScale = 16; // 速度精度：每格/tick 的刻度数
+    private int entityUploadBudgetBytes = 6144; // 每个上报周期实体增量的字节预算，超出部分按优先级顺延，0 表示不限
+    private double deadReckoningErrorBound = 0.25; // 航位推算误差上限（格）：服务端确认支持后，接收端外推误差未超过该值时不重发坐标，0 表示关闭
     
     public static Config load() {
         if (!Files.exists(CONFIG_PATH)) {
@@ -498,4 +503,79 @@ public class Config {
     public void setPreferLocalDataForEsp(boolean preferLocalDataForEsp) {
         this.preferLocalDataForEsp = preferLocalDataForEsp;
     }
-}
\ No newline at end of file
+
+    public boolean isQuantizePositions() {
+        return quantizePositions;
+    }
+
+    public void setQuantizePositions(boolean quantizePositions) {
+        this.quantizePositions = quantizePositions;
+    }
+
+    public int getPositionQuantizationScale() {
+        if (positionQuantizationScale < 1) {
+            return 32;
+        }
+        return Math.min(positionQuantizationScale, 4096);
+    }
+
+    public void setPositionQuantizationScale(int positionQuantizationScale) {
+        if (positionQuantizationScale < 1) {
+            this.positionQuantizationScale = 32;
+            return;
+        }
+        this.positionQuantizationScale = Math.min(positionQuantizationScale, 4096);
+    }
+
+    public int getVelocityQuantizationScale() {
+        if (velocityQuantizationScale < 1) {
+            return 16;
+        }
+        return Math.min(velocityQuantizationScale, 4096);
+    }
+
+    public void setVelocityQuantizationScale(int velocityQuantizationScale) {
+        if (velocityQuantizationScale < 1) {
+            this.velocityQuantizationScale = 16;
+            return;
+        }
+        this.velocityQuantizationScale = Math.min(velocityQuantizationScale, 4096);
+    }
+
+    public double getDeadReckoningErrorBound() {
+        if (Double.isNaN(deadReckoningErrorBound) || Double.isInfinite(deadReckoningErrorBound)) {
+            return 0.25;
+        }
+        if (deadReckoningErrorBound < 0.0) {
+            return 0.0;
+        }
+        return Math.min(deadReckoningErrorBound, 8.0);
+    }
+
+    public void setDeadReckoningErrorBound(double deadReckoningErrorBound) {
+        if (Double.isNaN(deadReckoningErrorBound) || Double.isInfinite(deadReckoningErrorBound)) {
+            this.deadReckoningErrorBound = 0.25;
+            return;
+        }
+        if (deadReckoningErrorBound < 0.0) {
+            this.deadReckoningErrorBound = 0.0;
+            return;
+        }
+        this.deadReckoningErrorBound = Math.min(deadReckoningErrorBound, 8.0);
+    }
+
+    public int getEntityUploadBudgetBytes() {
+        if (entityUploadBudgetBytes < 0) {
+            return 0;
+        }
+        return Math.min(entityUploadBudgetBytes, 1048576);
+    }
+
+    public void setEntityUploadBudgetBytes(int entityUploadBudgetBytes) {
+        if (entityUploadBudgetBytes < 0) {
+            this.entityUploadBudgetBytes = 0;
+            return;
+        }
+        this.entityUploadBudgetBytes = Math.min(entityUploadBudgetBytes, 1048576);
+    }
+}
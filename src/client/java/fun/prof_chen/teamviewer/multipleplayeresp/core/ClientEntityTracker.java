@@ -0,0 +1,177 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.core;
+
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 客户端世界实体索引：由 mixin 在实体开始/停止追踪、坐标与尺寸变化时回调维护，
+ * 提供 UUID → 实体的实时索引，并按订阅通道累积自上次消费以来变化或移除的实体，
+ * 采集方只需处理变化部分，不必每次遍历整个世界。只在客户端主线程使用。
+ */
+public final class ClientEntityTracker {
+	private static final Map<UUID, Entity> entitiesById = new HashMap<>();
+	private static final List<Channel> channels = new ArrayList<>();
+	private static ClientWorld trackedWorld = null;
+
+	private ClientEntityTracker() {
+	}
+
+	/**
+	 * 订阅实体变化；新通道首次消费时需要全量采样。
+	 */
+	public static Channel openChannel() {
+		Channel channel = new Channel();
+		channels.add(channel);
+		return channel;
+	}
+
+	/**
+	 * 与当前客户端世界对齐：世界切换后丢弃旧索引并对新世界做一次全量重建，各通道随之要求全量采样。
+	 */
+	public static void syncWorld(ClientWorld world) {
+		if (world == trackedWorld) {
+			return;
+		}
+		trackedWorld = world;
+		entitiesById.clear();
+		if (world != null) {
+			for (Entity entity : world.getEntities()) {
+				if (entity != null) {
+					entitiesById.put(entity.getUuid(), entity);
+				}
+			}
+		}
+		for (Channel channel : channels) {
+			channel.requestResync();
+		}
+	}
+
+	public static Entity find(UUID entityId) {
+		return entityId == null ? null : entitiesById.get(entityId);
+	}
+
+	public static Entity find(String entityId) {
+		if (entityId == null || entityId.isBlank()) {
+			return null;
+		}
+		try {
+			return entitiesById.get(UUID.fromString(entityId.trim()));
+		} catch (IllegalArgumentException ignored) {
+			return null;
+		}
+	}
+
+	public static Collection<Entity> entities() {
+		return Collections.unmodifiableCollection(entitiesById.values());
+	}
+
+	public static void onStartTracking(Entity entity) {
+		if (!(entity.getWorld() instanceof ClientWorld world)) {
+			return;
+		}
+		if (world != trackedWorld) {
+			// 重建时已包含该实体
+			syncWorld(world);
+			return;
+		}
+		entitiesById.put(entity.getUuid(), entity);
+		for (Channel channel : channels) {
+			channel.onChanged(entity);
+		}
+	}
+
+	public static void onStopTracking(Entity entity) {
+		if (entity.getWorld() != trackedWorld || trackedWorld == null) {
+			return;
+		}
+		UUID entityId = entity.getUuid();
+		if (!entitiesById.remove(entityId, entity)) {
+			return;
+		}
+		for (Channel channel : channels) {
+			channel.onRemoved(entity, entityId);
+		}
+	}
+
+	/**
+	 * 坐标、尺寸或名称变化回调；集成服务器线程上的服务端实体同样会触发，按所属世界过滤。
+	 */
+	public static void markDirty(Entity entity) {
+		if (trackedWorld == null || entity.getWorld() != trackedWorld) {
+			return;
+		}
+		if (entitiesById.get(entity.getUuid()) != entity) {
+			return;
+		}
+		for (Channel channel : channels) {
+			channel.onChanged(entity);
+		}
+	}
+
+	/**
+	 * 一个消费方的变化队列：消费完毕后调用 {@link #clear()}。
+	 * 暂停消费期间应改为调用 {@link #requestResync()}，否则移除的实体 ID 会一直累积。
+	 */
+	public static final class Channel {
+		private final Set<Entity> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		private final Set<UUID> removed = new HashSet<>();
+		private boolean resyncRequested = true;
+
+		private Channel() {
+		}
+
+		/**
+		 * @return 需要全量采样（首次消费或世界切换）时返回 true，此时应以 {@link ClientEntityTracker#entities()} 为准
+		 */
+		public boolean isResyncRequested() {
+			return resyncRequested;
+		}
+
+		public Set<Entity> changed() {
+			return changed;
+		}
+
+		public Set<UUID> removed() {
+			return removed;
+		}
+
+		public void requestResync() {
+			resyncRequested = true;
+			changed.clear();
+			removed.clear();
+		}
+
+		public void clear() {
+			resyncRequested = false;
+			changed.clear();
+			removed.clear();
+		}
+
+		private void onChanged(Entity entity) {
+			if (resyncRequested) {
+				return;
+			}
+			changed.add(entity);
+			removed.remove(entity.getUuid());
+		}
+
+		private void onRemoved(Entity entity, UUID entityId) {
+			if (resyncRequested) {
+				return;
+			}
+			changed.remove(entity);
+			removed.add(entityId);
+		}
+	}
+}
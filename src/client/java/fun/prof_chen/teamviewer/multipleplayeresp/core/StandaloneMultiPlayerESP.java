@@ -12,6 +12,8 @@ import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.mob.Monster;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.projectile.ProjectileUtil;
 import net.minecraft.client.network.AbstractClientPlayerEntity;
 import net.minecraft.scoreboard.Scoreboard;
@@ -30,9 +32,11 @@ import fun.prof_chen.teamviewer.multipleplayeresp.bridge.XaeroWaypointShareBridg
 import fun.prof_chen.teamviewer.multipleplayeresp.bridge.XaeroWorldMapBridge;
 import fun.prof_chen.teamviewer.multipleplayeresp.config.Config;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.RemotePlayerInfo;
-import fun.prof_chen.teamviewer.multipleplayeresp.model.ReportDataSchemas;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.SharedWaypointInfo;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.OutboundFrameWriter;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.OutboundStateStore;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.PlayerESPNetworkManager;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.TabListTracker;
 import fun.prof_chen.teamviewer.multipleplayeresp.ui.PlayerESPConfigScreen;
 import fun.prof_chen.teamviewer.multipleplayeresp.render.UnifiedRenderModule;
 
@@ -57,6 +61,10 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 	private static final Map<UUID, Vec3d> serverPlayerPositions = new ConcurrentHashMap<>();
 	private static final Map<String, SharedWaypointInfo> sharedWaypoints = new ConcurrentHashMap<>();
 	private static final Map<String, Vec3d> trackedEntityWaypointLastPositions = new ConcurrentHashMap<>();
+
+	// 实体变化订阅：上报路径与服务器玩家位置各自消费自上次以来变化的实体
+	private static final ClientEntityTracker.Channel entityUploadChannel = ClientEntityTracker.openChannel();
+	private static final ClientEntityTracker.Channel playerPositionChannel = ClientEntityTracker.openChannel();
 	
 	// Network manager
 	private static PlayerESPNetworkManager networkManager;
@@ -120,6 +128,8 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 		
 		// 注册客户端tick事件
 		ClientTickEvents.END_CLIENT_TICK.register(client -> {
+			ClientEntityTracker.syncWorld(client.world);
+
 			// 先消费网络线程投递的任务：保证网络状态与共享缓存在主线程串行更新，
 			// 再执行本 tick 的输入处理、世界采集与上行发送，避免并发读写冲突。
 			if (networkManager != null) {
@@ -156,6 +166,10 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 			if (espEnabled && networkManager != null) {
 				handleRegistrationAndPositionUpdates();
 			}
+			// 不上报实体时通道无人消费：保持全量重采样状态而不累积变化，恢复上报后首个周期全量采样
+			if (!isEntityUploadActive(client)) {
+				entityUploadChannel.requestResync();
+			}
 		});
 		
 		// 注册世界渲染事件
@@ -191,34 +205,23 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 		MC.setScreen(new PlayerESPConfigScreen(MC.currentScreen));
 	}
 	
-	private Map<UUID, Map<String, Object>> collectPlayerData(MinecraftClient client) {
-		Map<UUID, Map<String, Object>> players = new HashMap<>();
+	private void collectPlayerData(MinecraftClient client, OutboundFrameWriter players) {
+		players.beginFrame();
 		if (client.world != null) {
 			for (AbstractClientPlayerEntity p : client.world.getPlayers()) {
 				UUID pid = p.getUuid();
 				Vec3d pos = p.getPos();
 				Vec3d vel = p.getVelocity();
-				boolean isRiding = isPlayerRiding(p);
-				ReportDataSchemas.PlayerDataPayload payload = new ReportDataSchemas.PlayerDataPayload(
-						pos.x,
-						pos.y,
-						pos.z,
-						vel.x,
-						vel.y,
-						vel.z,
-						p.getWorld().getRegistryKey().getValue().toString(),
-						p.getName().getString(),
-						pid.toString(),
-						p.getHealth(),
-						p.getMaxHealth(),
-						0,
-						isRiding,
-						p.getWidth(),
-						p.getHeight());
-				players.put(pid, payload.toMap());
+				players.slot(pid)
+						.position(pos.x, pos.y, pos.z)
+						.velocity(vel.x, vel.y, vel.z)
+						.text(OutboundStateStore.FIELD_DIMENSION, p.getWorld().getRegistryKey().getValue().toString())
+						.text(OutboundStateStore.FIELD_PLAYER_NAME, p.getName().getString())
+						.health(p.getHealth(), p.getMaxHealth(), 0)
+						.riding(isPlayerRiding(p))
+						.size(p.getWidth(), p.getHeight());
 			}
 		}
-		return players;
 	}
 
 	private boolean isPlayerRiding(AbstractClientPlayerEntity player) {
@@ -233,44 +236,82 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 		return entityTypeText.contains("horse");
 	}
 	
-	private Map<String, Map<String, Object>> collectEntityData(MinecraftClient client) {
-		Map<String, Map<String, Object>> entities = new HashMap<>();
-		if (client.world != null) {
-			for (Entity entity : client.world.getEntities()) {
-				if (entity == client.player) continue;
-				String entityId = entity.getUuid().toString();
-				Vec3d ePos = entity.getPos();
-				Vec3d eVel = entity.getVelocity();
-				String eDim = entity.getWorld().getRegistryKey().getValue().toString();
-				String entityType = entity.getType().toString();
-				ReportDataSchemas.EntityDataPayload payload = new ReportDataSchemas.EntityDataPayload(
-						ePos.x,
-						ePos.y,
-						ePos.z,
-						eVel.x,
-						eVel.y,
-						eVel.z,
-						eDim,
-						entityType,
-						entity.hasCustomName() ? entity.getDisplayName().getString() : null,
-						entity.getWidth(),
-						entity.getHeight());
-				entities.put(entityId, payload.toMap());
+	private boolean isEntityUploadActive(MinecraftClient client) {
+		return espEnabled
+				&& networkManager != null
+				&& networkManager.isConnected()
+				&& config.isUploadEntities()
+				&& client.world != null
+				&& client.player != null
+				&& client.player.isAlive();
+	}
+
+	private void collectEntityData(MinecraftClient client, OutboundFrameWriter entities) {
+		entities.beginFrame();
+		if (client.player != null) {
+			Vec3d origin = client.player.getPos();
+			entities.setOrigin(origin.x, origin.y, origin.z);
+		}
+		if (client.world == null) {
+			return;
+		}
+		// 只采集自上次上报以来新增、移动或移除的实体；首次采集、世界切换或出站状态被清空时全量采样
+		if (entityUploadChannel.isResyncRequested() | entities.takeResampleRequest()) {
+			entities.removeAll();
+			for (Entity entity : ClientEntityTracker.entities()) {
+				sampleEntity(client, entities, entity);
+			}
+		} else {
+			for (UUID removedId : entityUploadChannel.removed()) {
+				entities.remove(removedId);
+			}
+			for (Entity entity : entityUploadChannel.changed()) {
+				sampleEntity(client, entities, entity);
 			}
 		}
-		return entities;
+		entityUploadChannel.clear();
+	}
+
+	private void sampleEntity(MinecraftClient client, OutboundFrameWriter entities, Entity entity) {
+		if (entity == null || entity == client.player) {
+			return;
+		}
+		Vec3d ePos = entity.getPos();
+		Vec3d eVel = entity.getVelocity();
+		entities.slot(entity.getUuid())
+				.position(ePos.x, ePos.y, ePos.z)
+				.velocity(eVel.x, eVel.y, eVel.z)
+				.text(OutboundStateStore.FIELD_DIMENSION, entity.getWorld().getRegistryKey().getValue().toString())
+				.text(OutboundStateStore.FIELD_ENTITY_TYPE, entity.getType().toString())
+				.text(OutboundStateStore.FIELD_ENTITY_NAME, entity.hasCustomName() ? entity.getDisplayName().getString() : null)
+				.size(entity.getWidth(), entity.getHeight())
+				.category(entity instanceof PlayerEntity
+						? OutboundStateStore.CATEGORY_PLAYER
+						: entity instanceof Monster ? OutboundStateStore.CATEGORY_HOSTILE : OutboundStateStore.CATEGORY_OTHER);
 	}
 	
 	private void updatePlayerPositions() {
 		MinecraftClient client = MinecraftClient.getInstance();
 		if (client.world != null && client.player != null) {
-			// 更新服务器端玩家位置
-			serverPlayerPositions.clear();
-			for (AbstractClientPlayerEntity player : client.world.getPlayers()) {
-				if (player != client.player) { // 不包括自己
-					serverPlayerPositions.put(player.getUuid(), player.getPos());
+			// 更新服务器端玩家位置：只处理变化的玩家，首次或世界切换时全量重建
+			if (playerPositionChannel.isResyncRequested()) {
+				serverPlayerPositions.clear();
+				for (AbstractClientPlayerEntity player : client.world.getPlayers()) {
+					if (player != client.player) { // 不包括自己
+						serverPlayerPositions.put(player.getUuid(), player.getPos());
+					}
+				}
+			} else {
+				for (UUID removedId : playerPositionChannel.removed()) {
+					serverPlayerPositions.remove(removedId);
+				}
+				for (Entity entity : playerPositionChannel.changed()) {
+					if (entity instanceof AbstractClientPlayerEntity player && player != client.player) {
+						serverPlayerPositions.put(player.getUuid(), player.getPos());
+					}
 				}
 			}
+			playerPositionChannel.clear();
 		}
 	}
 	
@@ -289,72 +330,61 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 		if (networkManager.isConnected() && tickCounter >= Math.max(1, targetInterval)) {
 			tickCounter = 0;
 			UUID submitPlayerId = client.player.getUuid();
-			networkManager.sendTabPlayersUpdate(submitPlayerId, collectTabPlayers(client));
+			if (collectTabPlayers(client, networkManager.tabPlayers())) {
+				networkManager.sendTabPlayersUpdate(submitPlayerId);
+			}
 
-			// 批量收集所有玩家（含本地）并上传
-			Map<UUID, Map<String, Object>> players = collectPlayerData(client);
-			networkManager.sendPlayersUpdate(submitPlayerId, players);
+			// 批量收集所有玩家（含本地）写入出站槽位并上传增量
+			collectPlayerData(client, networkManager.outboundPlayers());
+			networkManager.sendPlayersUpdate(submitPlayerId);
 
 			// 收集并上报当前世界中的实体（带 submitPlayerId）
 			if (config.isUploadEntities() && client.world != null) {
-				Map<String, Map<String, Object>> entities = collectEntityData(client);
-				networkManager.sendEntitiesUpdate(submitPlayerId, entities);
+				collectEntityData(client, networkManager.outboundEntities());
+				networkManager.sendEntitiesUpdate(submitPlayerId);
 			}
 		}
 	}
 
-	private List<Map<String, Object>> collectTabPlayers(MinecraftClient client) {
-		List<Map<String, Object>> result = new ArrayList<>();
-		if (client == null) return result;
+	/**
+	 * 把当前 Tab 列表逐条交给跟踪器比较指纹。
+	 * @return 完整遍历了列表时返回 true；中途失败时不提交本轮，避免未遍历到的条目被当作离开
+	 */
+	private boolean collectTabPlayers(MinecraftClient client, TabListTracker tracker) {
+		if (client == null) return false;
 
 		ClientPlayNetworkHandler handler = client.getNetworkHandler();
-		if (handler == null) return result;
+		if (handler == null) return false;
 
 		try {
+			tracker.beginScan();
 			Collection<PlayerListEntry> entries = handler.getPlayerList();
 			for (PlayerListEntry entry : entries) {
 				if (entry == null || entry.getProfile() == null) continue;
 
-				String playerId = entry.getProfile().getId() == null
-						? null
-						: entry.getProfile().getId().toString();
+				UUID playerId = entry.getProfile().getId();
+				if (playerId == null) continue;
 
 				String profileName = entry.getProfile().getName();
 				if (profileName == null || profileName.isBlank()) continue;
 
 				Team team = resolvePlayerTeam(client, entry, profileName);
 
-				String prefixText = null;
 				String prefixColored = null;
-
 				if (team != null) {
-					prefixText = team.getName();
 					prefixColored = team.getPrefix().toString();
+					if (prefixColored.isBlank()) {
+						prefixColored = null;
+					}
 				}
 
-				Map<String, Object> node = new HashMap<>();
-
-				if (playerId != null && !playerId.isBlank()) {
-					node.put("playerUUID", playerId);
-				}
-
-				node.put("name", profileName);
-
-				if (prefixText != null && !prefixText.isBlank()) {
-					node.put("prefixText", prefixText);
-				}
-
-				if (prefixColored != null && !prefixColored.isBlank()) {
-					node.put("prefixColored", prefixColored);
-				}
-
-				result.add(node);
+				tracker.observe(playerId, profileName, prefixColored);
 			}
+			return true;
 		} catch (Exception e) {
 			LOGGER.debug("collectTabPlayers failed: {}", e.getMessage());
+			return false;
 		}
-
-		return result;
 	}
 
 	private Team resolvePlayerTeam(MinecraftClient client,
@@ -394,7 +424,9 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 			int boxRenderColor = resolveRenderColorByTeam(markedTeam, config.getBoxColor());
 			int tracerRenderColor = resolveRenderColorByTeam(markedTeam, config.getLineColor());
 
-			Vec3d playerPos = entry.getValue();
+			Vec3d playerPos = networkManager == null
+					? entry.getValue()
+					: networkManager.extrapolateRemotePlayerPosition(entry.getKey(), entry.getValue());
 			
 			// 检查距离
 			if (client.player.getPos().distanceTo(playerPos) <= config.getRenderDistance()) {
@@ -568,32 +600,6 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 
 		UUID localPlayerId = client.player.getUuid();
 		String currentDimension = client.world.getRegistryKey().getValue().toString();
-		Map<String, Entity> localEntitiesById = new HashMap<>();
-		for (Entity entity : client.world.getEntities()) {
-			if (entity == null) {
-				continue;
-			}
-			localEntitiesById.put(entity.getUuidAsString(), entity);
-		}
-
-		Map<String, LivingEntity> confirmedDeadEntities = new HashMap<>();
-		for (Map.Entry<String, Entity> entry : localEntitiesById.entrySet()) {
-			Entity entity = entry.getValue();
-			if (!(entity instanceof LivingEntity livingEntity)) {
-				continue;
-			}
-			if (!isKillableMarkTarget(entity)) {
-				continue;
-			}
-			if (!isEntityDeathConfirmed(livingEntity)) {
-				continue;
-			}
-			confirmedDeadEntities.put(entry.getKey(), livingEntity);
-		}
-		if (confirmedDeadEntities.isEmpty()) {
-			return;
-		}
-
 		List<String> toDelete = new java.util.ArrayList<>();
 		List<String> cancelledTargetEntityIds = new java.util.ArrayList<>();
 		for (Map.Entry<String, SharedWaypointInfo> entry : sharedWaypoints.entrySet()) {
@@ -612,7 +618,12 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 			if (targetEntityId == null || targetEntityId.isBlank()) {
 				continue;
 			}
-			if (!confirmedDeadEntities.containsKey(targetEntityId)) {
+			// 按报点目标查实体索引，不再每 tick 遍历整个世界
+			Entity entity = ClientEntityTracker.find(targetEntityId);
+			if (!(entity instanceof LivingEntity livingEntity) || !isKillableMarkTarget(entity)) {
+				continue;
+			}
+			if (!isEntityDeathConfirmed(livingEntity)) {
 				continue;
 			}
 
@@ -1090,16 +1101,8 @@ public class StandaloneMultiPlayerESP implements ClientModInitializer {
 			return null;
 		}
 
-		for (Entity entity : client.world.getEntities()) {
-			if (entity == null) {
-				continue;
-			}
-			if (entityUuid.equals(entity.getUuidAsString())) {
-				return entity.getPos();
-			}
-		}
-
-		return null;
+		Entity entity = ClientEntityTracker.find(entityUuid);
+		return entity == null ? null : entity.getPos();
 	}
 
 	private Vec3d resolveLocalPlayerPositionFallback(MinecraftClient client, String targetEntityId, String targetEntityName, String currentDimension) {
@@ -61,72 +61,6 @@ public final class ReportDataSchemas {
             Map.entry("tacticalType", true),
             Map.entry("sourceType", true));
 
-    public record PlayerDataPayload(
-            double x,
-            double y,
-            double z,
-            double vx,
-            double vy,
-            double vz,
-            String dimension,
-            String playerName,
-            String playerUUID,
-            float health,
-            float maxHealth,
-            float armor,
-            boolean isRiding,
-            float width,
-            float height) {
-        public Map<String, Object> toMap() {
-            Map<String, Object> data = new HashMap<>();
-            data.put("x", x);
-            data.put("y", y);
-            data.put("z", z);
-            data.put("vx", vx);
-            data.put("vy", vy);
-            data.put("vz", vz);
-            data.put("dimension", dimension);
-            data.put("playerName", playerName);
-            data.put("playerUUID", playerUUID);
-            data.put("health", health);
-            data.put("maxHealth", maxHealth);
-            data.put("armor", armor);
-            data.put("isRiding", isRiding);
-            data.put("width", width);
-            data.put("height", height);
-            return data;
-        }
-    }
-
-    public record EntityDataPayload(
-            double x,
-            double y,
-            double z,
-            double vx,
-            double vy,
-            double vz,
-            String dimension,
-            String entityType,
-            String entityName,
-            float width,
-            float height) {
-        public Map<String, Object> toMap() {
-            Map<String, Object> data = new HashMap<>();
-            data.put("x", x);
-            data.put("y", y);
-            data.put("z", z);
-            data.put("vx", vx);
-            data.put("vy", vy);
-            data.put("vz", vz);
-            data.put("dimension", dimension);
-            data.put("entityType", entityType);
-            data.put("entityName", entityName);
-            data.put("width", width);
-            data.put("height", height);
-            return data;
-        }
-    }
-
     public record WaypointDataPayload(
             int x,
             int y,
@@ -0,0 +1,52 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 逐帧压缩统计：按方向与包类型累计原始字节、线上字节与压缩/解压耗时。
+ * 压缩在出站编码线程、解压在客户端主线程记录，方法加锁。
+ */
+final class CompressionStats {
+	private static final int SUMMARY_EVERY_FRAMES = 600;
+
+	private final Map<String, long[]> statsByType = new TreeMap<>();
+	private long framesSinceSummary = 0L;
+
+	/**
+	 * @return 达到汇总间隔时返回汇总文本，否则返回 null
+	 */
+	synchronized String record(String direction, String packetType, int rawBytes, int wireBytes, long elapsedNanos) {
+		long[] stats = statsByType.computeIfAbsent(direction + ":" + packetType, ignored -> new long[4]);
+		stats[0]++;
+		stats[1] += rawBytes;
+		stats[2] += wireBytes;
+		stats[3] += elapsedNanos;
+		if (++framesSinceSummary < SUMMARY_EVERY_FRAMES) {
+			return null;
+		}
+		framesSinceSummary = 0L;
+		return summary();
+	}
+
+	synchronized String summary() {
+		StringBuilder builder = new StringBuilder();
+		for (Map.Entry<String, long[]> entry : statsByType.entrySet()) {
+			long[] stats = entry.getValue();
+			if (stats[0] <= 0L || stats[1] <= 0L) {
+				continue;
+			}
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(entry.getKey())
+					.append(" ratio=")
+					.append(String.format("%.2f", stats[2] / (double) stats[1]))
+					.append(" ")
+					.append(stats[3] / stats[0] / 1_000L)
+					.append("us x")
+					.append(stats[0]);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,28 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+/**
+ * 航位推算模型：接收端以最近一次收到的 x/y/z 与 vx/vy/vz（格/tick）按经过的 tick 数线性外推，
+ * 外推时长最多 {@link #MAX_HORIZON_MS}。发送端用同一模型预测接收端看到的位置，
+ * 只有真实位置偏离预测超过误差上限或速度突变时才重发坐标，因此两端的公式必须保持一致。
+ */
+final class DeadReckoning {
+	static final long TICK_MS = 50L;
+	static final long MAX_HORIZON_MS = 2_000L;
+
+	// 速度突变阈值（格/tick）：超过后立即重发，让接收端尽快换用新速度
+	static final double VELOCITY_CHANGE_THRESHOLD = 0.05;
+
+	private DeadReckoning() {
+	}
+
+	static double elapsedTicks(long elapsedMs) {
+		if (elapsedMs <= 0L) {
+			return 0.0;
+		}
+		return Math.min(elapsedMs, MAX_HORIZON_MS) / (double) TICK_MS;
+	}
+
+	static double extrapolate(double base, double velocity, long elapsedMs) {
+		return base + velocity * elapsedTicks(elapsedMs);
+	}
+}
@@ -0,0 +1,79 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 出站编码分配计数器：用 HotSpot 线程分配字节数统计每种包类型编码一次平均分配多少堆内存。
+ * <p>
+ * 仅在 -Dteamviewer.encodeAllocStats=true 时启用；配合 -Dteamviewer.legacyEncode=true
+ * 可对比复用缓冲区前后的分配量。只在发送线程（出站编码线程）调用。
+ */
+final class EncodeAllocationStats {
+	static final boolean ENABLED = Boolean.getBoolean("teamviewer.encodeAllocStats");
+	private static final int SUMMARY_EVERY_PACKETS = 600;
+
+	private final com.sun.management.ThreadMXBean threadBean = resolveThreadBean();
+	private final Map<String, long[]> statsByType = new TreeMap<>();
+	private long packetsSinceSummary = 0L;
+
+	boolean isActive() {
+		return ENABLED && threadBean != null;
+	}
+
+	long currentThreadAllocatedBytes() {
+		return threadBean == null ? 0L : threadBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+	}
+
+	/**
+	 * @return 达到汇总间隔时返回汇总文本，否则返回 null
+	 */
+	String record(String packetType, long allocatedBytes, int frameBytes) {
+		long[] stats = statsByType.computeIfAbsent(packetType, ignored -> new long[3]);
+		stats[0]++;
+		stats[1] += Math.max(0L, allocatedBytes);
+		stats[2] += frameBytes;
+		if (++packetsSinceSummary < SUMMARY_EVERY_PACKETS) {
+			return null;
+		}
+		packetsSinceSummary = 0L;
+		return summary();
+	}
+
+	String summary() {
+		StringBuilder builder = new StringBuilder();
+		for (Map.Entry<String, long[]> entry : statsByType.entrySet()) {
+			long[] stats = entry.getValue();
+			if (stats[0] <= 0L) {
+				continue;
+			}
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(entry.getKey())
+					.append("=")
+					.append(stats[1] / stats[0])
+					.append("B alloc/")
+					.append(stats[2] / stats[0])
+					.append("B frame x")
+					.append(stats[0]);
+		}
+		return builder.toString();
+	}
+
+	private static com.sun.management.ThreadMXBean resolveThreadBean() {
+		if (!ENABLED) {
+			return null;
+		}
+		try {
+			if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+					&& bean.isThreadAllocatedMemorySupported()) {
+				bean.setThreadAllocatedMemoryEnabled(true);
+				return bean;
+			}
+		} catch (Exception ignored) {
+		}
+		return null;
+	}
+}
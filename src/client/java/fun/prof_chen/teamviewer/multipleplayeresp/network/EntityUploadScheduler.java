@@ -0,0 +1,103 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 实体上报调度：每个上报周期按字节预算挑选要发送的实体变更，其余顺延到后续周期。
+ * <p>
+ * 优先级得分以与本地玩家的距离为基础，按类别缩放（玩家 &lt; 敌对生物 &lt; 其他），
+ * 新出现或非坐标字段变化的实体额外提前；每顺延一个周期再提前一档，形成轮转。
+ * 顺延时间达到保活间隔的实体不受预算限制，保证每个实体都能在保活窗口内刷新。只在出站编码线程使用（由 collectOutboundDelta 调用）。
+ */
+final class EntityUploadScheduler {
+	private static final double[] CATEGORY_DISTANCE_FACTOR = {0.25, 0.5, 1.0};
+	private static final double DEFER_BOOST_BLOCKS = 24.0;
+	private static final double RELIABLE_CHANGE_BOOST_BLOCKS = 64.0;
+
+	// 字节估算：16 字节 UUID 键加 map 头，每个字段按短键名加 9 字节数值计
+	private static final int ENTRY_OVERHEAD_BYTES = 20;
+	private static final int FIELD_BYTES = 12;
+	private static final int POSITION_ONLY_BYTES = 16 + 6 * 8;
+
+	private static final Comparator<OutboundStateStore.Slot> BY_SCORE =
+			(left, right) -> Double.compare(left.scheduleScore, right.scheduleScore);
+
+	private int deferredLastInterval = 0;
+
+	/**
+	 * 按优先级保留预算内的实体变更，其余从 changedSlots 中移除并记为顺延。
+	 * @param deadlineMs 顺延时长上限，达到后无视预算发送
+	 */
+	void retainWithinBudget(
+			OutboundStateStore store,
+			List<OutboundStateStore.Slot> changedSlots,
+			int budgetBytes,
+			long deadlineMs,
+			long nowMs
+	) {
+		deferredLastInterval = 0;
+		if (budgetBytes <= 0 || changedSlots.isEmpty()) {
+			clearDeferral(changedSlots);
+			return;
+		}
+
+		for (OutboundStateStore.Slot slot : changedSlots) {
+			slot.scheduleScore = score(store, slot, nowMs);
+		}
+		changedSlots.sort(BY_SCORE);
+
+		int usedBytes = 0;
+		int kept = 0;
+		for (int i = 0; i < changedSlots.size(); i++) {
+			OutboundStateStore.Slot slot = changedSlots.get(i);
+			int bytes = estimateBytes(slot);
+			boolean overdue = slot.deferredSinceMs > 0L && nowMs - slot.deferredSinceMs >= deadlineMs;
+			if (kept == 0 || overdue || usedBytes + bytes <= budgetBytes) {
+				usedBytes += bytes;
+				slot.deferredSinceMs = 0L;
+				changedSlots.set(kept++, slot);
+				continue;
+			}
+			slot.stage(0);
+			if (slot.deferredSinceMs == 0L) {
+				slot.deferredSinceMs = nowMs;
+			}
+			deferredLastInterval++;
+		}
+		changedSlots.subList(kept, changedSlots.size()).clear();
+	}
+
+	int deferredLastInterval() {
+		return deferredLastInterval;
+	}
+
+	private static double score(OutboundStateStore store, OutboundStateStore.Slot slot, long nowMs) {
+		int category = slot.category();
+		double factor = category >= 0 && category < CATEGORY_DISTANCE_FACTOR.length
+				? CATEGORY_DISTANCE_FACTOR[category]
+				: 1.0;
+		double score = Math.sqrt(store.distanceSqToOrigin(slot)) * factor;
+		if (!slot.hasSentBaseline() || (slot.stagedMask() & ~OutboundStateStore.POSITION_FIELDS) != 0) {
+			score -= RELIABLE_CHANGE_BOOST_BLOCKS;
+		}
+		if (slot.deferredSinceMs > 0L) {
+			score -= DEFER_BOOST_BLOCKS * Math.max(1L, (nowMs - slot.deferredSinceMs) / DeadReckoning.TICK_MS);
+		}
+		return score;
+	}
+
+	private static int estimateBytes(OutboundStateStore.Slot slot) {
+		int mask = slot.stagedMask();
+		if (slot.hasSentBaseline() && (mask & ~OutboundStateStore.POSITION_FIELDS) == 0) {
+			return POSITION_ONLY_BYTES;
+		}
+		return ENTRY_OVERHEAD_BYTES + Integer.bitCount(mask) * FIELD_BYTES;
+	}
+
+	private static void clearDeferral(List<OutboundStateStore.Slot> slots) {
+		for (OutboundStateStore.Slot slot : slots) {
+			slot.deferredSinceMs = 0L;
+		}
+	}
+}
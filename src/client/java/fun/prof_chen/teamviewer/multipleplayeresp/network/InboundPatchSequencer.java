@@ -0,0 +1,140 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 下行 patch 序号跟踪：按序号顺序交付补丁，乱序到达的补丁暂存，出现缺口时立即给出需要补发的区间。
+ * <p>
+ * 基线来自 snapshot_full 携带的序号；没有基线时以收到的第一个补丁为起点。缺口在
+ * {@link #GAP_TIMEOUT_MS} 内未补齐或暂存超过 {@link #MAX_PENDING} 个时放弃补发，由调用方改为全量重同步；
+ * 暂存的较新补丁保留到快照到达后接着应用，超出上限时丢弃最旧的。
+ * 已交付的最大序号按 {@link #ACK_INTERVAL_MS} 或每 {@link #ACK_EVERY_PATCHES} 个补丁累计确认一次。只在客户端主线程使用。
+ */
+final class InboundPatchSequencer<T> {
+	static final int MAX_PENDING = 64;
+	static final long GAP_TIMEOUT_MS = 2_000L;
+	// 同一缺口重复请求补发的间隔
+	private static final long NACK_RETRY_MS = 500L;
+	private static final long ACK_INTERVAL_MS = 1_000L;
+	private static final int ACK_EVERY_PATCHES = 32;
+
+	private final TreeMap<Long, T> pending = new TreeMap<>();
+	private long lastDelivered = -1L;
+	private long gapSinceMs = 0L;
+	private long lastNackMs = 0L;
+	private boolean overflowed = false;
+	private long lastAcked = -1L;
+	private long lastAckMs = 0L;
+
+	/**
+	 * 全量快照已覆盖到 seq：之前的暂存补丁作废，之后的按序交付。
+	 * @return 暂存中紧接快照、现在可以应用的补丁
+	 */
+	List<T> resetTo(long seq, long nowMs) {
+		lastDelivered = seq;
+		pending.headMap(seq, true).clear();
+		overflowed = false;
+		lastNackMs = 0L;
+		List<T> ready = drainConsecutive();
+		// 快照与暂存之间仍有缺口时从现在重新计时
+		gapSinceMs = pending.isEmpty() ? 0L : nowMs;
+		return ready;
+	}
+
+	/**
+	 * 连接重建或快照未携带序号：丢弃基线，以下一个补丁为起点。
+	 */
+	void clear() {
+		pending.clear();
+		lastDelivered = -1L;
+		gapSinceMs = 0L;
+		lastNackMs = 0L;
+		overflowed = false;
+		lastAcked = -1L;
+		lastAckMs = 0L;
+	}
+
+	/**
+	 * @return 现在可以按顺序应用的补丁（可能为空）；重复或过期的补丁直接丢弃
+	 */
+	List<T> offer(long seq, T packet, long nowMs) {
+		if (lastDelivered < 0L) {
+			lastDelivered = seq - 1L;
+		}
+		if (seq <= lastDelivered) {
+			return List.of();
+		}
+		if (seq == lastDelivered + 1L) {
+			lastDelivered = seq;
+			List<T> ready = drainConsecutive();
+			ready.add(0, packet);
+			return ready;
+		}
+		pending.putIfAbsent(seq, packet);
+		if (pending.size() > MAX_PENDING) {
+			pending.pollFirstEntry();
+			overflowed = true;
+		}
+		if (gapSinceMs == 0L) {
+			gapSinceMs = nowMs;
+		}
+		return List.of();
+	}
+
+	private List<T> drainConsecutive() {
+		List<T> ready = new ArrayList<>();
+		Map.Entry<Long, T> next;
+		while ((next = pending.firstEntry()) != null && next.getKey() == lastDelivered + 1L) {
+			pending.pollFirstEntry();
+			lastDelivered = next.getKey();
+			ready.add(next.getValue());
+		}
+		if (pending.isEmpty()) {
+			gapSinceMs = 0L;
+			overflowed = false;
+		}
+		return ready;
+	}
+
+	/**
+	 * @return 需要请求补发的闭区间 {from, to}；没有缺口或未到重试时间时为 null
+	 */
+	long[] pollNack(long nowMs) {
+		if (pending.isEmpty() || nowMs - lastNackMs < NACK_RETRY_MS) {
+			return null;
+		}
+		lastNackMs = nowMs;
+		return new long[] {lastDelivered + 1L, pending.firstKey() - 1L};
+	}
+
+	/**
+	 * @return true 表示缺口已无法靠补发修复，调用方应请求全量快照；之后每隔一个超时周期最多再返回一次
+	 */
+	boolean takeGapExpired(long nowMs) {
+		boolean expired = !pending.isEmpty()
+				&& (overflowed || nowMs - gapSinceMs >= GAP_TIMEOUT_MS);
+		if (expired) {
+			overflowed = false;
+			gapSinceMs = nowMs;
+		}
+		return expired;
+	}
+
+	/**
+	 * @return 需要发送的累计确认序号；无需确认时为 -1
+	 */
+	long pollAck(long nowMs) {
+		if (lastDelivered <= lastAcked) {
+			return -1L;
+		}
+		if (nowMs - lastAckMs < ACK_INTERVAL_MS && lastDelivered - lastAcked < ACK_EVERY_PATCHES) {
+			return -1L;
+		}
+		lastAcked = lastDelivered;
+		lastAckMs = nowMs;
+		return lastDelivered;
+	}
+}
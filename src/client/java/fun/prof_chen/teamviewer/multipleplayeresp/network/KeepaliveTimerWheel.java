@@ -0,0 +1,177 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 对象级保活的哈希时间轮：每个已上报对象按下次保活时刻挂在对应的时间格里。
+ * <p>
+ * 上报（upsert）重新计时，删除取消计时，收集保活时只推进游标并弹出到期的对象，
+ * 没有对象到期时开销与对象总数无关。到期时刻超出一圈的对象留在格内，游标再次经过且到期后才弹出。
+ * 到期但因单包数量上限未能发出的对象留在到期队列，下次优先弹出。只在出站编码线程使用。
+ */
+final class KeepaliveTimerWheel {
+	private static final long TICK_MS = 100L;
+	private static final int WHEEL_SIZE = 128;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private final Bucket[] buckets = new Bucket[WHEEL_SIZE];
+	private final Bucket due = new Bucket();
+	private final Map<String, Entry> entries = new HashMap<>();
+	private long cursorTick = Long.MIN_VALUE;
+
+	KeepaliveTimerWheel() {
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * 对象刚上报或刚保活：从 nowMs 起重新计时。
+	 */
+	void schedule(String id, long nowMs, long intervalMs) {
+		if (id == null || id.isBlank()) {
+			return;
+		}
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			entry = new Entry(id);
+			entries.put(id, entry);
+		} else {
+			entry.unlink();
+		}
+		entry.deadlineMs = nowMs + intervalMs;
+		if (cursorTick == Long.MIN_VALUE) {
+			cursorTick = nowMs / TICK_MS;
+		}
+		buckets[(int) ((entry.deadlineMs / TICK_MS) & WHEEL_MASK)].add(entry);
+	}
+
+	/**
+	 * 对象已删除：取消计时。
+	 */
+	void cancel(String id) {
+		Entry entry = id == null ? null : entries.remove(id);
+		if (entry != null) {
+			entry.unlink();
+		}
+	}
+
+	/**
+	 * 弹出最多 maxItems 个已到期的对象追加到 out，并从 nowMs 起重新计时；
+	 * alive 判定已不存在的对象直接取消，不计入数量。
+	 */
+	void pollDue(long nowMs, long intervalMs, int maxItems, Predicate<String> alive, List<String> out) {
+		advance(nowMs);
+		int added = 0;
+		while (added < maxItems) {
+			Entry entry = due.head;
+			if (entry == null) {
+				break;
+			}
+			entry.unlink();
+			if (!alive.test(entry.id)) {
+				entries.remove(entry.id);
+				continue;
+			}
+			out.add(entry.id);
+			added++;
+			entry.deadlineMs = nowMs + intervalMs;
+			buckets[(int) ((entry.deadlineMs / TICK_MS) & WHEEL_MASK)].add(entry);
+		}
+	}
+
+	/**
+	 * 推进游标到 nowMs 所在的格，把途经格内已到期的对象移入到期队列；跨度超过一圈时每格只扫描一次。
+	 */
+	private void advance(long nowMs) {
+		long nowTick = nowMs / TICK_MS;
+		if (cursorTick == Long.MIN_VALUE || nowTick < cursorTick) {
+			cursorTick = nowTick;
+		}
+		long fromTick = Math.max(cursorTick, nowTick - WHEEL_MASK);
+		for (long tick = fromTick; tick <= nowTick; tick++) {
+			Bucket bucket = buckets[(int) (tick & WHEEL_MASK)];
+			Entry entry = bucket.head;
+			while (entry != null) {
+				Entry next = entry.next;
+				if (entry.deadlineMs <= nowMs) {
+					entry.unlink();
+					due.add(entry);
+				}
+				entry = next;
+			}
+		}
+		// 当前格之后仍可能有对象在本格内到期，游标停在当前格，下次从这里继续
+		cursorTick = nowTick;
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	void clear() {
+		for (Bucket bucket : buckets) {
+			bucket.head = null;
+			bucket.tail = null;
+		}
+		due.head = null;
+		due.tail = null;
+		entries.clear();
+		cursorTick = Long.MIN_VALUE;
+	}
+
+	private static final class Entry {
+		private final String id;
+		private long deadlineMs;
+		private Bucket bucket;
+		private Entry prev;
+		private Entry next;
+
+		private Entry(String id) {
+			this.id = id;
+		}
+
+		private void unlink() {
+			Bucket owner = bucket;
+			if (owner == null) {
+				return;
+			}
+			if (prev != null) {
+				prev.next = next;
+			} else {
+				owner.head = next;
+			}
+			if (next != null) {
+				next.prev = prev;
+			} else {
+				owner.tail = prev;
+			}
+			prev = null;
+			next = null;
+			bucket = null;
+		}
+	}
+
+	/**
+	 * 侵入式双向链表，重新计时与取消都是 O(1)。
+	 */
+	private static final class Bucket {
+		private Entry head;
+		private Entry tail;
+
+		private void add(Entry entry) {
+			entry.bucket = this;
+			entry.prev = tail;
+			entry.next = null;
+			if (tail != null) {
+				tail.next = entry;
+			} else {
+				head = entry;
+			}
+			tail = entry;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 出站编码线程：消费主线程发布的玩家/实体快照与投递的出站任务，在虚拟线程上完成差分、保活挑选、编码与发送。
+ * <p>
+ * 每轮先执行任务队列（单包发送、刷新请求、状态清理等），再依次处理两个快照环；
+ * 空闲时 park，生产者发布后 unpark 唤醒。出站状态存储、帧编码器与保活时间戳只在本线程访问。
+ */
+final class OutboundEncoder implements Runnable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(OutboundEncoder.class);
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+	private static final int SUMMARY_EVERY_SNAPSHOTS = 600;
+
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final OutboundSnapshotRing playersRing;
+	private final OutboundSnapshotRing entitiesRing;
+	private final Consumer<OutboundSnapshotRing.Snapshot> playersHandler;
+	private final Consumer<OutboundSnapshotRing.Snapshot> entitiesHandler;
+	private volatile Thread thread;
+
+	// 吞吐统计：只在编码线程写入，summary 读取时允许看到略旧的值
+	private volatile long snapshotsEncoded = 0L;
+	private volatile long tasksRun = 0L;
+	private volatile long busyNanos = 0L;
+	private volatile long maxSnapshotNanos = 0L;
+	private long snapshotsSinceSummary = 0L;
+
+	OutboundEncoder(
+			OutboundSnapshotRing playersRing,
+			OutboundSnapshotRing entitiesRing,
+			Consumer<OutboundSnapshotRing.Snapshot> playersHandler,
+			Consumer<OutboundSnapshotRing.Snapshot> entitiesHandler
+	) {
+		this.playersRing = playersRing;
+		this.entitiesRing = entitiesRing;
+		this.playersHandler = playersHandler;
+		this.entitiesHandler = entitiesHandler;
+	}
+
+	void start() {
+		if (thread == null) {
+			thread = Thread.ofVirtual().name("TeamViewer-OutboundEncoder").start(this);
+		}
+	}
+
+	/**
+	 * 投递一个在编码线程执行的任务，按投递顺序执行。
+	 */
+	void execute(Runnable task) {
+		tasks.add(task);
+		signal();
+	}
+
+	/**
+	 * 快照发布后唤醒编码线程。
+	 */
+	void signal() {
+		Thread current = thread;
+		if (current != null) {
+			LockSupport.unpark(current);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			boolean worked = runTasks();
+			worked |= drain(playersRing, playersHandler);
+			worked |= drain(entitiesRing, entitiesHandler);
+			if (!worked) {
+				// unpark 先于 park 时许可会保留，不会丢失唤醒
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	private boolean runTasks() {
+		boolean worked = false;
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			worked = true;
+			try {
+				task.run();
+			} catch (Exception e) {
+				LOGGER.error("Outbound encoder task failed: {}", e.getMessage());
+			}
+			tasksRun++;
+		}
+		return worked;
+	}
+
+	private boolean drain(OutboundSnapshotRing ring, Consumer<OutboundSnapshotRing.Snapshot> handler) {
+		OutboundSnapshotRing.Snapshot snapshot = ring.peek();
+		if (snapshot == null) {
+			return false;
+		}
+		long startNs = System.nanoTime();
+		try {
+			handler.accept(snapshot);
+		} catch (Exception e) {
+			LOGGER.error("Outbound encoder failed to process snapshot: {}", e.getMessage());
+		} finally {
+			ring.release();
+		}
+		recordSnapshot(System.nanoTime() - startNs);
+		return true;
+	}
+
+	private void recordSnapshot(long elapsedNanos) {
+		snapshotsEncoded++;
+		busyNanos += elapsedNanos;
+		if (elapsedNanos > maxSnapshotNanos) {
+			maxSnapshotNanos = elapsedNanos;
+		}
+		if (++snapshotsSinceSummary >= SUMMARY_EVERY_SNAPSHOTS) {
+			snapshotsSinceSummary = 0L;
+			LOGGER.debug("Outbound encoder: {}", summary());
+		}
+	}
+
+	/**
+	 * @return 已处理快照数、平均/最大单帧耗时（差分+编码+发送）与任务数
+	 */
+	String summary() {
+		long snapshots = snapshotsEncoded;
+		if (snapshots <= 0L) {
+			return "";
+		}
+		return "snapshots=" + snapshots
+				+ " avg=" + busyNanos / snapshots / 1_000L + "us"
+				+ " max=" + maxSnapshotNanos / 1_000L + "us"
+				+ " tasks=" + tasksRun;
+	}
+}
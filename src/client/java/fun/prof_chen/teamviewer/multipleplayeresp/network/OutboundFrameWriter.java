@@ -0,0 +1,178 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.UUID;
+
+/**
+ * 主线程采集入口：每个上报周期 {@link #beginFrame()} 后按对象写入当前值，由网络管理器发布给出站编码线程。
+ * <p>
+ * 写入只是把原始类型复制进预分配的快照槽位，不做差分与编码；编码线程落后导致快照环已满时，
+ * 本帧写入临时槽位后丢弃，并要求下一帧全量重采样，保证增量采集不丢失移除与变化。只在客户端主线程使用。
+ */
+public final class OutboundFrameWriter {
+	private static final int FIELD_COUNT = OutboundStateStore.FIELD_COUNT;
+
+	private final OutboundSnapshotRing ring;
+	private final OutboundSnapshotRing.Snapshot overflow = new OutboundSnapshotRing.Snapshot();
+	private final Row row = new Row();
+	private OutboundSnapshotRing.Snapshot current;
+	private boolean claimed = false;
+	private volatile boolean resampleRequested = true;
+	private long droppedFrames = 0L;
+
+	OutboundFrameWriter(OutboundSnapshotRing ring) {
+		this.ring = ring;
+	}
+
+	/**
+	 * 开始新的采集周期；本周期内未写入的对象在发送时视为已消失（实体存储为显式移除模式，见 {@link #remove(UUID)}）。
+	 */
+	public void beginFrame() {
+		OutboundSnapshotRing.Snapshot snapshot = ring.claim();
+		claimed = snapshot != null;
+		if (snapshot == null) {
+			snapshot = overflow;
+			snapshot.reset();
+		}
+		current = snapshot;
+		current.capturedAtMs = System.currentTimeMillis();
+		current.resample = false;
+	}
+
+	/**
+	 * 设置本周期的参考点（通常是本地玩家位置），上报调度据此计算距离优先级。
+	 */
+	public void setOrigin(double x, double y, double z) {
+		current.originX = x;
+		current.originY = y;
+		current.originZ = z;
+	}
+
+	/**
+	 * @return 该对象本周期的写入行；返回的对象在下次调用前有效
+	 */
+	public Row slot(UUID id) {
+		row.index = current.addRow(id);
+		row.snapshot = current;
+		return row;
+	}
+
+	/**
+	 * 显式移除模式：标记对象已消失，下次发送时删除。
+	 */
+	public void remove(UUID id) {
+		current.addRemoved(id);
+	}
+
+	/**
+	 * 显式移除模式：标记全部对象已消失，随后本周期重新写入的对象会被保留。
+	 */
+	public void removeAll() {
+		current.resample = true;
+		current.removedCount = 0;
+	}
+
+	/**
+	 * @return 首次采集、出站状态被清空或上一帧被丢弃后首次调用返回 true，提示增量采集方做一次全量采样
+	 */
+	public boolean takeResampleRequest() {
+		boolean requested = resampleRequested;
+		resampleRequested = false;
+		return requested;
+	}
+
+	void requestResample() {
+		resampleRequested = true;
+	}
+
+	/**
+	 * 发布本周期快照；环已满时丢弃。
+	 * @return 成功发布时返回 true
+	 */
+	boolean publish(UUID submitPlayerId) {
+		if (current == null) {
+			return false;
+		}
+		current.submitPlayerId = submitPlayerId;
+		current = null;
+		if (!claimed) {
+			droppedFrames++;
+			resampleRequested = true;
+			return false;
+		}
+		claimed = false;
+		ring.publish();
+		return true;
+	}
+
+	/**
+	 * 放弃本周期快照（未连接时）；增量采集的变化已被消费，下次需要全量重采样。
+	 */
+	void discard() {
+		current = null;
+		claimed = false;
+		resampleRequested = true;
+	}
+
+	long droppedFrames() {
+		return droppedFrames;
+	}
+
+	/**
+	 * 快照中的一行，setter 与出站状态槽位一一对应，只记录实际写入的字段。
+	 */
+	public static final class Row {
+		private OutboundSnapshotRing.Snapshot snapshot;
+		private int index;
+
+		private Row() {
+		}
+
+		private void put(int field, double value) {
+			snapshot.numbers[index * FIELD_COUNT + field] = value;
+			snapshot.setMasks[index] |= 1 << field;
+		}
+
+		public Row position(double x, double y, double z) {
+			put(OutboundStateStore.FIELD_X, x);
+			put(OutboundStateStore.FIELD_Y, y);
+			put(OutboundStateStore.FIELD_Z, z);
+			return this;
+		}
+
+		public Row velocity(double vx, double vy, double vz) {
+			put(OutboundStateStore.FIELD_VX, vx);
+			put(OutboundStateStore.FIELD_VY, vy);
+			put(OutboundStateStore.FIELD_VZ, vz);
+			return this;
+		}
+
+		public Row size(float width, float height) {
+			put(OutboundStateStore.FIELD_WIDTH, width);
+			put(OutboundStateStore.FIELD_HEIGHT, height);
+			return this;
+		}
+
+		public Row health(float health, float maxHealth, float armor) {
+			put(OutboundStateStore.FIELD_HEALTH, health);
+			put(OutboundStateStore.FIELD_MAX_HEALTH, maxHealth);
+			put(OutboundStateStore.FIELD_ARMOR, armor);
+			return this;
+		}
+
+		public Row riding(boolean riding) {
+			put(OutboundStateStore.FIELD_IS_RIDING, riding ? 1.0 : 0.0);
+			return this;
+		}
+
+		public Row category(int category) {
+			snapshot.categories[index] = category;
+			return this;
+		}
+
+		public Row text(int field, String value) {
+			snapshot.strings[index * FIELD_COUNT + field] = value;
+			snapshot.setMasks[index] |= 1 << field;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 主线程到出站编码线程的单生产者/单消费者快照环。
+ * <p>
+ * 槽位预先分配，每个槽位是一帧按对象排列的原始类型数组；生产者（客户端主线程）只在
+ * {@link #claim()} 取得的槽位里复制数值与字符串引用，{@link #publish()} 后才对消费者可见；
+ * 消费者（编码线程）处理完 {@link #peek()} 返回的槽位后调用 {@link #release()} 归还。
+ * 首尾计数用 {@link AtomicLong} 的 lazySet/get 提供发布-获取语义，全程无锁。
+ */
+final class OutboundSnapshotRing {
+	private final Snapshot[] snapshots;
+	private final int indexMask;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	OutboundSnapshotRing(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+		}
+		this.snapshots = new Snapshot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			snapshots[i] = new Snapshot();
+		}
+		this.indexMask = capacity - 1;
+	}
+
+	/**
+	 * 生产者：取得下一个可写槽位并清空，环已满（消费者落后）时返回 null。
+	 */
+	Snapshot claim() {
+		long h = head.get();
+		if (h - tail.get() >= snapshots.length) {
+			return null;
+		}
+		Snapshot snapshot = snapshots[(int) (h & indexMask)];
+		snapshot.reset();
+		return snapshot;
+	}
+
+	/**
+	 * 生产者：发布最近一次 {@link #claim()} 的槽位。
+	 */
+	void publish() {
+		head.lazySet(head.get() + 1);
+	}
+
+	/**
+	 * 消费者：最早一个已发布且未归还的槽位，没有时返回 null。
+	 */
+	Snapshot peek() {
+		long t = tail.get();
+		if (t >= head.get()) {
+			return null;
+		}
+		return snapshots[(int) (t & indexMask)];
+	}
+
+	/**
+	 * 消费者：归还 {@link #peek()} 返回的槽位。
+	 */
+	void release() {
+		tail.lazySet(tail.get() + 1);
+	}
+
+	boolean isEmpty() {
+		return tail.get() >= head.get();
+	}
+
+	/**
+	 * 一帧出站状态：每行对应一个对象，数值与字符串按 {@link OutboundStateStore} 的字段编号平铺。
+	 */
+	static final class Snapshot {
+		private static final int FIELD_COUNT = OutboundStateStore.FIELD_COUNT;
+
+		UUID submitPlayerId;
+		long capturedAtMs;
+		double originX;
+		double originY;
+		double originZ;
+		// 先标记全部对象移除再写入本帧各行，用于增量采集的全量重采样
+		boolean resample;
+
+		int rowCount;
+		long[] idMost = new long[64];
+		long[] idLeast = new long[64];
+		int[] setMasks = new int[64];
+		int[] categories = new int[64];
+		double[] numbers = new double[64 * FIELD_COUNT];
+		String[] strings = new String[64 * FIELD_COUNT];
+
+		int removedCount;
+		long[] removedMost = new long[16];
+		long[] removedLeast = new long[16];
+
+		void reset() {
+			submitPlayerId = null;
+			capturedAtMs = 0L;
+			originX = 0.0;
+			originY = 0.0;
+			originZ = 0.0;
+			resample = false;
+			// 字符串引用需要清掉，避免槽位长期持有旧帧的对象
+			Arrays.fill(strings, 0, rowCount * FIELD_COUNT, null);
+			rowCount = 0;
+			removedCount = 0;
+		}
+
+		int addRow(UUID id) {
+			int row = rowCount;
+			if (row == idMost.length) {
+				int capacity = row * 2;
+				idMost = Arrays.copyOf(idMost, capacity);
+				idLeast = Arrays.copyOf(idLeast, capacity);
+				setMasks = Arrays.copyOf(setMasks, capacity);
+				categories = Arrays.copyOf(categories, capacity);
+				numbers = Arrays.copyOf(numbers, capacity * FIELD_COUNT);
+				strings = Arrays.copyOf(strings, capacity * FIELD_COUNT);
+			}
+			idMost[row] = id.getMostSignificantBits();
+			idLeast[row] = id.getLeastSignificantBits();
+			setMasks[row] = 0;
+			categories[row] = OutboundStateStore.CATEGORY_OTHER;
+			rowCount = row + 1;
+			return row;
+		}
+
+		void addRemoved(UUID id) {
+			if (removedCount == removedMost.length) {
+				removedMost = Arrays.copyOf(removedMost, removedCount * 2);
+				removedLeast = Arrays.copyOf(removedLeast, removedCount * 2);
+			}
+			removedMost[removedCount] = id.getMostSignificantBits();
+			removedLeast[removedCount] = id.getLeastSignificantBits();
+			removedCount++;
+		}
+
+		/**
+		 * 消费者：把本帧回放进编码线程持有的出站状态存储。
+		 */
+		void applyTo(OutboundStateStore store) {
+			store.beginFrame(capturedAtMs);
+			store.setOrigin(originX, originY, originZ);
+			if (resample) {
+				store.removeAll();
+			}
+			for (int i = 0; i < removedCount; i++) {
+				store.remove(new UUID(removedMost[i], removedLeast[i]));
+			}
+			for (int row = 0; row < rowCount; row++) {
+				store.slot(new UUID(idMost[row], idLeast[row]))
+						.assign(setMasks[row], numbers, strings, row * FIELD_COUNT, categories[row]);
+			}
+		}
+	}
+}
@@ -0,0 +1,423 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.PositionQuantization;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 出站玩家/实体状态的可复用存储：按 UUID 为每个对象保留一组可变的原始类型槽位。
+ * <p>
+ * 主线程采集的快照由编码线程按周期回放进来（{@link #beginFrame(long)} 后逐对象写入）；发送时逐字段与上次已发送的值比较，
+ * 变化的字段以 int 位掩码表示，只有真正变化的对象才会物化为补丁 Map。只在出站编码线程使用。
+ * <p>
+ * 显式移除模式下本周期未访问的对象视为静止而非消失，只有 {@link #remove(UUID)} 过的对象才会被删除，
+ * 采集方因此可以只写入发生变化的对象。
+ */
+public final class OutboundStateStore {
+	public static final int FIELD_X = 0;
+	public static final int FIELD_Y = 1;
+	public static final int FIELD_Z = 2;
+	public static final int FIELD_VX = 3;
+	public static final int FIELD_VY = 4;
+	public static final int FIELD_VZ = 5;
+	public static final int FIELD_DIMENSION = 6;
+	public static final int FIELD_PLAYER_NAME = 7;
+	public static final int FIELD_PLAYER_UUID = 8;
+	public static final int FIELD_HEALTH = 9;
+	public static final int FIELD_MAX_HEALTH = 10;
+	public static final int FIELD_ARMOR = 11;
+	public static final int FIELD_IS_RIDING = 12;
+	public static final int FIELD_WIDTH = 13;
+	public static final int FIELD_HEIGHT = 14;
+	public static final int FIELD_ENTITY_TYPE = 15;
+	public static final int FIELD_ENTITY_NAME = 16;
+
+	static final int FIELD_COUNT = 17;
+	private static final String[] FIELD_KEYS = {
+			"x", "y", "z", "vx", "vy", "vz", "dimension", "playerName", "playerUUID",
+			"health", "maxHealth", "armor", "isRiding", "width", "height", "entityType", "entityName"
+	};
+
+	private static final int TYPE_DOUBLE = 0;
+	private static final int TYPE_FLOAT = 1;
+	private static final int TYPE_BOOLEAN = 2;
+	private static final int TYPE_STRING = 3;
+	private static final int[] FIELD_TYPES = {
+			TYPE_DOUBLE, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_DOUBLE, TYPE_STRING, TYPE_STRING, TYPE_STRING,
+			TYPE_FLOAT, TYPE_FLOAT, TYPE_FLOAT, TYPE_BOOLEAN, TYPE_FLOAT, TYPE_FLOAT, TYPE_STRING, TYPE_STRING
+	};
+
+	public static final int POSITION_FIELDS = bits(FIELD_X, FIELD_Y, FIELD_Z, FIELD_VX, FIELD_VY, FIELD_VZ);
+	public static final int PLAYER_FIELDS = POSITION_FIELDS | bits(
+			FIELD_DIMENSION, FIELD_PLAYER_NAME, FIELD_PLAYER_UUID, FIELD_HEALTH, FIELD_MAX_HEALTH,
+			FIELD_ARMOR, FIELD_IS_RIDING, FIELD_WIDTH, FIELD_HEIGHT
+	);
+	public static final int ENTITY_FIELDS = POSITION_FIELDS | bits(
+			FIELD_DIMENSION, FIELD_ENTITY_TYPE, FIELD_ENTITY_NAME, FIELD_WIDTH, FIELD_HEIGHT
+	);
+
+	public static final int CATEGORY_PLAYER = 0;
+	public static final int CATEGORY_HOSTILE = 1;
+	public static final int CATEGORY_OTHER = 2;
+
+	private final int fieldMask;
+	private final boolean explicitRemoval;
+	private final Map<UUID, Slot> slots = new HashMap<>();
+	private long frame = 0L;
+	private long frameTimeMs = 0L;
+	private final double[] origin = new double[3];
+
+	public OutboundStateStore(int fieldMask) {
+		this(fieldMask, false);
+	}
+
+	public OutboundStateStore(int fieldMask, boolean explicitRemoval) {
+		this.fieldMask = fieldMask;
+		this.explicitRemoval = explicitRemoval;
+	}
+
+	/**
+	 * 开始新的采集周期；本周期内未被 {@link #slot(UUID)} 访问的对象在下次发送时视为已消失。
+	 * @param frameTimeMs 主线程采样时刻，航位推算按采样间隔换算速度
+	 */
+	void beginFrame(long frameTimeMs) {
+		frame++;
+		this.frameTimeMs = frameTimeMs;
+	}
+
+	/**
+	 * @return 该对象的槽位，不存在时创建；调用即表示对象在本周期仍然存在
+	 */
+	Slot slot(UUID id) {
+		Slot slot = slots.get(id);
+		if (slot == null) {
+			slot = new Slot(id);
+			slots.put(id, slot);
+		}
+		slot.removed = false;
+		if (slot.frame != frame) {
+			slot.beginSample(slot.frame == frame - 1, frameTimeMs);
+			slot.frame = frame;
+		}
+		return slot;
+	}
+
+	/**
+	 * 显式移除模式：标记对象已消失，下次发送时删除。
+	 */
+	void remove(UUID id) {
+		Slot slot = find(id);
+		if (slot != null) {
+			slot.removed = true;
+		}
+	}
+
+	/**
+	 * 显式移除模式：标记全部对象已消失，随后本周期重新写入的对象会被保留。
+	 */
+	void removeAll() {
+		for (Slot slot : slots.values()) {
+			slot.removed = true;
+		}
+	}
+
+
+	/**
+	 * 设置本周期的参考点（通常是本地玩家位置），上报调度据此计算距离优先级。
+	 */
+	void setOrigin(double x, double y, double z) {
+		origin[0] = x;
+		origin[1] = y;
+		origin[2] = z;
+	}
+
+	double distanceSqToOrigin(Slot slot) {
+		double dx = slot.numbers[FIELD_X] - origin[0];
+		double dy = slot.numbers[FIELD_Y] - origin[1];
+		double dz = slot.numbers[FIELD_Z] - origin[2];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	int fieldMask() {
+		return fieldMask;
+	}
+
+	Collection<Slot> slots() {
+		return slots.values();
+	}
+
+	Slot find(UUID id) {
+		return id == null ? null : slots.get(id);
+	}
+
+	/**
+	 * @return 该 ID 的对象仍在存储中且未标记移除时返回 true
+	 */
+	boolean isLive(String idString) {
+		try {
+			Slot slot = find(UUID.fromString(idString));
+			return slot != null && !slot.removed;
+		} catch (IllegalArgumentException ignored) {
+			return false;
+		}
+	}
+
+	/**
+	 * 移除本周期未出现的对象（显式移除模式下为已标记移除的对象），曾发送过的对象 ID 追加到 removedIds；
+	 * 显式移除模式下未访问的对象按静止处理，速度归零。
+	 */
+	void sweepStale(List<String> removedIds) {
+		Iterator<Slot> iterator = slots.values().iterator();
+		while (iterator.hasNext()) {
+			Slot slot = iterator.next();
+			if (explicitRemoval && !slot.removed && slot.frame != frame) {
+				slot.beginSample(slot.frame == frame - 1, frameTimeMs);
+				slot.frame = frame;
+				slot.numbers[FIELD_VX] = 0.0;
+				slot.numbers[FIELD_VY] = 0.0;
+				slot.numbers[FIELD_VZ] = 0.0;
+			}
+			if (slot.removed || slot.frame != frame) {
+				if (slot.announced) {
+					removedIds.add(slot.idString);
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * 丢弃某个对象的已发送基线，下次发送时重新上报全部字段。
+	 */
+	void forgetSent(UUID id) {
+		Slot slot = find(id);
+		if (slot != null) {
+			slot.sent = false;
+		}
+	}
+
+	/**
+	 * 丢弃全部对象的已发送基线：上行补丁无法补发时，下次发送重新上报全部字段。
+	 */
+	void forgetAllSent() {
+		for (Slot slot : slots.values()) {
+			slot.sent = false;
+		}
+	}
+
+	void clear() {
+		slots.clear();
+	}
+
+	private static int bits(int... fields) {
+		int mask = 0;
+		for (int field : fields) {
+			mask |= 1 << field;
+		}
+		return mask;
+	}
+
+	private static int scaleOf(int field, PositionQuantization quantization) {
+		if (field <= FIELD_Z) {
+			return quantization.positionScale();
+		}
+		return field <= FIELD_VZ ? quantization.velocityScale() : 0;
+	}
+
+	public static final class Slot {
+		final UUID id;
+		final String idString;
+		private final double[] numbers = new double[FIELD_COUNT];
+		private final String[] strings = new String[FIELD_COUNT];
+		private final double[] sentNumbers = new double[FIELD_COUNT];
+		private final String[] sentStrings = new String[FIELD_COUNT];
+		private final double[] previousPosition = new double[3];
+		private boolean hasPreviousSample = false;
+		private long previousSampleMs;
+		private long sampleMs;
+		private boolean sent = false;
+		// 曾经发出过：丢弃已发送基线后仍为 true，对象消失时据此通知服务端删除
+		private boolean announced = false;
+		private boolean removed = false;
+		private long sentAtMs;
+		private int stagedMask;
+		private int category = CATEGORY_OTHER;
+		// 上报调度状态：因预算被顺延的起始时刻（0 表示未顺延）与本周期优先级得分
+		long deferredSinceMs = 0L;
+		double scheduleScore;
+		private long frame = Long.MIN_VALUE;
+
+		private Slot(UUID id) {
+			this.id = id;
+			this.idString = id.toString();
+			this.strings[FIELD_PLAYER_UUID] = idString;
+		}
+
+		/**
+		 * 从快照行写入 setMask 中的字段；未写入的字段保留上一周期的值。
+		 */
+		void assign(int setMask, double[] sourceNumbers, String[] sourceStrings, int offset, int category) {
+			for (int field = 0; field < FIELD_COUNT; field++) {
+				if ((setMask & (1 << field)) == 0) {
+					continue;
+				}
+				if (FIELD_TYPES[field] == TYPE_STRING) {
+					strings[field] = sourceStrings[offset + field];
+				} else {
+					numbers[field] = sourceNumbers[offset + field];
+				}
+			}
+			this.category = category;
+		}
+
+		int category() {
+			return category;
+		}
+
+		private void beginSample(boolean consecutive, long nowMs) {
+			hasPreviousSample = consecutive;
+			previousPosition[0] = numbers[FIELD_X];
+			previousPosition[1] = numbers[FIELD_Y];
+			previousPosition[2] = numbers[FIELD_Z];
+			previousSampleMs = sampleMs;
+			sampleMs = nowMs;
+		}
+
+		/**
+		 * 用相邻两次采样的位移换算速度（格/tick）覆盖上报速度，使接收端外推与实际移动一致；
+		 * 站在地面的实体上报速度常带有重力分量，直接外推会向下漂移。缺少上一周期采样时保留原值。
+		 */
+		void useObservedVelocity() {
+			double ticks = (sampleMs - previousSampleMs) / (double) DeadReckoning.TICK_MS;
+			if (!hasPreviousSample || ticks <= 0.0) {
+				return;
+			}
+			numbers[FIELD_VX] = (numbers[FIELD_X] - previousPosition[0]) / ticks;
+			numbers[FIELD_VY] = (numbers[FIELD_Y] - previousPosition[1]) / ticks;
+			numbers[FIELD_VZ] = (numbers[FIELD_Z] - previousPosition[2]) / ticks;
+		}
+
+		/**
+		 * @return 接收端按上次发送的坐标与速度外推的位置偏离当前位置超过 errorBound，或速度变化超过突变阈值时返回 true
+		 */
+		boolean kinematicsDiverged(long nowMs, double errorBound) {
+			double ticks = DeadReckoning.elapsedTicks(nowMs - sentAtMs);
+			double dx = numbers[FIELD_X] - (sentNumbers[FIELD_X] + sentNumbers[FIELD_VX] * ticks);
+			double dy = numbers[FIELD_Y] - (sentNumbers[FIELD_Y] + sentNumbers[FIELD_VY] * ticks);
+			double dz = numbers[FIELD_Z] - (sentNumbers[FIELD_Z] + sentNumbers[FIELD_VZ] * ticks);
+			if (!(dx * dx + dy * dy + dz * dz <= errorBound * errorBound)) {
+				return true;
+			}
+			double dvx = numbers[FIELD_VX] - sentNumbers[FIELD_VX];
+			double dvy = numbers[FIELD_VY] - sentNumbers[FIELD_VY];
+			double dvz = numbers[FIELD_VZ] - sentNumbers[FIELD_VZ];
+			double threshold = DeadReckoning.VELOCITY_CHANGE_THRESHOLD;
+			return !(dvx * dvx + dvy * dvy + dvz * dvz <= threshold * threshold);
+		}
+
+		double number(int field) {
+			return numbers[field];
+		}
+
+		boolean hasSentBaseline() {
+			return sent;
+		}
+
+		/**
+		 * @return 与上次已发送值相比发生变化的字段位掩码；定点编码生效时坐标/速度按整数刻度比较
+		 */
+		int changedMask(int fieldMask, PositionQuantization quantization) {
+			if (!sent) {
+				return fieldMask;
+			}
+			int changed = 0;
+			for (int field = 0; field < FIELD_COUNT; field++) {
+				int bit = 1 << field;
+				if ((fieldMask & bit) == 0) {
+					continue;
+				}
+				boolean differs;
+				if (FIELD_TYPES[field] == TYPE_STRING) {
+					differs = !Objects.equals(strings[field], sentStrings[field]);
+				} else {
+					int scale = scaleOf(field, quantization);
+					differs = scale > 0
+							? quantize(numbers[field], scale) != quantize(sentNumbers[field], scale)
+							: Double.compare(numbers[field], sentNumbers[field]) != 0;
+				}
+				if (differs) {
+					changed |= bit;
+				}
+			}
+			return changed;
+		}
+
+		/**
+		 * 记录本次将要发送的字段，发送成功后由 {@link #markSent(long)} 提交为基线。
+		 */
+		void stage(int mask) {
+			stagedMask = mask;
+		}
+
+		int stagedMask() {
+			return stagedMask;
+		}
+
+		/**
+		 * 把已暂存字段的当前值记为已发送基线；未发送的字段保留旧基线，航位推算继续从旧基线外推。
+		 */
+		void markSent(long nowMs) {
+			for (int field = 0; field < FIELD_COUNT; field++) {
+				if ((stagedMask & (1 << field)) != 0) {
+					sentNumbers[field] = numbers[field];
+					sentStrings[field] = strings[field];
+				}
+			}
+			if ((stagedMask & POSITION_FIELDS) != 0) {
+				sentAtMs = nowMs;
+			}
+			sent = true;
+			announced = true;
+			stagedMask = 0;
+		}
+
+		/**
+		 * 物化位掩码中的字段，值类型与原先的上报 Map 一致；定点编码生效时坐标/速度为 Long 刻度。
+		 */
+		Map<String, Object> toMap(int mask, PositionQuantization quantization) {
+			Map<String, Object> values = new HashMap<>(Math.max(4, Integer.bitCount(mask) * 2));
+			for (int field = 0; field < FIELD_COUNT; field++) {
+				if ((mask & (1 << field)) == 0) {
+					continue;
+				}
+				values.put(FIELD_KEYS[field], value(field, quantization));
+			}
+			return values;
+		}
+
+		private Object value(int field, PositionQuantization quantization) {
+			double number = numbers[field];
+			switch (FIELD_TYPES[field]) {
+				case TYPE_STRING:
+					return strings[field];
+				case TYPE_BOOLEAN:
+					return number != 0.0;
+				case TYPE_FLOAT:
+					return (float) number;
+				default:
+					int scale = scaleOf(field, quantization);
+					return scale > 0 && Double.isFinite(number) ? (Object) Math.round(number * scale) : (Object) number;
+			}
+		}
+
+		private static long quantize(double value, int scale) {
+			return Double.isFinite(value) ? Math.round(value * scale) : Double.doubleToRawLongBits(value);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上行 players_patch / entities_patch 的重传缓冲：按序号保留已发送但服务端尚未累计确认的补丁。
+ * <p>
+ * 服务端 patch_ack 确认后丢弃确认范围内的补丁；patch_nack 请求的区间全部仍在缓冲内时，调用方按缓冲补丁涉及的对象
+ * 以原序号重发它们的当前状态，已被挤出（超过 {@link #CAPACITY} 个未确认）时改为全量重新上报。只在出站编码线程使用。
+ */
+final class PatchRetransmitBuffer {
+	static final int CAPACITY = 256;
+
+	private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+	private long nextSeq = 1L;
+
+	long nextSeq() {
+		return nextSeq++;
+	}
+
+	void record(long seq, Object packet) {
+		if (entries.size() >= CAPACITY) {
+			entries.pollFirst();
+		}
+		entries.addLast(new Entry(seq, packet));
+	}
+
+	void acknowledge(long seq) {
+		while (!entries.isEmpty() && entries.peekFirst().seq <= seq) {
+			entries.pollFirst();
+		}
+	}
+
+	/**
+	 * @return 闭区间 [from, to] 内的补丁（按序号升序）；区间内有补丁已不在缓冲时为 null
+	 */
+	List<Object> range(long from, long to) {
+		if (from > to || to >= nextSeq) {
+			return null;
+		}
+		List<Object> result = new ArrayList<>();
+		long expected = from;
+		for (Entry entry : entries) {
+			if (entry.seq < from) {
+				continue;
+			}
+			if (entry.seq > to) {
+				break;
+			}
+			if (entry.seq != expected) {
+				return null;
+			}
+			result.add(entry.packet);
+			expected++;
+		}
+		return expected == to + 1L ? result : null;
+	}
+
+	/**
+	 * 连接重建：序号从 1 重新开始。
+	 */
+	void clear() {
+		entries.clear();
+		nextSeq = 1L;
+	}
+
+	private record Entry(long seq, Object packet) {
+	}
+}
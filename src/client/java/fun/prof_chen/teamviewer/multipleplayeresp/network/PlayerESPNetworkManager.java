@@ -3,8 +3,6 @@
 package fun.prof_chen.teamviewer.multipleplayeresp.network;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.util.math.Vec3d;
@@ -19,9 +17,16 @@ import org.slf4j.LoggerFactory;
 import fun.prof_chen.teamviewer.multipleplayeresp.config.TeamviewerModMetadata;
 import fun.prof_chen.teamviewer.multipleplayeresp.config.Config;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.RemotePlayerInfo;
+import fun.prof_chen.teamviewer.multipleplayeresp.model.ReportDataSchemas;
 import fun.prof_chen.teamviewer.multipleplayeresp.model.SharedWaypointInfo;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.FieldKeyDictionary;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.FrameCompressor;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.FrameEncoder;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.InboundPacketRegistry;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.MessageCodec;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.MsgpackMessageCodec;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.PositionBatchColumns;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.PositionQuantization;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.ProtocolPackets;
 import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.UuidBinaryCodec;
 
@@ -35,6 +40,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -47,6 +53,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 import okio.ByteString;
 
@@ -67,6 +74,7 @@ import okio.ByteString;
  * ## 线程安全设计
  * - 网络回调在OkHttp工作线程执行
  * - 状态变更通过任务队列串行化到Minecraft主线程
+ * - 上行的差分、编码与发送在出站编码线程执行，主线程只复制快照并投递任务
  * - 避免跨线程直接修改共享数据结构
  */
 // 网络管理器主类，继承WebSocketListener处理网络事件
@@ -109,6 +117,9 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	
 	// 强制全量刷新间隔(毫秒) - 确保数据最终一致性
 	private static final long FORCE_FULL_REFRESH_MS = 60_000L;
+
+	// 协商补丁序号后的强制全量刷新间隔(毫秒) - 丢包已由序号补发修复，全量刷新只作兜底
+	private static final long SEQUENCED_FORCE_FULL_REFRESH_MS = 300_000L;
 	
 	// 对象级保活默认间隔(毫秒) - 若握手未下发 timeout，则使用该值
 	private static final long DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS = 12_000L;
@@ -116,6 +127,34 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// 单次 keepalive 报文最多携带对象数量
 	private static final int KEEPALIVE_MAX_ITEMS_PER_PACKET = 128;
 
+	// 本端字段名字典：三类上报数据字段名的并集按字典序编号，握手时发给服务端
+	private static final FieldKeyDictionary LOCAL_FIELD_KEY_DICTIONARY = FieldKeyDictionary.fromFieldNames(
+			ReportDataSchemas.PLAYER_DATA_RELIABILITY.keySet(),
+			ReportDataSchemas.ENTITY_DATA_RELIABILITY.keySet(),
+			ReportDataSchemas.WAYPOINT_DATA_RELIABILITY.keySet()
+	);
+
+	// 逐帧压缩阈值(字节) - 小于该值的帧压缩收益不足，原样发送
+	private static final int COMPRESSION_THRESHOLD_BYTES = 512;
+
+	// 触发航位推算基准时间更新的字段
+	private static final String[] KINEMATIC_KEYS = {"x", "y", "z", "vx", "vy", "vz"};
+
+	// 旧版摘要：按 ID 排序的规范化 JSON 逐行 SHA-1，作为不支持增量摘要的服务端的回退
+	private static final String LEGACY_DIGEST_MODE = "sha1";
+
+	// 主线程到编码线程的快照环容量 - 编码线程落后超过该帧数时丢帧并在下一帧全量重采样
+	private static final int OUTBOUND_RING_CAPACITY = 4;
+
+	// 列式坐标批量包最小对象数 - 少于该数量的纯坐标变化仍走 patch，列式包的固定开销不划算
+	private static final int MIN_POSITIONS_BATCH_SIZE = 4;
+
+	// RTT 探测间隔(毫秒) - 服务端在握手确认中声明支持 ping/pong 后按该间隔发送
+	private static final long RTT_PROBE_INTERVAL_MS = 2_000L;
+
+	// 旧编码路径开关(-Dteamviewer.legacyEncode=true)：encode 出 byte[] 再拷贝进 ByteString，用于分配量对比
+	private static final boolean LEGACY_ENCODE = Boolean.getBoolean("teamviewer.legacyEncode");
+
 	// 全局配置引用
 	private static Config config;
 
@@ -125,14 +164,20 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// 远程玩家信息缓存 - 存储其他客户端玩家的位置和维度信息
 	private final Map<UUID, RemotePlayerInfo> remotePlayers;
 	
-	// 远程玩家数据缓存 - 存储玩家的完整属性数据
-	private final Map<UUID, Map<String, Object>> remotePlayerDataCache = new HashMap<>();
+	// 远程玩家数据缓存 - 存储玩家的完整属性数据（列式存储）
+	private final RemoteStateStore<UUID> remotePlayerDataCache = new RemoteStateStore<>();
+	
+	// 远程玩家坐标/速度最近一次更新的时刻 - 航位推算外推的基准时间
+	private final Map<UUID, Long> remotePlayerKinematicsAtMs = new HashMap<>();
 	
 	// 远程实体数据缓存 - 存储世界中实体的位置和属性
-	private final Map<String, Map<String, Object>> remoteEntityDataCache = new HashMap<>();
+	private final RemoteStateStore<String> remoteEntityDataCache = new RemoteStateStore<>();
+
+	// 远程实体坐标/速度最近一次更新的时刻 - 航位推算外推的基准时间
+	private final Map<String, Long> remoteEntityKinematicsAtMs = new HashMap<>();
 	
 	// 远程路标原始数据缓存 - 存储路标的完整数据结构
-	private final Map<String, Map<String, Object>> remoteWaypointDataCache = new HashMap<>();
+	private final RemoteStateStore<String> remoteWaypointDataCache = new RemoteStateStore<>();
 	
 	// 远程路标对象缓存 - 存储解析后的SharedWaypointInfo对象
 	private final Map<String, SharedWaypointInfo> remoteWaypointCache = new HashMap<>();
@@ -140,18 +185,35 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// 玩家标记状态缓存 - 存储玩家的队伍归属和颜色标记
 	private final Map<String, PlayerMarkState> remotePlayerMarks = new HashMap<>();
 	
-	// 上次发送的玩家快照 - 用于计算增量更新
-	private final Map<String, Map<String, Object>> lastSentPlayersSnapshot = new HashMap<>();
-	
-	// 上次发送的实体快照 - 用于计算增量更新
-	private final Map<String, Map<String, Object>> lastSentEntitiesSnapshot = new HashMap<>();
-
-	// 对象级保活时间戳：记录某个对象最近一次被显式保活/上报的时刻
-	private final Map<String, Long> lastPlayerObjectLivenessMs = new HashMap<>();
-	private final Map<String, Long> lastEntityObjectLivenessMs = new HashMap<>();
+	// 主线程采集快照的交接环与写入入口 - 主线程每个周期只复制原始类型，发布后由出站编码线程处理
+	private final OutboundSnapshotRing playersRing = new OutboundSnapshotRing(OUTBOUND_RING_CAPACITY);
+	private final OutboundSnapshotRing entitiesRing = new OutboundSnapshotRing(OUTBOUND_RING_CAPACITY);
+	private final OutboundFrameWriter playersWriter = new OutboundFrameWriter(playersRing);
+	private final OutboundFrameWriter entitiesWriter = new OutboundFrameWriter(entitiesRing);
+
+	// 出站编码线程 - 以下出站状态、帧编码器与保活时间戳只在该线程访问
+	private final OutboundEncoder outboundEncoder = new OutboundEncoder(
+			playersRing,
+			entitiesRing,
+			this::encodePlayersUpdate,
+			this::encodeEntitiesUpdate
+	);
+
+	// 出站玩家/实体状态 - 快照回放进原始类型槽位，发送时按字段位掩码计算增量
+	private final OutboundStateStore outboundPlayers = new OutboundStateStore(OutboundStateStore.PLAYER_FIELDS);
+	private final OutboundStateStore outboundEntities = new OutboundStateStore(OutboundStateStore.ENTITY_FIELDS, true);
+	private final List<OutboundStateStore.Slot> positionsBatchCandidates = new ArrayList<>();
+	// 玩家与实体各自计算连续推迟时长，一方强制发出不会重置另一方的合并窗口
+	private final SendBackpressure playerBackpressure = new SendBackpressure();
+	private final SendBackpressure entityBackpressure = new SendBackpressure();
+	private final EntityUploadScheduler uploadScheduler = new EntityUploadScheduler();
+
+	// 对象级保活时间轮：上报后重新计时、删除时取消，收集保活只弹出到期对象
+	private final KeepaliveTimerWheel playerKeepaliveWheel = new KeepaliveTimerWheel();
+	private final KeepaliveTimerWheel entityKeepaliveWheel = new KeepaliveTimerWheel();
 
 	// WebSocket连接实例
-	private WebSocket webSocket;
+	private volatile WebSocket webSocket;
 	
 	// 重连调度器 - 负责连接失败后的自动重连
 	private final ScheduledExecutorService reconnectExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -168,6 +230,20 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// JSON序列化工具 - 用于协议数据的编码解码
 	private final Gson gson = new Gson();
 	private final MessageCodec messageCodec = new MsgpackMessageCodec();
+
+	// 出站帧编码器 - 每个连接一个，复用编码缓冲区，只在出站编码线程使用
+	private volatile FrameEncoder frameEncoder;
+	private final EncodeAllocationStats encodeAllocationStats = new EncodeAllocationStats();
+
+	// 逐帧压缩：握手协商成功后在主线程创建；压缩在出站编码线程、解压在主线程，两侧缓冲区互不共享。
+	// 传输层已启用 permessage-deflate 时不再重复压缩
+	private volatile FrameCompressor frameCompressor;
+	private boolean compressionAdvertised = false;
+	private boolean transportCompressionNegotiated = false;
+	private final CompressionStats compressionStats = new CompressionStats();
+
+	// 下行包类型注册表 - 按 type 选择包类与处理器，每帧只解码一次
+	private final InboundPacketRegistry inboundPacketRegistry = new InboundPacketRegistry();
 	
 	// HTTP客户端 - 用于创建WebSocket连接
 	private OkHttpClient httpClient;
@@ -193,11 +269,24 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// 摘要校验间隔(秒) - 控制数据一致性检查频率
 	private volatile int digestIntervalSec = 10;
 
-	// 服务端广播频率与协商后的上报间隔
+	// 服务端广播频率与上报间隔控制（服务端建议值为下限，按 RTT 与发送队列加性提频/乘性退避）
 	private volatile double serverBroadcastHz = 20.0;
-	private volatile int negotiatedReportIntervalTicks = 10;
+	private final ReportRateController reportRateController = new ReportRateController(10);
 	private volatile long playerKeepaliveIntervalMs = DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS;
 	private volatile long entityKeepaliveIntervalMs = DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS;
+
+	// 定点坐标编码：握手时声明的期望值与服务端确认后的生效值
+	private volatile PositionQuantization advertisedPositionQuantization = PositionQuantization.DISABLED;
+	private volatile PositionQuantization positionQuantization = PositionQuantization.DISABLED;
+
+	// 列式坐标批量包：服务端在握手确认中声明支持后启用
+	private volatile boolean positionsBatchEnabled = false;
+
+	// RTT 探测：服务端确认支持后定期 ping，握手往返作为首个样本；以下时间戳只在主线程访问
+	private volatile boolean rttProbeEnabled = false;
+	private long handshakeSentMs = 0L;
+	private long lastRttProbeSentMs = 0L;
+	private long rttProbeSeq = 0L;
 	
 	// 上次重同步请求时间戳 - 防止重复请求
 	private volatile long lastResyncRequestMs = 0L;
@@ -208,11 +297,38 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	// 上次发送实体数据包的时间 - 用于强制刷新判断
 	private volatile long lastEntitiesPacketSentMs = 0L;
 	
-	// 上次发送Tab玩家列表的时间 - 用于去重优化
+	// 上次发送Tab玩家全量列表的时间 - 超过刷新间隔后改发全量
 	private volatile long lastTabPlayersPacketSentMs = 0L;
-	
-	// 上次发送Tab玩家列表的签名 - 用于内容变化检测
-	private volatile String lastTabPlayersSignature = "";
+
+	// Tab玩家列表增量跟踪 - 主线程逐条比较指纹，只发送变化的条目
+	private final TabListTracker tabListTracker = new TabListTracker();
+
+	// Tab列表增量包：服务端在握手确认中声明支持后启用
+	private volatile boolean tabPlayersDeltaEnabled = false;
+
+	// 出站路标日志 - 短窗口内合并路标增删改，窗口结束后一帧发出
+	private final WaypointUploadJournal waypointUploadJournal = new WaypointUploadJournal();
+
+	// 路标补丁包：服务端在握手确认中声明支持后启用，只携带变化字段
+	private volatile boolean waypointsPatchEnabled = false;
+
+	// 增量摘要：服务端在握手确认中选择 sum64 后启用，摘要随缓存增删改维护，校验为常数时间
+	private volatile boolean incrementalDigestEnabled = false;
+
+	// 分桶摘要：sum64 之上服务端声明支持后启用，不一致时只请求不一致的桶
+	private volatile boolean digestBucketsEnabled = false;
+
+	// 补丁序号：服务端在握手确认中声明支持后启用，丢失或乱序的补丁按序号区间立即补发
+	private volatile boolean patchSeqEnabled = false;
+
+	// 航位推算：服务端在握手确认中声明支持后启用，上行省略误差上限以内的坐标，下行外推远程玩家与实体
+	private volatile boolean deadReckoningEnabled = false;
+
+	// 下行 patch 的序号跟踪与乱序暂存 - 只在主线程使用
+	private final InboundPatchSequencer<ProtocolPackets.PatchInboundPacket> inboundPatchSequencer = new InboundPatchSequencer<>();
+
+	// 上行 players_patch / entities_patch 的重传缓冲 - 只在出站编码线程使用
+	private final PatchRetransmitBuffer outboundPatchBuffer = new PatchRetransmitBuffer();
 	
 	// 待刷新的玩家ID集合 - 响应服务端刷新请求
 	private final Set<String> pendingPlayerRefreshIds = new HashSet<>();
@@ -250,6 +366,25 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		this.playerPositions = playerPositions;
 		this.remotePlayers = remotePlayers;
 		this.httpClient = createHttpClient(true); // 默认启用系统代理
+		registerInboundHandlers();
+		outboundEncoder.start();
+	}
+
+	private void registerInboundHandlers() {
+		inboundPacketRegistry
+				.register("handshake_ack", ProtocolPackets.HandshakeAckInboundPacket.class, this::handleHandshakeAck)
+				.register("snapshot_full", ProtocolPackets.SnapshotFullInboundPacket.class, this::applySnapshot)
+				.register("snapshot_buckets", ProtocolPackets.SnapshotBucketsInboundPacket.class, this::applyBucketSnapshot)
+				.register("patch", ProtocolPackets.PatchInboundPacket.class, this::handlePatch)
+				.register("patch_ack", ProtocolPackets.PatchAckInboundPacket.class, this::handleOutboundPatchAck)
+				.register("patch_nack", ProtocolPackets.PatchNackInboundPacket.class, this::handleOutboundPatchNack)
+				.register("positions_batch", ProtocolPackets.PositionsBatchInboundPacket.class, this::applyPositionsBatch)
+				.register("digest", ProtocolPackets.DigestInboundPacket.class, this::handleDigest)
+				.register("refresh_req", ProtocolPackets.RefreshReqInboundPacket.class, this::handleRefreshRequest)
+				.register("report_rate_hint", ProtocolPackets.ReportRateHintInboundPacket.class, this::handleReportRateHint)
+				.register("pong", ProtocolPackets.PongInboundPacket.class, this::handlePong)
+				.register("waypoints_update", ProtocolPackets.WaypointsUpdateInboundPacket.class, this::handleWaypointsUpdate)
+				.register("waypoints_delete", ProtocolPackets.WaypointsDeleteInboundPacket.class, this::handleWaypointsDelete);
 	}
 
 	/**
@@ -280,6 +415,50 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 				LOGGER.error("Error while processing queued network task: {}", e.getMessage());
 			}
 		}
+		updateReportRate();
+		updatePatchSequencing();
+		flushWaypointUploads();
+	}
+
+	/**
+	 * 按发送队列深度与 RTT 调整上报间隔，并在需要时发出 RTT 探测。
+	 */
+	private void updateReportRate() {
+		WebSocket socket = webSocket;
+		if (socket == null || !isConnected) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (rttProbeEnabled && now - lastRttProbeSentMs >= RTT_PROBE_INTERVAL_MS) {
+			lastRttProbeSentMs = now;
+			ProtocolPackets.PingPacket ping = new ProtocolPackets.PingPacket();
+			ping.seq = ++rttProbeSeq;
+			ping.sentAtMs = now;
+			sendPacket(ping);
+		}
+		int before = reportRateController.intervalTicks();
+		reportRateController.evaluate(now, socket.queueSize());
+		int after = reportRateController.intervalTicks();
+		if (after != before) {
+			LOGGER.debug(
+					"Report interval {} -> {} ticks: reason={}, srtt={}ms, minRtt={}ms, queue={}B",
+					before,
+					after,
+					reportRateController.reason().key(),
+					reportRateController.smoothedRttMs(),
+					reportRateController.minRttMs(),
+					socket.queueSize()
+			);
+		}
+	}
+
+	private void handlePong(ProtocolPackets.PongInboundPacket packet) {
+		if (packet == null || packet.sentAtMs == null) {
+			return;
+		}
+		// 回显的是本端时钟，不受两端时钟偏差影响；含主线程排队时延，基线取最小值后可抵消
+		long now = System.currentTimeMillis();
+		reportRateController.onRttSample(now - packet.sentAtMs, now);
 	}
 
 	/**
@@ -328,6 +507,7 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 
 		String uri = config.getServerURL();
 		Request.Builder builder = new Request.Builder().url(uri);
+		this.frameEncoder = messageCodec.newFrameEncoder();
 
 		try {
 			this.webSocket = httpClient.newWebSocket(builder.build(), this);
@@ -451,14 +631,29 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
+	/**
+	 * @return 出站玩家快照写入入口；每个上报周期先 beginFrame，再写入所有玩家，最后调用 sendPlayersUpdate
+	 */
+	public OutboundFrameWriter outboundPlayers() {
+		return playersWriter;
+	}
+
+	/**
+	 * @return 出站实体快照写入入口；显式移除模式，只需写入变化的实体，用法同 {@link #outboundPlayers()}
+	 */
+	public OutboundFrameWriter outboundEntities() {
+		return entitiesWriter;
+	}
+
 	/**
 	 * 发送玩家位置更新数据 - 核心上行数据传输方法
 	 * 
 	 * 协议选择逻辑：使用players_patch协议发送差分数据
 	 * 
 	 * 增量更新算法：
-	 * 1. 构建当前玩家状态快照
-	 * 2. 与上次发送的快照进行比较
+	 * 1. 采集方通过 {@link #outboundPlayers()} 把本周期的玩家状态写入快照，本方法只负责发布，
+	 *    以下步骤在出站编码线程执行
+	 * 2. 逐字段与上次已发送的值比较，变化字段记为位掩码
 	 * 3. 识别新增、修改、删除的玩家记录
 	 * 4. 处理服务端的刷新请求
 	 * 5. 只发送发生变化的数据以节省带宽
@@ -473,62 +668,72 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 
 	 * 性能优化：
 	 * - 25秒强制全量刷新防止数据漂移
-	 * - 快照机制避免重复发送相同数据
+	 * - 已发送基线与字段位掩码避免重复发送相同数据，未变化的对象不产生任何分配
+	 * - 发送队列超过高水位时推迟差分，积压期间的中间坐标按最新值合并，见 {@link SendBackpressure}
 	 * - 批量处理提高网络效率
 	 */
-	public void sendPlayersUpdate(UUID submitPlayerId, Map<UUID, Map<String, Object>> players) {
-		if (webSocket == null || !isConnected || submitPlayerId == null || players == null) {
+	public void sendPlayersUpdate(UUID submitPlayerId) {
+		if (webSocket == null || !isConnected || submitPlayerId == null) {
+			playersWriter.discard();
 			return;
 		}
-		long now = System.currentTimeMillis();
-
-		Map<String, Map<String, Object>> currentSnapshot = new HashMap<>();
-		for (Map.Entry<UUID, Map<String, Object>> entry : players.entrySet()) {
-			currentSnapshot.put(entry.getKey().toString(), copyValueMap(entry.getValue()));
+		if (playersWriter.publish(submitPlayerId)) {
+			outboundEncoder.signal();
 		}
+	}
 
-		Map<String, Map<String, Object>> upsert = new HashMap<>();
-		List<String> delete = new ArrayList<>();
-		boolean forceFullRefresh = shouldForcePlayersFullRefresh();
-
-		for (Map.Entry<String, Map<String, Object>> entry : currentSnapshot.entrySet()) {
-			Map<String, Object> previous = lastSentPlayersSnapshot.get(entry.getKey());
-			if (forceFullRefresh || previous == null) {
-				upsert.put(entry.getKey(), entry.getValue());
-				continue;
-			}
-
-			Map<String, Object> fieldDelta = computeFieldDelta(previous, entry.getValue());
-			if (!fieldDelta.isEmpty()) {
-				upsert.put(entry.getKey(), fieldDelta);
-			}
+	private void encodePlayersUpdate(OutboundSnapshotRing.Snapshot snapshot) {
+		snapshot.applyTo(outboundPlayers);
+		UUID submitPlayerId = snapshot.submitPlayerId;
+		WebSocket socket = webSocket;
+		if (socket == null || !isConnected || submitPlayerId == null) {
+			return;
 		}
-
-		for (String previousId : lastSentPlayersSnapshot.keySet()) {
-			if (!currentSnapshot.containsKey(previousId)) {
-				delete.add(previousId);
-			}
+		long now = System.currentTimeMillis();
+		if (playerBackpressure.shouldDefer(socket.queueSize(), now)) {
+			// 发送队列积压：状态已写入槽位但不差分，下个周期与已发送基线比较时只发最新值
+			return;
 		}
 
-		applyPendingPlayerRefresh(currentSnapshot, upsert, delete);
+		Map<String, Map<String, Object>> upsert = new HashMap<>();
+		List<String> delete = new ArrayList<>();
+		List<OutboundStateStore.Slot> changedSlots = new ArrayList<>();
+		outboundPlayers.sweepStale(delete);
+		ProtocolPackets.PositionsBatchPacket positionsBatch = collectOutboundDelta(
+				outboundPlayers,
+				PositionBatchColumns.SCOPE_PLAYERS,
+				shouldForcePlayersFullRefresh(),
+				pendingPlayerRefreshIds,
+				upsert,
+				delete,
+				changedSlots,
+				0,
+				0L
+		);
+		Set<String> sentIds = idsOf(changedSlots);
 
-		if (upsert.isEmpty() && delete.isEmpty()) {
-			sendObjectKeepaliveIfNeeded(submitPlayerId, currentSnapshot, null, upsert.keySet(), null, now);
+		if (positionsBatch == null && upsert.isEmpty() && delete.isEmpty()) {
+			sendObjectKeepaliveIfNeeded(submitPlayerId, true, false, now);
 			return;
 		}
 
 		try {
 			long sentAt = now;
-			ProtocolPackets.PlayersPatchPacket packet = new ProtocolPackets.PlayersPatchPacket();
-			packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
-			packet.upsert = upsert;
-			packet.delete = delete;
-			sendPacket(packet);
-			updateObjectLivenessAfterPatch(lastPlayerObjectLivenessMs, upsert.keySet(), delete, sentAt);
-			lastSentPlayersSnapshot.clear();
-			lastSentPlayersSnapshot.putAll(currentSnapshot);
+			if (positionsBatch != null) {
+				positionsBatch.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				writeFrame(positionsBatch);
+			}
+			if (!upsert.isEmpty() || !delete.isEmpty()) {
+				ProtocolPackets.PlayersPatchPacket packet = new ProtocolPackets.PlayersPatchPacket();
+				packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				packet.upsert = upsert;
+				packet.delete = delete;
+				writeSequencedPatch(packet, seq -> packet.seq = seq);
+			}
+			updateObjectLivenessAfterPatch(playerKeepaliveWheel, playerKeepaliveIntervalMs, sentIds, delete, sentAt);
+			markSlotsSent(changedSlots, sentAt);
 			lastPlayersPacketSentMs = sentAt;
-			sendObjectKeepaliveIfNeeded(submitPlayerId, currentSnapshot, null, upsert.keySet(), null, sentAt);
+			sendObjectKeepaliveIfNeeded(submitPlayerId, true, false, sentAt);
 		} catch (Exception e) {
 			LOGGER.error("Failed to send players_patch: {}", e.getMessage());
 		}
@@ -551,63 +756,72 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 
 	 * 优化特点：
 	 * - 实体数据通常变化频率较低
-	 * - 使用相同的快照和差分算法
+	 * - 使用相同的槽位与位掩码差分算法，采集入口为 {@link #outboundEntities()}
 	 * - 25秒强制刷新确保数据一致性
 	 * - 支持服务端主动刷新请求
 	 */
-	public void sendEntitiesUpdate(UUID submitPlayerId, Map<String, Map<String, Object>> entities) {
-		if (webSocket == null || !isConnected || submitPlayerId == null || entities == null) {
+	public void sendEntitiesUpdate(UUID submitPlayerId) {
+		if (webSocket == null || !isConnected || submitPlayerId == null) {
+			entitiesWriter.discard();
 			return;
 		}
-		long now = System.currentTimeMillis();
-
-		Map<String, Map<String, Object>> currentSnapshot = new HashMap<>();
-		for (Map.Entry<String, Map<String, Object>> entry : entities.entrySet()) {
-			currentSnapshot.put(entry.getKey(), copyValueMap(entry.getValue()));
+		if (entitiesWriter.publish(submitPlayerId)) {
+			outboundEncoder.signal();
 		}
+	}
 
-		Map<String, Map<String, Object>> upsert = new HashMap<>();
-		List<String> delete = new ArrayList<>();
-		boolean forceFullRefresh = shouldForceEntitiesFullRefresh();
-
-		for (Map.Entry<String, Map<String, Object>> entry : currentSnapshot.entrySet()) {
-			Map<String, Object> previous = lastSentEntitiesSnapshot.get(entry.getKey());
-			if (forceFullRefresh || previous == null) {
-				upsert.put(entry.getKey(), entry.getValue());
-				continue;
-			}
-
-			Map<String, Object> fieldDelta = computeFieldDelta(previous, entry.getValue());
-			if (!fieldDelta.isEmpty()) {
-				upsert.put(entry.getKey(), fieldDelta);
-			}
+	private void encodeEntitiesUpdate(OutboundSnapshotRing.Snapshot snapshot) {
+		snapshot.applyTo(outboundEntities);
+		UUID submitPlayerId = snapshot.submitPlayerId;
+		WebSocket socket = webSocket;
+		if (socket == null || !isConnected || submitPlayerId == null) {
+			return;
 		}
-
-		for (String previousId : lastSentEntitiesSnapshot.keySet()) {
-			if (!currentSnapshot.containsKey(previousId)) {
-				delete.add(previousId);
-			}
+		long now = System.currentTimeMillis();
+		if (entityBackpressure.shouldDefer(socket.queueSize(), now)) {
+			// 发送队列积压：状态已写入槽位但不差分，下个周期与已发送基线比较时只发最新值
+			return;
 		}
 
-		applyPendingEntityRefresh(currentSnapshot, upsert, delete);
+		Map<String, Map<String, Object>> upsert = new HashMap<>();
+		List<String> delete = new ArrayList<>();
+		List<OutboundStateStore.Slot> changedSlots = new ArrayList<>();
+		outboundEntities.sweepStale(delete);
+		ProtocolPackets.PositionsBatchPacket positionsBatch = collectOutboundDelta(
+				outboundEntities,
+				PositionBatchColumns.SCOPE_ENTITIES,
+				shouldForceEntitiesFullRefresh(),
+				pendingEntityRefreshIds,
+				upsert,
+				delete,
+				changedSlots,
+				config != null ? config.getEntityUploadBudgetBytes() : 0,
+				entityKeepaliveIntervalMs
+		);
+		Set<String> sentIds = idsOf(changedSlots);
 
-		if (upsert.isEmpty() && delete.isEmpty()) {
-			sendObjectKeepaliveIfNeeded(submitPlayerId, null, currentSnapshot, null, upsert.keySet(), now);
+		if (positionsBatch == null && upsert.isEmpty() && delete.isEmpty()) {
+			sendObjectKeepaliveIfNeeded(submitPlayerId, false, true, now);
 			return;
 		}
 
 		try {
 			long sentAt = now;
-			ProtocolPackets.EntitiesPatchPacket packet = new ProtocolPackets.EntitiesPatchPacket();
-			packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
-			packet.upsert = upsert;
-			packet.delete = delete;
-			sendPacket(packet);
-			updateObjectLivenessAfterPatch(lastEntityObjectLivenessMs, upsert.keySet(), delete, sentAt);
-			lastSentEntitiesSnapshot.clear();
-			lastSentEntitiesSnapshot.putAll(currentSnapshot);
+			if (positionsBatch != null) {
+				positionsBatch.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				writeFrame(positionsBatch);
+			}
+			if (!upsert.isEmpty() || !delete.isEmpty()) {
+				ProtocolPackets.EntitiesPatchPacket packet = new ProtocolPackets.EntitiesPatchPacket();
+				packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				packet.upsert = upsert;
+				packet.delete = delete;
+				writeSequencedPatch(packet, seq -> packet.seq = seq);
+			}
+			updateObjectLivenessAfterPatch(entityKeepaliveWheel, entityKeepaliveIntervalMs, sentIds, delete, sentAt);
+			markSlotsSent(changedSlots, sentAt);
 			lastEntitiesPacketSentMs = sentAt;
-			sendObjectKeepaliveIfNeeded(submitPlayerId, null, currentSnapshot, null, upsert.keySet(), sentAt);
+			sendObjectKeepaliveIfNeeded(submitPlayerId, false, true, sentAt);
 		} catch (Exception e) {
 			LOGGER.error("Failed to send entities_patch: {}", e.getMessage());
 		}
@@ -636,8 +850,16 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 *   }
 	 * }
 	 * 
+	 * 协议格式(waypoints_patch，服务端在握手确认中声明支持后启用)：
+	 * {
+	 *   "type": "waypoints_patch",
+	 *   "submitPlayerId": "发送者UUID",
+	 *   "upsert": {"路标ID": {只含变化的字段}},
+	 *   "delete": ["路标ID", ...]
+	 * }
+	 * 
 	 * 特点：
-	 * - 目前采用全量更新方式(未来可优化为增量更新)
+	 * - 变更先记入出站路标日志，合并窗口结束后与删除一起发出，见 {@link WaypointUploadJournal}
 	 * - 每个路标都有唯一ID标识
 	 * - 支持多种路标类型和属性
 	 */
@@ -646,16 +868,59 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			return;
 		if (waypoints == null || waypoints.isEmpty())
 			return;
+		long now = System.currentTimeMillis();
+		for (Map.Entry<String, Map<String, Object>> entry : waypoints.entrySet()) {
+			waypointUploadJournal.upsert(submitPlayerId, entry.getKey(), entry.getValue(), now);
+		}
+	}
+
+	/**
+	 * 合并窗口到期后把出站路标日志发出：支持 waypoints_patch 时一帧携带变化字段与删除，
+	 * 否则退化为一个 waypoints_delete 加一个全字段 waypoints_update。
+	 */
+	private void flushWaypointUploads() {
+		long now = System.currentTimeMillis();
+		if (!waypointUploadJournal.isDue(now)) {
+			return;
+		}
+		WaypointUploadJournal.Batch batch = waypointUploadJournal.drain();
+		if (batch == null || webSocket == null || !isConnected) {
+			return;
+		}
 		try {
-			ProtocolPackets.WaypointsUpdatePacket packet = new ProtocolPackets.WaypointsUpdatePacket();
-			packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
-			packet.waypoints = waypoints;
-			sendPacket(packet);
+			byte[] submitPlayerId = UuidBinaryCodec.toBytes(batch.submitPlayerId);
+			if (waypointsPatchEnabled) {
+				ProtocolPackets.WaypointsPatchPacket packet = new ProtocolPackets.WaypointsPatchPacket();
+				packet.submitPlayerId = submitPlayerId;
+				packet.upsert = batch.changedFields;
+				packet.delete = batch.deletes;
+				sendPacket(packet);
+				return;
+			}
+			if (!batch.deletes.isEmpty()) {
+				ProtocolPackets.WaypointsDeletePacket packet = new ProtocolPackets.WaypointsDeletePacket();
+				packet.submitPlayerId = submitPlayerId;
+				packet.waypointIds = batch.deletes;
+				sendPacket(packet);
+			}
+			if (!batch.fullFields.isEmpty()) {
+				ProtocolPackets.WaypointsUpdatePacket packet = new ProtocolPackets.WaypointsUpdatePacket();
+				packet.submitPlayerId = submitPlayerId;
+				packet.waypoints = batch.fullFields;
+				sendPacket(packet);
+			}
 		} catch (Exception e) {
-			LOGGER.error("Failed to send waypoints_update to PlayerESP server: {}", e.getMessage());
+			LOGGER.error("Failed to send waypoint uploads to PlayerESP server: {}", e.getMessage());
 		}
 	}
 
+	/**
+	 * @return Tab 玩家列表采集入口；每个上报周期 beginScan 后逐条 observe，再调用 sendTabPlayersUpdate
+	 */
+	public TabListTracker tabPlayers() {
+		return tabListTracker;
+	}
+
 	/**
 	 * 发送Tab玩家列表更新 - 玩家列表信息同步
 	 * 
@@ -664,9 +929,9 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 主要用于玩家标记和队伍识别功能
 	 * 
 	 * 优化策略：
-	 * - 内容签名去重：相同内容不重复发送
-	 * - 时间间隔控制：避免过于频繁的更新
-	 * - 数据标准化：提取必要的字段信息
+	 * - 逐条指纹比较：列表不变时不构造任何包
+	 * - 增量发送：服务端在握手确认中声明支持后只发送新增、变化与离开的条目(tab_players_delta)
+	 * - 全量兜底：连接建立、出站状态清空或距上次全量超过刷新间隔时发送完整列表(tab_players_update)
 	 * 
 	 * 协议格式(tab_players_update)：
 	 * {
@@ -681,62 +946,79 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 *   ]
 	 * }
 	 * 
+	 * 协议格式(tab_players_delta)：
+	 * {
+	 *   "type": "tab_players_delta",
+	 *   "submitPlayerId": "发送者UUID",
+	 *   "upsert": [与 tabPlayers 条目相同],
+	 *   "delete": [离开列表的玩家UUID],
+	 *   "count": 应用后的条目总数,
+	 *   "listHash": 应用后列表的整体哈希（各条目指纹之和）
+	 * }
+	 * 
 	 * 性能考虑：
-	 * - 25秒强制刷新确保数据新鲜度
-	 * - JSON签名比较避免网络浪费
-	 * - 只传输必要字段减少数据量
+	 * - 60秒强制全量刷新确保数据新鲜度
+	 * - 包在主线程构造后交给出站编码线程编码发送
 	 */
-	public void sendTabPlayersUpdate(UUID submitPlayerId, List<Map<String, Object>> tabPlayers) {
-		if (webSocket == null || !isConnected || submitPlayerId == null || tabPlayers == null) {
+	public void sendTabPlayersUpdate(UUID submitPlayerId) {
+		tabListTracker.finishScan();
+		if (webSocket == null || !isConnected || submitPlayerId == null) {
 			return;
 		}
 
 		try {
-			List<Map<String, Object>> normalized = new ArrayList<>();
-			for (Map<String, Object> raw : tabPlayers) {
-				if (raw == null || raw.isEmpty()) {
-					continue;
-				}
-				Map<String, Object> copy = new HashMap<>();
-				Object idValue = raw.get("playerUUID");
-				Object nameValue = raw.get("name");
-				Object displayName = raw.get("prefixColored");
-
-				if (idValue != null && !String.valueOf(idValue).isBlank()) {
-					byte[] uuidBytes = UuidBinaryCodec.toBytes(String.valueOf(idValue));
-					copy.put("id", uuidBytes != null ? uuidBytes : String.valueOf(idValue));
-				}
-				if (nameValue != null && !String.valueOf(nameValue).isBlank()) {
-					copy.put("name", String.valueOf(nameValue));
-				}
-				if (displayName != null && !String.valueOf(displayName).isBlank()) {
-					copy.put("displayName", String.valueOf(displayName));
-				}
-
-				if (!copy.isEmpty()) {
-					normalized.add(copy);
-				}
-			}
-
-			String signature = gson.toJson(normalized);
 			long now = System.currentTimeMillis();
-			if (Objects.equals(signature, lastTabPlayersSignature)
-					&& now - lastTabPlayersPacketSentMs < FORCE_FULL_REFRESH_MS) {
+			boolean fullRefresh = tabListTracker.takeFullRefreshRequest()
+					|| now - lastTabPlayersPacketSentMs >= FORCE_FULL_REFRESH_MS;
+			if (!fullRefresh && !tabListTracker.hasPendingChanges()) {
 				return;
 			}
 
-			ProtocolPackets.TabPlayersUpdatePacket packet = new ProtocolPackets.TabPlayersUpdatePacket();
-			packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
-			packet.tabPlayers = normalized;
-			sendPacket(packet);
-
-			lastTabPlayersSignature = signature;
-			lastTabPlayersPacketSentMs = now;
+			if (fullRefresh || !tabPlayersDeltaEnabled) {
+				List<Map<String, Object>> tabPlayers = new ArrayList<>(tabListTracker.entries().size());
+				for (TabListTracker.Entry entry : tabListTracker.entries()) {
+					tabPlayers.add(toTabPlayerNode(entry));
+				}
+				ProtocolPackets.TabPlayersUpdatePacket packet = new ProtocolPackets.TabPlayersUpdatePacket();
+				packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				packet.tabPlayers = tabPlayers;
+				sendPacket(packet);
+				lastTabPlayersPacketSentMs = now;
+			} else {
+				List<Map<String, Object>> upsert = new ArrayList<>(tabListTracker.changed().size());
+				for (TabListTracker.Entry entry : tabListTracker.changed()) {
+					upsert.add(toTabPlayerNode(entry));
+				}
+				List<byte[]> delete = new ArrayList<>(tabListTracker.removed().size());
+				for (UUID removedId : tabListTracker.removed()) {
+					delete.add(UuidBinaryCodec.toBytes(removedId));
+				}
+				ProtocolPackets.TabPlayersDeltaPacket packet = new ProtocolPackets.TabPlayersDeltaPacket();
+				packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+				packet.upsert = upsert;
+				packet.delete = delete;
+				packet.count = tabListTracker.entries().size();
+				packet.listHash = tabListTracker.listHash();
+				sendPacket(packet);
+			}
+			tabListTracker.clearPending();
 		} catch (Exception e) {
-			LOGGER.error("Failed to send tab_players_update: {}", e.getMessage());
+			LOGGER.error("Failed to send tab players update: {}", e.getMessage());
 		}
 	}
 
+	private static Map<String, Object> toTabPlayerNode(TabListTracker.Entry entry) {
+		Map<String, Object> node = new HashMap<>(4);
+		node.put("id", UuidBinaryCodec.toBytes(entry.id()));
+		if (entry.name() != null && !entry.name().isBlank()) {
+			node.put("name", entry.name());
+		}
+		if (entry.displayName() != null && !entry.displayName().isBlank()) {
+			node.put("displayName", entry.displayName());
+		}
+		return node;
+	}
+
 	/**
 	 * 发送路标删除请求 - 路标移除通知
 	 * 
@@ -753,30 +1035,16 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 
 	 * 数据验证：
 	 * - 过滤空值和空白字符串
-	 * - 确保至少有一个有效ID才发送
-	 * - 批量删除提高效率
+	 * - 与同一窗口内的路标更新合并发送，窗口内新建又删除的路标直接抵消
 	 */
 	public void sendWaypointsDelete(UUID submitPlayerId, List<String> waypointIds) {
 		if (webSocket == null || !isConnected)
 			return;
 		if (waypointIds == null || waypointIds.isEmpty())
 			return;
-		try {
-			List<String> ids = new ArrayList<>();
-			for (String waypointId : waypointIds) {
-				if (waypointId != null && !waypointId.isBlank()) {
-					ids.add(waypointId);
-				}
-			}
-			if (ids.isEmpty()) {
-				return;
-			}
-			ProtocolPackets.WaypointsDeletePacket packet = new ProtocolPackets.WaypointsDeletePacket();
-			packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
-			packet.waypointIds = ids;
-			sendPacket(packet);
-		} catch (Exception e) {
-			LOGGER.error("Failed to send waypoints_delete to PlayerESP server: {}", e.getMessage());
+		long now = System.currentTimeMillis();
+		for (String waypointId : waypointIds) {
+			waypointUploadJournal.delete(submitPlayerId, waypointId, now);
 		}
 	}
 
@@ -823,23 +1091,187 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
+	/**
+	 * 写出上行补丁；协商补丁序号后分配序号并留在重传缓冲，直到服务端累计确认。只在出站编码线程调用。
+	 */
+	private void writeSequencedPatch(Object packet, LongConsumer assignSeq) {
+		if (!patchSeqEnabled) {
+			writeFrame(packet);
+			return;
+		}
+		long seq = outboundPatchBuffer.nextSeq();
+		assignSeq.accept(seq);
+		writeFrame(packet);
+		outboundPatchBuffer.record(seq, packet);
+	}
+
+	/**
+	 * 服务端累计确认上行补丁：丢弃确认范围内的重传缓冲。
+	 */
+	private void handleOutboundPatchAck(ProtocolPackets.PatchAckInboundPacket packet) {
+		if (packet == null || packet.seq == null) {
+			return;
+		}
+		long seq = packet.seq;
+		outboundEncoder.execute(() -> outboundPatchBuffer.acknowledge(seq));
+	}
+
+	/**
+	 * 服务端发现上行补丁缺口：以原序号重发缺失区间，但内容取对象的当前全量状态而不是当时的旧补丁，
+	 * 避免旧坐标覆盖此后经 positions_batch 或更新补丁送达的新状态；涉及的对象同时丢弃已发送基线，
+	 * 下个周期以新序号再上报一次，盖过服务端在缺口之后暂存的较旧补丁。
+	 * 区间已不在缓冲内时序号流从 1 重新开始，并让全部对象下次重新上报全部字段，服务端收到 seq = 1 即放弃等待旧缺口。
+	 */
+	private void handleOutboundPatchNack(ProtocolPackets.PatchNackInboundPacket packet) {
+		if (packet == null || packet.from == null || packet.to == null) {
+			return;
+		}
+		long from = packet.from;
+		long to = packet.to;
+		outboundEncoder.execute(() -> {
+			List<Object> missing = outboundPatchBuffer.range(from, to);
+			if (missing == null) {
+				LOGGER.warn("Outbound patches {}..{} no longer buffered, restarting sequence with full report", from, to);
+				outboundPatchBuffer.clear();
+				outboundPlayers.forgetAllSent();
+				outboundEntities.forgetAllSent();
+				return;
+			}
+			for (Object patch : missing) {
+				if (patch instanceof ProtocolPackets.PlayersPatchPacket players) {
+					ProtocolPackets.PlayersPatchPacket refill = new ProtocolPackets.PlayersPatchPacket();
+					refill.submitPlayerId = players.submitPlayerId;
+					refill.seq = players.seq;
+					refill.upsert = new HashMap<>();
+					refill.delete = new ArrayList<>();
+					refillPatchFromCurrentState(outboundPlayers, players.upsert, players.delete, refill.upsert, refill.delete);
+					writeFrame(refill);
+				} else if (patch instanceof ProtocolPackets.EntitiesPatchPacket entities) {
+					ProtocolPackets.EntitiesPatchPacket refill = new ProtocolPackets.EntitiesPatchPacket();
+					refill.submitPlayerId = entities.submitPlayerId;
+					refill.seq = entities.seq;
+					refill.upsert = new HashMap<>();
+					refill.delete = new ArrayList<>();
+					refillPatchFromCurrentState(outboundEntities, entities.upsert, entities.delete, refill.upsert, refill.delete);
+					writeFrame(refill);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 按原补丁涉及的对象 ID 重建补丁内容：仍存在的对象写入当前全量字段并丢弃已发送基线，已不存在的对象写入 delete。
+	 */
+	private void refillPatchFromCurrentState(
+			OutboundStateStore store,
+			Map<String, Map<String, Object>> originalUpsert,
+			List<String> originalDelete,
+			Map<String, Map<String, Object>> upsert,
+			List<String> delete
+	) {
+		Set<String> objectIds = new LinkedHashSet<>();
+		if (originalUpsert != null) {
+			objectIds.addAll(originalUpsert.keySet());
+		}
+		if (originalDelete != null) {
+			objectIds.addAll(originalDelete);
+		}
+		for (String objectId : objectIds) {
+			if (!store.isLive(objectId)) {
+				delete.add(objectId);
+				continue;
+			}
+			OutboundStateStore.Slot slot = store.find(UuidBinaryCodec.toUuid(objectId));
+			upsert.put(objectId, slot.toMap(store.fieldMask(), positionQuantization));
+			store.forgetSent(slot.id);
+		}
+	}
+
+	/**
+	 * 投递到出站编码线程编码并发送，调用方之后不得再修改 packet。
+	 */
 	private void sendPacket(Object packet) {
 		if (webSocket == null || packet == null) {
 			return;
 		}
-		byte[] payload = messageCodec.encode(packet);
-		webSocket.send(ByteString.of(payload, 0, payload.length));
+		outboundEncoder.execute(() -> writeFrame(packet));
 	}
 
-	private JsonObject createObjectNode(Object packet) {
-		if (packet == null) {
-			return new JsonObject();
+	/**
+	 * 编码、按需压缩并写入 WebSocket，只在出站编码线程调用。
+	 */
+	private void writeFrame(Object packet) {
+		WebSocket socket = webSocket;
+		if (socket == null || packet == null) {
+			return;
+		}
+		FrameEncoder encoder = frameEncoder;
+		FrameCompressor compressor = frameCompressor;
+		boolean measure = encodeAllocationStats.isActive();
+		long allocatedBefore = measure ? encodeAllocationStats.currentThreadAllocatedBytes() : 0L;
+		ByteString frame;
+		if (LEGACY_ENCODE || encoder == null) {
+			byte[] payload = messageCodec.encode(packet);
+			frame = ByteString.of(payload, 0, payload.length);
+		} else {
+			frame = encoder.encode(packet);
+		}
+		if (compressor != null && compressor.shouldCompress(frame.size())) {
+			long startNs = System.nanoTime();
+			ByteString compressed = compressor.compress(frame);
+			logCompressionSummary(compressionStats.record(
+					"out", packet.getClass().getSimpleName(), frame.size(), compressed.size(), System.nanoTime() - startNs));
+			frame = compressed;
 		}
-		JsonElement node = gson.toJsonTree(packet);
-		if (node != null && node.isJsonObject()) {
-			return node.getAsJsonObject();
+		if (measure) {
+			long allocated = encodeAllocationStats.currentThreadAllocatedBytes() - allocatedBefore;
+			String summary = encodeAllocationStats.record(packet.getClass().getSimpleName(), allocated, frame.size());
+			if (summary != null) {
+				LOGGER.info("Encode allocation per packet{}: {}", LEGACY_ENCODE ? " (legacy)" : "", summary);
+			}
 		}
-		return new JsonObject();
+		socket.send(frame);
+	}
+
+	private void logCompressionSummary(String summary) {
+		if (summary != null) {
+			LOGGER.debug("Frame compression per packet type: {}", summary);
+		}
+	}
+
+	/**
+	 * @return 各包类型的压缩率与平均耗时；未协商压缩时为空串
+	 */
+	public String getCompressionSummary() {
+		return compressionStats.summary();
+	}
+
+	/**
+	 * @return 出站编码线程吞吐统计（快照数、单帧差分+编码+发送耗时）与主线程丢弃的快照数
+	 */
+	public String getOutboundEncoderSummary() {
+		String summary = outboundEncoder.summary();
+		long dropped = playersWriter.droppedFrames() + entitiesWriter.droppedFrames();
+		return dropped > 0L ? summary + " dropped=" + dropped : summary;
+	}
+
+	/**
+	 * @return 发送队列深度统计：玩家与实体各自采样的当前/平均/最大排队字节与因积压合并掉的快照数
+	 */
+	public String getSendQueueSummary() {
+		String players = playerBackpressure.summary();
+		String entities = entityBackpressure.summary();
+		if (players.isEmpty() || entities.isEmpty()) {
+			return players.isEmpty() ? entities : players;
+		}
+		return "players[" + players + "] entities[" + entities + "]";
+	}
+
+	/**
+	 * @return OkHttp 发送队列中尚未写出的字节数（玩家与实体周期最近一次采样中的较大者）
+	 */
+	public long getSendQueueBytes() {
+		return Math.max(playerBackpressure.lastQueueBytes(), entityBackpressure.lastQueueBytes());
 	}
 
 	/**
@@ -867,11 +1299,13 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			resetNegotiationState();
 			clearLocalOutboundSnapshots();
 			LOGGER.info("WebSocket connection opened to PlayerESP server");
+			transportCompressionNegotiated = false;
 			if (response != null) {
 				String negotiatedExtensions = response.header("Sec-WebSocket-Extensions", "");
 				if (!negotiatedExtensions.isBlank()) {
 					LOGGER.info("Negotiated WebSocket extensions: {}", negotiatedExtensions);
 				}
+				transportCompressionNegotiated = negotiatedExtensions.contains("permessage-deflate");
 			}
 			notifyConnectionStatusChanged(true);
 			sendHandshake();
@@ -926,7 +1360,7 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 
 	 * 4. 摘要校验(digest)：
 	 *    - 接收服务端数据摘要哈希
-	 *    - 对比本地数据一致性
+	 *    - 对比本地数据一致性（sum64 模式直接读取增量维护的摘要）
 	 *    - 发现不一致时请求重同步
 	 * 
 	 * 5. 刷新请求(refresh_req)：
@@ -938,6 +1372,9 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 *    - waypoints_update: 接收新的路标数据
 	 *    - waypoints_delete: 处理路标删除通知
 	 * 
+	 * 分发方式：先通过 peekType 只读取根 map 的 type 字段，再由 inboundPacketRegistry
+	 * 选择包类与处理器，整帧只完整解码一次。
+	 * 
 	 * 通用处理：统一的错误处理和日志记录。
 	 */
 	private void processCompleteMessage(byte[] message) {
@@ -947,82 +1384,30 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 				return;
 			}
 
-			ProtocolPackets.BaseInboundPacket envelope = messageCodec.decode(message, ProtocolPackets.BaseInboundPacket.class);
-			if (envelope == null || envelope.type == null || envelope.type.isBlank()) {
-				LOGGER.warn("Received invalid message envelope");
-				return;
-			}
-
-			if ("handshake_ack".equals(envelope.type)) {
-				ProtocolPackets.HandshakeAckInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.HandshakeAckInboundPacket.class);
-				handleHandshakeAck(packet);
-				return;
-			}
-
-			if ("snapshot_full".equals(envelope.type)) {
-				ProtocolPackets.SnapshotFullInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.SnapshotFullInboundPacket.class);
-				applySnapshot(packet);
-				return;
-			}
-
-			if ("patch".equals(envelope.type)) {
-				ProtocolPackets.PatchInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.PatchInboundPacket.class);
-				applyPatch(packet);
-				return;
-			}
-
-			if ("digest".equals(envelope.type)) {
-				ProtocolPackets.DigestInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.DigestInboundPacket.class);
-				handleDigest(packet);
-				return;
-			}
-
-			if ("refresh_req".equals(envelope.type)) {
-				ProtocolPackets.RefreshReqInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.RefreshReqInboundPacket.class);
-				handleRefreshRequest(packet);
-				return;
+			int wireBytes = message.length;
+			long inflateNs = 0L;
+			if (FrameCompressor.isCompressed(message)) {
+				if (frameCompressor == null) {
+					LOGGER.warn("Received compressed frame without negotiated compression");
+					return;
+				}
+				long startNs = System.nanoTime();
+				message = frameCompressor.decompress(message);
+				inflateNs = System.nanoTime() - startNs;
 			}
 
-			if ("report_rate_hint".equals(envelope.type)) {
-				ProtocolPackets.ReportRateHintInboundPacket packet = messageCodec.decode(
-						message,
-						ProtocolPackets.ReportRateHintInboundPacket.class
-				);
-				handleReportRateHint(packet);
+			String type = messageCodec.peekType(message);
+			if (type == null || type.isBlank()) {
+				LOGGER.warn("Received invalid message envelope");
 				return;
 			}
-
-			if ("waypoints_update".equals(envelope.type)) {
-				ProtocolPackets.WaypointsUpdateInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.WaypointsUpdateInboundPacket.class);
-				JsonObject payload = new JsonObject();
-				payload.add("waypoints", createObjectNode(packet == null ? null : packet.waypoints));
-				Map<String, SharedWaypointInfo> receivedWaypoints = parseWaypointsNode(payload, "waypoints");
-				if (!receivedWaypoints.isEmpty()) {
-					remoteWaypointCache.putAll(receivedWaypoints);
-					notifyWaypointsReceived(receivedWaypoints);
-				}
-				return;
+			if (inflateNs > 0L) {
+				logCompressionSummary(compressionStats.record("in", type, message.length, wireBytes, inflateNs));
 			}
 
-			if ("waypoints_delete".equals(envelope.type)) {
-				ProtocolPackets.WaypointsDeleteInboundPacket packet = messageCodec.decode(message,
-						ProtocolPackets.WaypointsDeleteInboundPacket.class);
-				List<String> waypointIds = packet != null && packet.waypointIds != null ? packet.waypointIds : List.of();
-				if (!waypointIds.isEmpty()) {
-					for (String id : waypointIds) {
-						remoteWaypointCache.remove(id);
-					}
-					notifyWaypointsDeleted(waypointIds);
-				}
-				return;
+			if (!inboundPacketRegistry.dispatch(messageCodec, type, message)) {
+				LOGGER.debug("Ignoring unsupported message type: {}", type);
 			}
-
 		} catch (Exception e) {
 			LOGGER.error(
 				"PlayerESP Network - Error processing complete message: {}, bytes={}",
@@ -1033,6 +1418,25 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
+	private void handleWaypointsUpdate(ProtocolPackets.WaypointsUpdateInboundPacket packet) {
+		Map<String, Object> waypointsNode = packet == null ? null : packet.waypoints;
+		Map<String, SharedWaypointInfo> receivedWaypoints = waypointsNode == null ? Map.of() : parseWaypointsFromObject(waypointsNode);
+		if (!receivedWaypoints.isEmpty()) {
+			remoteWaypointCache.putAll(receivedWaypoints);
+			notifyWaypointsReceived(receivedWaypoints);
+		}
+	}
+
+	private void handleWaypointsDelete(ProtocolPackets.WaypointsDeleteInboundPacket packet) {
+		List<String> waypointIds = packet != null && packet.waypointIds != null ? packet.waypointIds : List.of();
+		if (!waypointIds.isEmpty()) {
+			for (String id : waypointIds) {
+				remoteWaypointCache.remove(id);
+			}
+			notifyWaypointsDeleted(waypointIds);
+		}
+	}
+
 	/**
 	 * 应用全量快照数据 - 数据同步核心方法
 	 * 
@@ -1073,29 +1477,102 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			return;
 		}
 
-		JsonObject json = createObjectNode(packet);
-
-		if (json.has("players") && json.get("players").isJsonObject()) {
-			Map<UUID, RemotePlayerInfo> latestRemotePlayers = parseRemotePlayers(json.getAsJsonObject("players"), true);
+		if (packet.players != null) {
+			Map<UUID, RemotePlayerInfo> latestRemotePlayers = parseRemotePlayers(packet.players, true);
 			reconcileRemotePlayers(latestRemotePlayers);
 		}
 
-		if (json.has("entities") && json.get("entities").isJsonObject()) {
-			replaceEntityCache(json.getAsJsonObject("entities"));
+		if (packet.entities != null) {
+			replaceEntityCache(packet.entities);
 		}
 
-		if (json.has("waypoints") && json.get("waypoints").isJsonObject()) {
+		if (packet.waypoints != null) {
+			// 快照中已不存在的本地路标视为服务端已删除，与分桶快照一致地通知删除并丢弃上传基线
+			Set<String> previousIds = new LinkedHashSet<>(remoteWaypointCache.keySet());
+			for (String waypointId : remoteWaypointDataCache.ids()) {
+				previousIds.add(waypointId);
+			}
+			List<String> deleteIds = new ArrayList<>();
+			for (String waypointId : previousIds) {
+				if (!packet.waypoints.containsKey(waypointId)) {
+					deleteIds.add(waypointId);
+				}
+			}
 			remoteWaypointDataCache.clear();
-			Map<String, SharedWaypointInfo> receivedWaypoints = parseWaypointsNode(json, "waypoints");
+			Map<String, SharedWaypointInfo> receivedWaypoints = parseWaypointsFromObject(packet.waypoints);
 			remoteWaypointCache.clear();
 			remoteWaypointCache.putAll(receivedWaypoints);
+			if (!deleteIds.isEmpty()) {
+				notifyWaypointsDeleted(deleteIds);
+			}
 			if (!receivedWaypoints.isEmpty()) {
 				notifyWaypointsReceived(receivedWaypoints);
 			}
 		}
 
-		if (json.has("playerMarks") && json.get("playerMarks").isJsonObject()) {
-			replacePlayerMarks(json.getAsJsonObject("playerMarks"));
+		if (packet.playerMarks != null) {
+			replacePlayerMarks(packet.playerMarks);
+		}
+
+		if (patchSeqEnabled) {
+			if (packet.seq == null) {
+				inboundPatchSequencer.clear();
+			} else {
+				// 快照已包含 seq 及之前的补丁，暂存中之后的补丁接着按序应用
+				for (ProtocolPackets.PatchInboundPacket pending : inboundPatchSequencer.resetTo(packet.seq, System.currentTimeMillis())) {
+					applyPatch(pending);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 下行补丁入口：协商补丁序号后按序号顺序应用，乱序到达的先暂存，出现缺口立即请求补发。
+	 */
+	private void handlePatch(ProtocolPackets.PatchInboundPacket packet) {
+		if (packet == null) {
+			return;
+		}
+		if (!patchSeqEnabled || packet.seq == null) {
+			applyPatch(packet);
+			return;
+		}
+		for (ProtocolPackets.PatchInboundPacket ready : inboundPatchSequencer.offer(packet.seq, packet, System.currentTimeMillis())) {
+			applyPatch(ready);
+		}
+		updatePatchSequencing();
+	}
+
+	/**
+	 * 下行补丁序号维护：请求补发缺口、缺口超时后改为全量重同步、定期发送累计确认。
+	 */
+	private void updatePatchSequencing() {
+		if (!patchSeqEnabled || webSocket == null || !isConnected) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (inboundPatchSequencer.takeGapExpired(now)) {
+			if (now - lastResyncRequestMs >= RESYNC_COOLDOWN_MS) {
+				LOGGER.warn("Inbound patch gap not repaired within {}ms, requesting full resync", InboundPatchSequencer.GAP_TIMEOUT_MS);
+				lastResyncRequestMs = now;
+				sendResyncRequest("patch_gap", null);
+			}
+			return;
+		}
+
+		long[] missing = inboundPatchSequencer.pollNack(now);
+		if (missing != null) {
+			ProtocolPackets.PatchNackPacket nack = new ProtocolPackets.PatchNackPacket();
+			nack.from = missing[0];
+			nack.to = missing[1];
+			sendPacket(nack);
+		}
+
+		long ackSeq = inboundPatchSequencer.pollAck(now);
+		if (ackSeq >= 0L) {
+			ProtocolPackets.PatchAckPacket ack = new ProtocolPackets.PatchAckPacket();
+			ack.seq = ackSeq;
+			sendPacket(ack);
 		}
 	}
 
@@ -1156,73 +1633,58 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			return;
 		}
 
-		JsonObject json = createObjectNode(packet);
-
-		if (json.has("players") && json.get("players").isJsonObject()) {
-			JsonObject playersPatch = json.getAsJsonObject("players");
-
-			if (playersPatch.has("delete") && playersPatch.get("delete").isJsonArray()) {
-				for (JsonElement idElement : playersPatch.getAsJsonArray("delete")) {
-					if (idElement != null && idElement.isJsonPrimitive()) {
-						try {
-							String playerIdRaw = idElement.getAsString();
-							UUID playerId = UUID.fromString(playerIdRaw);
-							remotePlayers.remove(playerId);
-							playerPositions.remove(playerId);
-							remotePlayerDataCache.remove(playerId);
-							lastSentPlayersSnapshot.remove(playerIdRaw);
-						} catch (Exception ignored) {
-						}
-					}
+		Map<String, Object> playersPatch = packet.players;
+		if (playersPatch != null) {
+			for (Object idValue : asList(playersPatch.get("delete"))) {
+				String playerIdRaw = asText(idValue);
+				if (playerIdRaw == null) {
+					continue;
+				}
+				try {
+					removeRemotePlayer(parseUuid(playerIdRaw));
+				} catch (Exception ignored) {
 				}
 			}
 
-			if (playersPatch.has("upsert") && playersPatch.get("upsert").isJsonObject()) {
-				applyPlayerPatchUpserts(playersPatch.getAsJsonObject("upsert"));
+			Map<String, Object> upsert = asObjectMap(playersPatch.get("upsert"));
+			if (upsert != null) {
+				applyPlayerPatchUpserts(upsert);
 			}
 		}
 
-		if (json.has("entities") && json.get("entities").isJsonObject()) {
-			JsonObject entitiesPatch = json.getAsJsonObject("entities");
-			if (entitiesPatch.has("delete") && entitiesPatch.get("delete").isJsonArray()) {
-				for (JsonElement idElement : entitiesPatch.getAsJsonArray("delete")) {
-					if (idElement != null && idElement.isJsonPrimitive()) {
-						String entityId = idElement.getAsString();
-						if (entityId != null && !entityId.isBlank()) {
-							remoteEntityDataCache.remove(entityId);
-							lastSentEntitiesSnapshot.remove(entityId);
-						}
-					}
+		Map<String, Object> entitiesPatch = packet.entities;
+		if (entitiesPatch != null) {
+			for (Object idValue : asList(entitiesPatch.get("delete"))) {
+				String entityId = asText(idValue);
+				if (entityId != null && !entityId.isBlank()) {
+					removeRemoteEntity(entityId);
 				}
 			}
 
-			if (entitiesPatch.has("upsert") && entitiesPatch.get("upsert").isJsonObject()) {
-				mergeEntityPatchUpsert(entitiesPatch.getAsJsonObject("upsert"));
+			Map<String, Object> upsert = asObjectMap(entitiesPatch.get("upsert"));
+			if (upsert != null) {
+				mergeEntityPatchUpsert(upsert);
 			}
 		}
 
-		if (json.has("waypoints") && json.get("waypoints").isJsonObject()) {
-			JsonObject waypointPatch = json.getAsJsonObject("waypoints");
-
-			if (waypointPatch.has("delete") && waypointPatch.get("delete").isJsonArray()) {
-				List<String> deleteIds = new ArrayList<>();
-				for (JsonElement idElement : waypointPatch.getAsJsonArray("delete")) {
-					if (idElement != null && idElement.isJsonPrimitive()) {
-						String id = idElement.getAsString();
-						if (id != null && !id.isBlank()) {
-							remoteWaypointCache.remove(id);
-							remoteWaypointDataCache.remove(id);
-							deleteIds.add(id);
-						}
-					}
-				}
-				if (!deleteIds.isEmpty()) {
-					notifyWaypointsDeleted(deleteIds);
+		Map<String, Object> waypointPatch = packet.waypoints;
+		if (waypointPatch != null) {
+			List<String> deleteIds = new ArrayList<>();
+			for (Object idValue : asList(waypointPatch.get("delete"))) {
+				String id = asText(idValue);
+				if (id != null && !id.isBlank()) {
+					remoteWaypointCache.remove(id);
+					remoteWaypointDataCache.remove(id);
+					deleteIds.add(id);
 				}
 			}
+			if (!deleteIds.isEmpty()) {
+				notifyWaypointsDeleted(deleteIds);
+			}
 
-			if (waypointPatch.has("upsert") && waypointPatch.get("upsert").isJsonObject()) {
-				Map<String, SharedWaypointInfo> upserts = parseWaypointsFromObject(waypointPatch.getAsJsonObject("upsert"));
+			Map<String, Object> upsert = asObjectMap(waypointPatch.get("upsert"));
+			if (upsert != null) {
+				Map<String, SharedWaypointInfo> upserts = parseWaypointsFromObject(upsert);
 				if (!upserts.isEmpty()) {
 					remoteWaypointCache.putAll(upserts);
 					notifyWaypointsReceived(upserts);
@@ -1230,9 +1692,9 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			}
 		}
 
-		if (json.has("playerMarks") && json.get("playerMarks").isJsonObject()) {
-			JsonObject playerMarksNode = json.getAsJsonObject("playerMarks");
-			if (playerMarksNode.has("upsert") || playerMarksNode.has("delete")) {
+		Map<String, Object> playerMarksNode = packet.playerMarks;
+		if (playerMarksNode != null) {
+			if (playerMarksNode.containsKey("upsert") || playerMarksNode.containsKey("delete")) {
 				applyPlayerMarksPatch(playerMarksNode);
 			} else {
 				replacePlayerMarks(playerMarksNode);
@@ -1240,33 +1702,124 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
-	private void replacePlayerMarks(JsonObject marksJson) {
-		remotePlayerMarks.clear();
-		mergePlayerMarkUpserts(marksJson);
+	/**
+	 * 服务端已删除该玩家：清理本地缓存，并丢弃出站已发送基线，之后若本端仍能看到该玩家会重新完整上报。
+	 */
+	private void removeRemotePlayer(UUID playerId) {
+		remotePlayers.remove(playerId);
+		playerPositions.remove(playerId);
+		remotePlayerDataCache.remove(playerId);
+		remotePlayerKinematicsAtMs.remove(playerId);
+		outboundEncoder.execute(() -> outboundPlayers.forgetSent(playerId));
 	}
 
-	private void applyPlayerMarksPatch(JsonObject patchNode) {
-		if (patchNode.has("delete") && patchNode.get("delete").isJsonArray()) {
-			for (JsonElement idElement : patchNode.getAsJsonArray("delete")) {
-				if (idElement == null || !idElement.isJsonPrimitive()) {
-					continue;
+	private void removeRemoteEntity(String entityId) {
+		remoteEntityDataCache.remove(entityId);
+		remoteEntityKinematicsAtMs.remove(entityId);
+		UUID forgottenId = UuidBinaryCodec.toUuid(entityId);
+		outboundEncoder.execute(() -> outboundEntities.forgetSent(forgottenId));
+	}
+
+	/**
+	 * 应用分桶快照：服务端只下发分桶校验不一致的桶内对象。
+	 * 本地落在这些桶内的对象先全部移除，再写入下发的对象；未随包下发的即视为服务端已删除。
+	 */
+	private void applyBucketSnapshot(ProtocolPackets.SnapshotBucketsInboundPacket packet) {
+		if (packet == null || packet.buckets == null) {
+			return;
+		}
+
+		long playerMask = bucketMask(packet.buckets.get("players"));
+		if (playerMask != 0L) {
+			Map<String, Object> players = packet.players == null ? Map.of() : packet.players;
+			for (UUID playerId : remotePlayerDataCache.idsInBuckets(playerMask)) {
+				if (players.containsKey(playerId.toString())) {
+					remotePlayerDataCache.remove(playerId);
+					remotePlayerKinematicsAtMs.remove(playerId);
+				} else {
+					removeRemotePlayer(playerId);
+				}
+			}
+			Map<UUID, RemotePlayerInfo> received = parseRemotePlayers(players, false);
+			remotePlayers.putAll(received);
+			for (Map.Entry<UUID, RemotePlayerInfo> entry : received.entrySet()) {
+				playerPositions.put(entry.getKey(), entry.getValue().position());
+			}
+		}
+
+		long entityMask = bucketMask(packet.buckets.get("entities"));
+		if (entityMask != 0L) {
+			Map<String, Object> entities = packet.entities == null ? Map.of() : packet.entities;
+			for (String entityId : remoteEntityDataCache.idsInBuckets(entityMask)) {
+				if (entities.containsKey(entityId)) {
+					remoteEntityDataCache.remove(entityId);
+					remoteEntityKinematicsAtMs.remove(entityId);
+				} else {
+					removeRemoteEntity(entityId);
 				}
-				String normalized = normalizePlayerMarkId(idElement.getAsString());
-				if (normalized != null) {
-					remotePlayerMarks.remove(normalized);
+			}
+			mergeEntityPatchUpsert(entities);
+		}
+
+		long waypointMask = bucketMask(packet.buckets.get("waypoints"));
+		if (waypointMask != 0L) {
+			Map<String, Object> waypoints = packet.waypoints == null ? Map.of() : packet.waypoints;
+			List<String> deleteIds = new ArrayList<>();
+			for (String waypointId : remoteWaypointDataCache.idsInBuckets(waypointMask)) {
+				remoteWaypointDataCache.remove(waypointId);
+				if (!waypoints.containsKey(waypointId)) {
+					remoteWaypointCache.remove(waypointId);
+					deleteIds.add(waypointId);
 				}
 			}
+			if (!deleteIds.isEmpty()) {
+				notifyWaypointsDeleted(deleteIds);
+			}
+			Map<String, SharedWaypointInfo> received = parseWaypointsFromObject(waypoints);
+			if (!received.isEmpty()) {
+				remoteWaypointCache.putAll(received);
+				notifyWaypointsReceived(received);
+			}
+		}
+	}
+
+	private static long bucketMask(List<Integer> buckets) {
+		long mask = 0L;
+		if (buckets == null) {
+			return mask;
+		}
+		for (Integer bucket : buckets) {
+			if (bucket != null && bucket >= 0 && bucket < StateDigest64.BUCKET_COUNT) {
+				mask |= 1L << bucket;
+			}
+		}
+		return mask;
+	}
+
+	private void replacePlayerMarks(Map<String, Object> marksNode) {
+		remotePlayerMarks.clear();
+		mergePlayerMarkUpserts(marksNode);
+	}
+
+	private void applyPlayerMarksPatch(Map<String, Object> patchNode) {
+		for (Object idValue : asList(patchNode.get("delete"))) {
+			String normalized = normalizePlayerMarkId(asText(idValue));
+			if (normalized != null) {
+				remotePlayerMarks.remove(normalized);
+			}
 		}
 
-		if (patchNode.has("upsert") && patchNode.get("upsert").isJsonObject()) {
-			mergePlayerMarkUpserts(patchNode.getAsJsonObject("upsert"));
+		Map<String, Object> upsert = asObjectMap(patchNode.get("upsert"));
+		if (upsert != null) {
+			mergePlayerMarkUpserts(upsert);
 		}
 	}
 
-	private void mergePlayerMarkUpserts(JsonObject upsertNode) {
-		for (Map.Entry<String, JsonElement> entry : upsertNode.entrySet()) {
+	private void mergePlayerMarkUpserts(Map<String, Object> upsertNode) {
+		for (Map.Entry<String, Object> entry : upsertNode.entrySet()) {
 			try {
-				if (entry.getValue() == null || !entry.getValue().isJsonObject()) {
+				Map<String, Object> node = asObjectMap(entry.getValue());
+				if (node == null) {
 					continue;
 				}
 				String normalizedId = normalizePlayerMarkId(entry.getKey());
@@ -1274,7 +1827,7 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 					continue;
 				}
 
-				JsonObject markNode = extractDataNode(entry.getValue().getAsJsonObject());
+				Map<String, Object> markNode = extractDataNode(node);
 				String team = normalizeMarkTeam(getOptionalString(markNode, "team"));
 				Integer color = parseColorValue(markNode.get("color"));
 				String label = getOptionalString(markNode, "label");
@@ -1289,15 +1842,22 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
+	/**
+	 * 经 UuidBinaryCodec 缓存解析 UUID，同一 ID 复用同一实例；非法值抛出 IllegalArgumentException。
+	 */
+	private static UUID parseUuid(String raw) {
+		UUID uuid = UuidBinaryCodec.toUuid(raw);
+		if (uuid == null) {
+			throw new IllegalArgumentException("Invalid UUID: " + raw);
+		}
+		return uuid;
+	}
+
 	private String normalizePlayerMarkId(String value) {
 		if (value == null || value.isBlank()) {
 			return null;
 		}
-		try {
-			return UUID.fromString(value.trim()).toString().toLowerCase();
-		} catch (Exception e) {
-			return null;
-		}
+		return UuidBinaryCodec.toCanonicalString(value);
 	}
 
 	private String normalizeMarkTeam(String value) {
@@ -1314,34 +1874,32 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		return "neutral";
 	}
 
-	private Integer parseColorValue(JsonElement element) {
-		if (element == null || element.isJsonNull()) {
+	private Integer parseColorValue(Object value) {
+		if (value == null) {
 			return null;
 		}
 		try {
-			if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
-				return element.getAsInt();
+			if (value instanceof Number number) {
+				return number.intValue();
 			}
-			if (element.isJsonPrimitive()) {
-				String text = element.getAsString();
-				if (text == null || text.isBlank()) {
-					return null;
-				}
-				String normalized = text.trim();
-				if (normalized.startsWith("#")) {
-					String hex = normalized.substring(1);
-					if (hex.length() == 6) {
-						return (0xFF << 24) | Integer.parseInt(hex, 16);
-					}
-					if (hex.length() == 8) {
-						return (int) Long.parseLong(hex, 16);
-					}
+			String text = asText(value);
+			if (text == null || text.isBlank()) {
+				return null;
+			}
+			String normalized = text.trim();
+			if (normalized.startsWith("#")) {
+				String hex = normalized.substring(1);
+				if (hex.length() == 6) {
+					return (0xFF << 24) | Integer.parseInt(hex, 16);
 				}
-				if (normalized.startsWith("0x") || normalized.startsWith("0X")) {
-					return (int) Long.parseLong(normalized.substring(2), 16);
+				if (hex.length() == 8) {
+					return (int) Long.parseLong(hex, 16);
 				}
-				return (int) Long.parseLong(normalized, 16);
 			}
+			if (normalized.startsWith("0x") || normalized.startsWith("0X")) {
+				return (int) Long.parseLong(normalized.substring(2), 16);
+			}
+			return (int) Long.parseLong(normalized, 16);
 		} catch (Exception ignored) {
 		}
 		return null;
@@ -1351,10 +1909,10 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 处理数据摘要校验消息 - 数据一致性保障机制
 	 * 
 	 * 工作原理：
-	 * 1. 服务端定期发送各类数据的SHA-1摘要哈希
+	 * 1. 服务端定期发送各类数据的摘要哈希(sum64 或 SHA-1)，协商分桶后附带各桶摘要
 	 * 2. 客户端计算本地对应数据的摘要哈希
 	 * 3. 对比双方哈希值是否一致
-	 * 4. 发现不一致时请求强制重同步
+	 * 4. 发现不一致时请求强制重同步；分桶可用时只请求不一致的桶
 	 * 
 	 * 校验的数据类型：
 	 * - players: 玩家位置数据摘要
@@ -1368,7 +1926,7 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 重同步触发条件：
 	 * - 任一类型数据哈希不匹配
 	 * - 超过冷却时间限制
-	 * - 通过resync_req消息请求全量数据
+	 * - 通过resync_req消息请求全量数据，或携带 buckets 只请求不一致桶内的对象
 	 * 
 	 * 优势：
 	 * - 及早发现数据不同步问题
@@ -1384,9 +1942,21 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		String serverEntityHash = packet.hashes.get("entities");
 		String serverWaypointHash = packet.hashes.get("waypoints");
 
-		String localPlayerHash = computePlayersDigest();
-		String localEntityHash = computeEntitiesDigest();
-		String localWaypointHash = computeWaypointDigest();
+		boolean incremental = packet.mode != null
+				? StateDigest64.MODE.equals(packet.mode)
+				: incrementalDigestEnabled;
+		String localPlayerHash;
+		String localEntityHash;
+		String localWaypointHash;
+		if (incremental) {
+			localPlayerHash = StateDigest64.hex(remotePlayerDataCache.digest());
+			localEntityHash = StateDigest64.hex(remoteEntityDataCache.digest());
+			localWaypointHash = StateDigest64.hex(remoteWaypointDataCache.digest());
+		} else {
+			localPlayerHash = computePlayersDigest();
+			localEntityHash = computeEntitiesDigest();
+			localWaypointHash = computeWaypointDigest();
+		}
 
 		boolean mismatch = !Objects.equals(serverPlayerHash, localPlayerHash)
 				|| !Objects.equals(serverEntityHash, localEntityHash)
@@ -1402,16 +1972,58 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 
 		lastResyncRequestMs = now;
-		sendResyncRequest("digest_mismatch");
+		Map<String, List<Integer>> mismatchedBuckets = incremental && digestBucketsEnabled
+				? findMismatchedBuckets(packet.buckets)
+				: null;
+		sendResyncRequest("digest_mismatch", mismatchedBuckets);
+	}
+
+	/**
+	 * 比较服务端下发的分桶摘要，找出不一致的桶。
+	 * @return 各作用域不一致的桶下标；服务端未下发分桶摘要或不一致的桶过多时返回 null，改为全量重同步
+	 */
+	private Map<String, List<Integer>> findMismatchedBuckets(Map<String, List<String>> serverBuckets) {
+		if (serverBuckets == null) {
+			return null;
+		}
+		Map<String, List<Integer>> result = new HashMap<>();
+		int total = 0;
+		String[] scopes = {"players", "entities", "waypoints"};
+		RemoteStateStore<?>[] stores = {remotePlayerDataCache, remoteEntityDataCache, remoteWaypointDataCache};
+		for (int i = 0; i < scopes.length; i++) {
+			List<String> hashes = serverBuckets.get(scopes[i]);
+			if (hashes == null || hashes.size() != StateDigest64.BUCKET_COUNT) {
+				return null;
+			}
+			List<Integer> mismatched = new ArrayList<>();
+			for (int bucket = 0; bucket < StateDigest64.BUCKET_COUNT; bucket++) {
+				if (!StateDigest64.hex(stores[i].bucketDigest(bucket)).equals(hashes.get(bucket))) {
+					mismatched.add(bucket);
+				}
+			}
+			if (!mismatched.isEmpty()) {
+				result.put(scopes[i], mismatched);
+				total += mismatched.size();
+			}
+		}
+		// 超过一半的桶不一致时分桶重传省不了多少，直接请求全量快照
+		if (result.isEmpty() || total > StateDigest64.BUCKET_COUNT * scopes.length / 2) {
+			return null;
+		}
+		return result;
 	}
 
-	private void sendResyncRequest(String reason) {
+	/**
+	 * @param buckets 只重传这些桶时非空，服务端以 snapshot_buckets 回复；为 null 时服务端回复 snapshot_full
+	 */
+	private void sendResyncRequest(String reason, Map<String, List<Integer>> buckets) {
 		if (webSocket == null || !isConnected) {
 			return;
 		}
 		try {
 			ProtocolPackets.ResyncReqPacket req = new ProtocolPackets.ResyncReqPacket();
 			req.reason = reason;
+			req.buckets = buckets;
 			MinecraftClient client = MinecraftClient.getInstance();
 			if (client.player != null) {
 				req.submitPlayerId = UuidBinaryCodec.toBytes(client.player.getUuid());
@@ -1549,25 +2161,32 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			return null;
 		}
 
-		Map<String, Object> data = remoteEntityDataCache.get(entityId);
-		if (data == null) {
+		int slot = remoteEntityDataCache.slot(entityId);
+		if (slot < 0) {
 			return null;
 		}
 
 		if (expectedDimension != null && !expectedDimension.isBlank()) {
-			Object dimension = data.get("dimension");
-			if (dimension == null || !expectedDimension.equals(String.valueOf(dimension))) {
+			if (!expectedDimension.equals(remoteEntityDataCache.dimension(slot))) {
 				return null;
 			}
 		}
 
-		Double x = getAsDouble(data.get("x"));
-		Double y = getAsDouble(data.get("y"));
-		Double z = getAsDouble(data.get("z"));
-		if (x == null || y == null || z == null) {
+		if (!remoteEntityDataCache.hasPosition(slot)) {
 			return null;
 		}
 
+		double x = remoteEntityDataCache.get(slot, RemoteStateStore.Column.X);
+		double y = remoteEntityDataCache.get(slot, RemoteStateStore.Column.Y);
+		double z = remoteEntityDataCache.get(slot, RemoteStateStore.Column.Z);
+		// 发送端按同一模型省略误差上限以内的实体坐标，读取时按航位推算外推
+		Long receivedAtMs = deadReckoningEnabled ? remoteEntityKinematicsAtMs.get(remoteEntityDataCache.id(slot)) : null;
+		if (receivedAtMs != null && remoteEntityDataCache.hasVelocity(slot)) {
+			long elapsedMs = System.currentTimeMillis() - receivedAtMs;
+			x = DeadReckoning.extrapolate(x, remoteEntityDataCache.get(slot, RemoteStateStore.Column.VX), elapsedMs);
+			y = DeadReckoning.extrapolate(y, remoteEntityDataCache.get(slot, RemoteStateStore.Column.VY), elapsedMs);
+			z = DeadReckoning.extrapolate(z, remoteEntityDataCache.get(slot, RemoteStateStore.Column.VZ), elapsedMs);
+		}
 		return new Vec3d(x, y, z);
 	}
 
@@ -1583,13 +2202,13 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		if (expectedUuid != null) {
 			RemotePlayerInfo info = remotePlayers.get(expectedUuid);
 			if (isRemotePlayerMatch(info, playerName, expectedDimension)) {
-				return info.position();
+				return extrapolateRemotePlayerPosition(info.uuid(), info.position());
 			}
 		}
 
 		for (RemotePlayerInfo info : remotePlayers.values()) {
 			if (isRemotePlayerMatch(info, playerName, expectedDimension)) {
-				return info.position();
+				return extrapolateRemotePlayerPosition(info.uuid(), info.position());
 			}
 		}
 
@@ -1696,13 +2315,37 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			handshake.localProgramVersion = CLIENT_PROGRAM_VERSION;
 			handshake.roomCode = getRoomCode();
 			handshake.preferredReportIntervalTicks = config != null ? config.getUpdateInterval() : 10;
-			handshake.minReportIntervalTicks = 1;
-			handshake.maxReportIntervalTicks = 1000;
+			handshake.minReportIntervalTicks = ReportRateController.MIN_INTERVAL_TICKS;
+			handshake.maxReportIntervalTicks = ReportRateController.MAX_INTERVAL_TICKS;
+			advertisedPositionQuantization = config != null && config.isQuantizePositions()
+					? PositionQuantization.of(config.getPositionQuantizationScale(), config.getVelocityQuantizationScale())
+					: PositionQuantization.DISABLED;
+			handshake.fieldKeyDictionary = LOCAL_FIELD_KEY_DICTIONARY.keys();
+			compressionAdvertised = config != null && config.isEnableCompression() && !transportCompressionNegotiated;
+			if (compressionAdvertised) {
+				handshake.compressionAlgorithms = List.of(FrameCompressor.ALGORITHM_DEFLATE);
+				handshake.compressionDictionaryId = FrameCompressor.PRESET_DICTIONARY_V1;
+				handshake.compressionThresholdBytes = COMPRESSION_THRESHOLD_BYTES;
+			}
+			handshake.positionsBatch = true;
+			handshake.rttProbe = true;
+			handshake.tabPlayersDelta = true;
+			handshake.waypointsPatch = true;
+			handshake.digestModes = List.of(StateDigest64.MODE, LEGACY_DIGEST_MODE);
+			handshake.digestBuckets = true;
+			handshake.patchSeq = true;
+			handshake.deadReckoning = true;
+			handshake.binaryUuids = true;
+			if (advertisedPositionQuantization.isEnabled()) {
+				handshake.positionQuantizationScale = advertisedPositionQuantization.positionScale();
+				handshake.velocityQuantizationScale = advertisedPositionQuantization.velocityScale();
+			}
 			MinecraftClient client = MinecraftClient.getInstance();
 			if (client.player != null) {
 				handshake.submitPlayerId = UuidBinaryCodec.toBytes(client.player.getUuid());
 			}
 
+			handshakeSentMs = System.currentTimeMillis();
 			sendPacket(handshake);
 			LOGGER.info("Sent handshake message");
 		} catch (Exception e) {
@@ -1730,6 +2373,54 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	 * 4. 程序版本信息：
 	 *    - serverProgramVersion: 服务端程序版本
 	 *    - 用于调试和版本对比
+	 * 
+	 * 5. 定点坐标编码：
+	 *    - positionQuantizationScale / velocityQuantizationScale: 服务端确认的刻度
+	 *    - 生效后上下行玩家/实体坐标与速度均为整数刻度
+	 * 
+	 * 6. 字段名字典：
+	 *    - fieldKeyDictionary: 服务端确认的有序字段名列表
+	 *    - 生效后玩家/实体/路标数据 map 的键以列表下标传输
+	 * 
+	 * 7. 逐帧压缩：
+	 *    - compressionAlgorithm / compressionDictionaryId: 服务端确认的算法与预置字典
+	 *    - 生效后超过阈值的帧以 0xC1 标记加 raw deflate 传输
+	 * 
+	 * 8. 列式坐标批量包：
+	 *    - positionsBatch: 服务端是否接受 positions_batch
+	 *    - 生效后只有坐标/速度变化的对象改走列式包，其余字段仍走 patch
+	 * 
+	 * 9. RTT 探测：
+	 *    - rttProbe: 服务端是否回显 ping 为 pong
+	 *    - 握手往返时间作为首个 RTT 样本，之后定期 ping 供上报频率控制使用
+	 * 
+	 * 10. Tab列表增量包：
+	 *    - tabPlayersDelta: 服务端是否接受 tab_players_delta
+	 *    - 生效后Tab列表只发送变化条目，定期仍发送全量列表
+	 * 
+	 * 11. 路标补丁包：
+	 *    - waypointsPatch: 服务端是否接受 waypoints_patch
+	 *    - 生效后合并窗口内的路标增删改以一帧发出，更新只携带变化字段
+	 * 
+	 * 12. 摘要模式：
+	 *    - digestMode: 服务端从 digestModes 中选择的摘要算法
+	 *    - sum64 时摘要随缓存增删改增量维护；未选择或旧服务端沿用排序后 SHA-1 的摘要
+	 * 
+	 * 13. 分桶摘要：
+	 *    - digestBuckets: 服务端是否随 digest 下发分桶摘要并接受分桶 resync_req
+	 *    - 仅在 sum64 下生效，不一致时只重传不一致桶内的对象(snapshot_buckets)
+	 * 
+	 * 14. 补丁序号：
+	 *    - patchSeq: 服务端是否为下行 patch 编号并处理上行补丁序号
+	 *    - 生效后双方以 patch_ack 累计确认、patch_nack 请求补发缺失区间，强制全量刷新间隔放宽
+	 * 
+	 * 15. 航位推算：
+	 *    - deadReckoning: 服务端是否确认房间内客户端按上次收到的坐标与速度外推玩家与实体位置
+	 *    - 生效后上报的速度改为相邻采样的位移，玩家与实体坐标只在外推误差超限时重发；未确认时逐帧上报原始坐标与速度
+	 * 
+	 * 16. 二进制 UUID：
+	 *    - binaryUuids: 服务端是否接受上行包中以 16 字节二进制传输的 UUID 键、字段与列表
+	 *    - 生效后按包字段路径表把 UUID 字符串转为二进制；未确认时除 submitPlayerId 等本身为二进制的字段外均保持字符串
 	 */
 	private void handleHandshakeAck(ProtocolPackets.HandshakeAckInboundPacket packet) {
 		if (packet == null) {
@@ -1755,8 +2446,24 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		digestIntervalSec = packet.digestIntervalSec != null ? packet.digestIntervalSec : 10;
 		serverBroadcastHz = packet.broadcastHz != null ? packet.broadcastHz : 20.0;
 		if (packet.reportIntervalTicks != null && packet.reportIntervalTicks > 0) {
-			negotiatedReportIntervalTicks = packet.reportIntervalTicks;
+			reportRateController.applyServerHint(packet.reportIntervalTicks);
 		}
+		long now = System.currentTimeMillis();
+		if (handshakeSentMs > 0L) {
+			reportRateController.onRttSample(now - handshakeSentMs, now);
+			handshakeSentMs = 0L;
+		}
+		rttProbeEnabled = Boolean.TRUE.equals(packet.rttProbe);
+		tabPlayersDeltaEnabled = Boolean.TRUE.equals(packet.tabPlayersDelta);
+		waypointsPatchEnabled = Boolean.TRUE.equals(packet.waypointsPatch);
+		incrementalDigestEnabled = StateDigest64.MODE.equals(packet.digestMode);
+		digestBucketsEnabled = incrementalDigestEnabled && Boolean.TRUE.equals(packet.digestBuckets);
+		patchSeqEnabled = Boolean.TRUE.equals(packet.patchSeq);
+		inboundPatchSequencer.clear();
+		outboundEncoder.execute(outboundPatchBuffer::clear);
+		deadReckoningEnabled = Boolean.TRUE.equals(packet.deadReckoning);
+		tabListTracker.requestFullRefresh();
+		lastRttProbeSentMs = now;
 
 		int advertisedPlayerTimeoutSec = packet.playerTimeoutSec != null && packet.playerTimeoutSec > 0
 				? packet.playerTimeoutSec
@@ -1770,6 +2477,44 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		if (advertisedEntityTimeoutSec > 0) {
 			entityKeepaliveIntervalMs = calculateKeepaliveIntervalMs(advertisedEntityTimeoutSec);
 		}
+		reportRateController.applyKeepaliveInterval(Math.min(playerKeepaliveIntervalMs, entityKeepaliveIntervalMs));
+
+		messageCodec.setBinaryUuids(Boolean.TRUE.equals(packet.binaryUuids));
+
+		// 服务端回填字段名列表即启用字典模式，双向均按该列表的下标编号；未回填则保持字符串键
+		FieldKeyDictionary negotiatedDictionary = FieldKeyDictionary.fromOrderedKeys(packet.fieldKeyDictionary);
+		messageCodec.setFieldKeyDictionary(negotiatedDictionary);
+		if (negotiatedDictionary != null) {
+			LOGGER.info("Field key dictionary enabled: {} keys", negotiatedDictionary.size());
+		}
+
+		// 服务端确认 deflate 后双向启用逐帧压缩；字典 ID 不一致时退化为无字典
+		closeFrameCompressor();
+		if (compressionAdvertised && FrameCompressor.ALGORITHM_DEFLATE.equals(packet.compressionAlgorithm)) {
+			String dictionaryId = FrameCompressor.PRESET_DICTIONARY_V1.equals(packet.compressionDictionaryId)
+					? packet.compressionDictionaryId
+					: null;
+			frameCompressor = new FrameCompressor(dictionaryId, COMPRESSION_THRESHOLD_BYTES);
+			LOGGER.info("Frame compression enabled: deflate, dictionary={}", dictionaryId == null ? "none" : dictionaryId);
+		}
+
+		positionsBatchEnabled = Boolean.TRUE.equals(packet.positionsBatch);
+
+		// 仅当本端声明过且服务端在确认中回填刻度时启用定点编码，否则保持浮点
+		PositionQuantization confirmedQuantization = advertisedPositionQuantization.isEnabled()
+				? PositionQuantization.of(packet.positionQuantizationScale, packet.velocityQuantizationScale)
+				: PositionQuantization.DISABLED;
+		if (!confirmedQuantization.equals(positionQuantization)) {
+			positionQuantization = confirmedQuantization;
+			clearLocalOutboundSnapshots();
+		}
+		if (confirmedQuantization.isEnabled()) {
+			LOGGER.info(
+					"Quantized positions enabled: position=1/{} block, velocity=1/{} block/tick",
+					confirmedQuantization.positionScale(),
+					confirmedQuantization.velocityScale()
+			);
+		}
 
 		LOGGER.info(
 				"Handshake completed: protocol={}, serverProgramVersion={}, digestInterval={}s, playerKeepalive={}ms(playerTimeout={}s), entityKeepalive={}ms(entityTimeout={}s)",
@@ -1798,10 +2543,10 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 			serverBroadcastHz = packet.broadcastHz;
 		}
 		if (packet.reportIntervalTicks != null && packet.reportIntervalTicks > 0) {
-			negotiatedReportIntervalTicks = packet.reportIntervalTicks;
+			reportRateController.applyServerHint(packet.reportIntervalTicks);
 			LOGGER.info(
 					"Applied report rate hint: interval={} ticks, broadcastHz={}, reason={}",
-					negotiatedReportIntervalTicks,
+					reportRateController.intervalTicks(),
 					serverBroadcastHz,
 					packet.reason == null ? "runtime" : packet.reason
 			);
@@ -1962,6 +2707,7 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	}
 
 	private void notifyWaypointsDeleted(List<String> waypointIds) {
+		waypointUploadJournal.forgetSent(waypointIds);
 		for (WaypointUpdateListener listener : waypointListeners) {
 			try {
 				listener.onWaypointsDeleted(waypointIds);
@@ -1971,35 +2717,29 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
-	private Map<UUID, RemotePlayerInfo> parseRemotePlayers(JsonObject playersJson, boolean replaceCache) {
+	private Map<UUID, RemotePlayerInfo> parseRemotePlayers(Map<String, Object> playersNode, boolean replaceCache) {
 		Map<UUID, RemotePlayerInfo> newRemotePlayers = new HashMap<>();
 		RegistryKey<World> fallbackDimension = getCurrentDimension();
 
 		if (replaceCache) {
 			remotePlayerDataCache.clear();
+			remotePlayerKinematicsAtMs.clear();
 		}
 
-		for (Map.Entry<String, JsonElement> entry : playersJson.entrySet()) {
+		for (Map.Entry<String, Object> entry : playersNode.entrySet()) {
 			try {
 				String playerIdStr = entry.getKey();
-				if (!entry.getValue().isJsonObject()) {
+				Map<String, Object> playerDataNode = asObjectMap(entry.getValue());
+				if (playerDataNode == null) {
 					continue;
 				}
-				JsonObject playerDataNode = entry.getValue().getAsJsonObject();
-				JsonObject actualData = extractDataNode(playerDataNode);
-				UUID playerId = UUID.fromString(playerIdStr);
-				Map<String, Object> mergedData = new HashMap<>();
-				if (!replaceCache && remotePlayerDataCache.containsKey(playerId)) {
-					mergedData.putAll(remotePlayerDataCache.get(playerId));
-				}
-				mergedData.putAll(jsonObjectToValueMap(actualData));
-
-				RemotePlayerInfo info = buildRemotePlayerInfo(playerId, mergedData, fallbackDimension, playerIdStr);
+				Map<String, Object> actualData = extractDataNode(playerDataNode);
+				UUID playerId = parseUuid(playerIdStr);
+				RemotePlayerInfo info = mergeRemotePlayerData(playerId, actualData, fallbackDimension, playerIdStr);
 				if (info == null) {
 					continue;
 				}
 
-				remotePlayerDataCache.put(playerId, mergedData);
 				newRemotePlayers.put(playerId, info);
 			} catch (Exception e) {
 				LOGGER.error("PlayerESP Network - Error parsing player data: {}", e.getMessage());
@@ -2009,31 +2749,22 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		return newRemotePlayers;
 	}
 
-	private void applyPlayerPatchUpserts(JsonObject upsertJson) {
+	private void applyPlayerPatchUpserts(Map<String, Object> upsertNode) {
 		RegistryKey<World> fallbackDimension = getCurrentDimension();
 
-		for (Map.Entry<String, JsonElement> entry : upsertJson.entrySet()) {
+		for (Map.Entry<String, Object> entry : upsertNode.entrySet()) {
 			try {
-				if (!entry.getValue().isJsonObject()) {
+				Map<String, Object> node = asObjectMap(entry.getValue());
+				if (node == null) {
 					continue;
 				}
 
-				UUID playerId = UUID.fromString(entry.getKey());
-				Map<String, Object> mergedData = new HashMap<>();
-				Map<String, Object> existing = remotePlayerDataCache.get(playerId);
-				if (existing != null) {
-					mergedData.putAll(existing);
-				}
-
-				JsonObject dataNode = extractDataNode(entry.getValue().getAsJsonObject());
-				mergedData.putAll(jsonObjectToValueMap(dataNode));
-
-				RemotePlayerInfo info = buildRemotePlayerInfo(playerId, mergedData, fallbackDimension, entry.getKey());
+				UUID playerId = parseUuid(entry.getKey());
+				RemotePlayerInfo info = mergeRemotePlayerData(playerId, extractDataNode(node), fallbackDimension, entry.getKey());
 				if (info == null) {
 					continue;
 				}
 
-				remotePlayerDataCache.put(playerId, mergedData);
 				remotePlayers.put(playerId, info);
 				playerPositions.put(playerId, info.position());
 			} catch (Exception e) {
@@ -2042,119 +2773,166 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		}
 	}
 
-	private RemotePlayerInfo buildRemotePlayerInfo(UUID playerId, Map<String, Object> mergedData,
+	/**
+	 * 把一次上报合并进玩家列式缓存；合并后仍缺少坐标的新玩家不入缓存。
+	 */
+	private RemotePlayerInfo mergeRemotePlayerData(UUID playerId, Map<String, Object> update,
 			RegistryKey<World> fallbackDimension, String fallbackName) {
-		Double x = getAsDouble(mergedData.get("x"));
-		Double y = getAsDouble(mergedData.get("y"));
-		Double z = getAsDouble(mergedData.get("z"));
-		if (x == null || y == null || z == null) {
+		boolean known = remotePlayerDataCache.contains(playerId);
+		int slot = remotePlayerDataCache.upsert(playerId, update, positionQuantization, false);
+		RemotePlayerInfo info = buildRemotePlayerInfo(slot, fallbackDimension, fallbackName);
+		if (info == null) {
+			if (!known) {
+				remotePlayerDataCache.remove(playerId);
+			}
 			return null;
 		}
+		touchKinematics(remotePlayerKinematicsAtMs, playerId, update);
+		return info;
+	}
 
-		String dimensionId = mergedData.get("dimension") == null ? null : String.valueOf(mergedData.get("dimension"));
-		RegistryKey<World> dimension = RemotePlayerInfo.parseDimension(dimensionId, fallbackDimension);
-		String playerName = mergedData.get("playerName") == null ? fallbackName : String.valueOf(mergedData.get("playerName"));
+	private static <K> void touchKinematics(Map<K, Long> kinematicsAtMs, K id, Map<String, Object> update) {
+		for (String key : KINEMATIC_KEYS) {
+			if (update.containsKey(key)) {
+				kinematicsAtMs.put(id, System.currentTimeMillis());
+				return;
+			}
+		}
+	}
 
-		Vec3d position = new Vec3d(x, y, z);
-		return new RemotePlayerInfo(playerId, position, dimension, playerName);
+	/**
+	 * 按航位推算外推远程玩家坐标：以最近一次收到的坐标与速度为基准，与发送端的预测模型一致，
+	 * 发送端据此省略误差上限以内的坐标更新。在读取坐标处按需计算，缓存中始终保存收到的原始坐标。
+	 * 只在客户端主线程（含渲染）调用。
+	 * @param position 调用方持有的该玩家坐标；与收到的远程坐标不同（例如已被本地数据覆盖）时原样返回
+	 * @return 外推后的坐标；未启用、没有速度或静止时返回 position 本身
+	 */
+	public Vec3d extrapolateRemotePlayerPosition(UUID playerId, Vec3d position) {
+		if (!deadReckoningEnabled || playerId == null || position == null) {
+			return position;
+		}
+		Long receivedAtMs = remotePlayerKinematicsAtMs.get(playerId);
+		int slot = remotePlayerDataCache.slot(playerId);
+		if (receivedAtMs == null || slot < 0 || !remotePlayerDataCache.hasVelocity(slot)
+				|| !position.equals(playerPositions.get(playerId))) {
+			return position;
+		}
+		double vx = remotePlayerDataCache.get(slot, RemoteStateStore.Column.VX);
+		double vy = remotePlayerDataCache.get(slot, RemoteStateStore.Column.VY);
+		double vz = remotePlayerDataCache.get(slot, RemoteStateStore.Column.VZ);
+		if (vx == 0.0 && vy == 0.0 && vz == 0.0) {
+			return position;
+		}
+		long elapsedMs = System.currentTimeMillis() - receivedAtMs;
+		return new Vec3d(
+				DeadReckoning.extrapolate(position.x, vx, elapsedMs),
+				DeadReckoning.extrapolate(position.y, vy, elapsedMs),
+				DeadReckoning.extrapolate(position.z, vz, elapsedMs)
+		);
 	}
 
-	private Double getAsDouble(Object value) {
-		if (value == null) {
-			return null;
-		}
-		if (value instanceof Number) {
-			return ((Number) value).doubleValue();
-		}
-		try {
-			return Double.parseDouble(String.valueOf(value));
-		} catch (Exception e) {
+	private RemotePlayerInfo buildRemotePlayerInfo(int slot, RegistryKey<World> fallbackDimension, String fallbackName) {
+		if (!remotePlayerDataCache.hasPosition(slot)) {
 			return null;
 		}
+
+		RegistryKey<World> dimension = RemotePlayerInfo.parseDimension(remotePlayerDataCache.dimension(slot), fallbackDimension);
+		Object playerNameValue = remotePlayerDataCache.value(slot, "playerName");
+		String playerName = playerNameValue == null ? fallbackName : String.valueOf(playerNameValue);
+
+		Vec3d position = new Vec3d(
+				remotePlayerDataCache.get(slot, RemoteStateStore.Column.X),
+				remotePlayerDataCache.get(slot, RemoteStateStore.Column.Y),
+				remotePlayerDataCache.get(slot, RemoteStateStore.Column.Z));
+		return new RemotePlayerInfo(remotePlayerDataCache.id(slot), position, dimension, playerName);
+	}
+
+	/**
+	 * @return 解码后的嵌套对象；JSON 与 msgpack 解码都产出 String 键的 Map，其他类型返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asObjectMap(Object value) {
+		return value instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+	}
+
+	private static List<?> asList(Object value) {
+		return value instanceof List<?> list ? list : List.of();
 	}
 
-	private Map<String, Object> jsonObjectToValueMap(JsonObject jsonObject) {
-		Map<String, Object> values = new HashMap<>();
-		for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
-			values.put(entry.getKey(), jsonElementToValue(entry.getValue()));
+	/**
+	 * @return 标量值的文本形式；null、嵌套对象与数组返回 null
+	 */
+	private static String asText(Object value) {
+		if (value instanceof String text) {
+			return text;
 		}
-		return values;
+		if (value instanceof Number || value instanceof Boolean) {
+			return String.valueOf(value);
+		}
+		return null;
 	}
 
-	private Object jsonElementToValue(JsonElement element) {
-		if (element == null || element.isJsonNull()) {
-			return null;
+	private static int requireInt(Object value) {
+		if (value instanceof Number number) {
+			return number.intValue();
 		}
-		if (element.isJsonPrimitive()) {
-			if (element.getAsJsonPrimitive().isBoolean()) {
-				return element.getAsBoolean();
-			}
-			if (element.getAsJsonPrimitive().isNumber()) {
-				return element.getAsDouble();
-			}
-			return element.getAsString();
+		String text = asText(value);
+		if (text == null) {
+			throw new IllegalArgumentException("Expected number but was " + value);
 		}
-		return element.toString();
+		return (int) Double.parseDouble(text.trim());
 	}
 
-	private Map<String, Object> computeFieldDelta(Map<String, Object> previous, Map<String, Object> current) {
-		Map<String, Object> delta = new HashMap<>();
-		for (Map.Entry<String, Object> entry : current.entrySet()) {
-			if (!Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
-				delta.put(entry.getKey(), entry.getValue());
-			}
+	private static long longOrDefault(Object value, long fallback) {
+		if (value instanceof Number number) {
+			return number.longValue();
+		}
+		String text = asText(value);
+		if (text == null) {
+			return fallback;
+		}
+		try {
+			return (long) Double.parseDouble(text.trim());
+		} catch (NumberFormatException e) {
+			return fallback;
 		}
-		return delta;
 	}
 
 	private void updateObjectLivenessAfterPatch(
-			Map<String, Long> livenessMap,
+			KeepaliveTimerWheel keepaliveWheel,
+			long keepaliveIntervalMs,
 			Set<String> upsertIds,
 			List<String> deleteIds,
 			long nowMs
 	) {
 		if (upsertIds != null) {
 			for (String id : upsertIds) {
-				if (id != null && !id.isBlank()) {
-					livenessMap.put(id, nowMs);
-				}
+				keepaliveWheel.schedule(id, nowMs, keepaliveIntervalMs);
 			}
 		}
 		if (deleteIds != null) {
 			for (String id : deleteIds) {
-				if (id != null && !id.isBlank()) {
-					livenessMap.remove(id);
-				}
+				keepaliveWheel.cancel(id);
 			}
 		}
 	}
 
 	private void sendObjectKeepaliveIfNeeded(
 			UUID submitPlayerId,
-			Map<String, Map<String, Object>> playerSnapshot,
-			Map<String, Map<String, Object>> entitySnapshot,
-			Set<String> playerUpsertIds,
-			Set<String> entityUpsertIds,
+			boolean includePlayers,
+			boolean includeEntities,
 			long nowMs
 	) {
 		if (webSocket == null || !isConnected || submitPlayerId == null) {
 			return;
 		}
 
-		List<String> keepalivePlayers = collectKeepaliveIds(
-				playerSnapshot,
-				playerUpsertIds,
-				lastPlayerObjectLivenessMs,
-				playerKeepaliveIntervalMs,
-				nowMs
-		);
-		List<String> keepaliveEntities = collectKeepaliveIds(
-				entitySnapshot,
-				entityUpsertIds,
-				lastEntityObjectLivenessMs,
-				entityKeepaliveIntervalMs,
-				nowMs
-		);
+		List<String> keepalivePlayers = includePlayers
+				? collectKeepaliveIds(outboundPlayers, playerKeepaliveWheel, playerKeepaliveIntervalMs, nowMs)
+				: List.of();
+		List<String> keepaliveEntities = includeEntities
+				? collectKeepaliveIds(outboundEntities, entityKeepaliveWheel, entityKeepaliveIntervalMs, nowMs)
+				: List.of();
 
 		if (keepalivePlayers.isEmpty() && keepaliveEntities.isEmpty()) {
 			return;
@@ -2164,181 +2942,203 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
 		packet.players = keepalivePlayers;
 		packet.entities = keepaliveEntities;
-		sendPacket(packet);
+		writeFrame(packet);
 	}
 
+	/**
+	 * 弹出到期的保活对象并重新计时；本周期刚上报过的对象已在上报时重新计时，不会到期。
+	 * 已从出站存储中消失但未经删除补丁取消的对象在弹出时丢弃。
+	 */
 	private List<String> collectKeepaliveIds(
-			Map<String, Map<String, Object>> snapshot,
-			Set<String> justUpsertedIds,
-			Map<String, Long> livenessMap,
+			OutboundStateStore store,
+			KeepaliveTimerWheel keepaliveWheel,
 			long keepaliveIntervalMs,
 			long nowMs
 	) {
-		if (snapshot == null || snapshot.isEmpty()) {
-			return List.of();
-		}
-
-		Set<String> activeIds = new HashSet<>(snapshot.keySet());
-		livenessMap.keySet().retainAll(activeIds);
-
 		List<String> keepaliveIds = new ArrayList<>();
-		for (String objectId : activeIds) {
-			if (objectId == null || objectId.isBlank()) {
-				continue;
-			}
-			if (justUpsertedIds != null && justUpsertedIds.contains(objectId)) {
-				continue;
-			}
-			Long lastSeenMs = livenessMap.get(objectId);
-			if (lastSeenMs == null) {
-				livenessMap.put(objectId, nowMs);
-				continue;
-			}
-			if (nowMs - lastSeenMs < keepaliveIntervalMs) {
-				continue;
-			}
-			keepaliveIds.add(objectId);
-			livenessMap.put(objectId, nowMs);
-			if (keepaliveIds.size() >= KEEPALIVE_MAX_ITEMS_PER_PACKET) {
-				break;
-			}
-		}
-
-		return keepaliveIds;
+		keepaliveWheel.pollDue(nowMs, keepaliveIntervalMs, KEEPALIVE_MAX_ITEMS_PER_PACKET, store::isLive, keepaliveIds);
+		return keepaliveIds.isEmpty() ? List.of() : keepaliveIds;
 	}
 
 	private boolean shouldForcePlayersFullRefresh() {
 		long now = System.currentTimeMillis();
-		return now - lastPlayersPacketSentMs >= FORCE_FULL_REFRESH_MS;
+		return now - lastPlayersPacketSentMs >= forceFullRefreshMs();
 	}
 
 	private boolean shouldForceEntitiesFullRefresh() {
 		long now = System.currentTimeMillis();
-		return now - lastEntitiesPacketSentMs >= FORCE_FULL_REFRESH_MS;
+		return now - lastEntitiesPacketSentMs >= forceFullRefreshMs();
+	}
+
+	private long forceFullRefreshMs() {
+		return patchSeqEnabled ? SEQUENCED_FORCE_FULL_REFRESH_MS : FORCE_FULL_REFRESH_MS;
 	}
 
 	private void handleRefreshRequest(ProtocolPackets.RefreshReqInboundPacket packet) {
 		List<String> players = packet != null && packet.players != null ? packet.players : List.of();
 		List<String> entities = packet != null && packet.entities != null ? packet.entities : List.of();
 
-		pendingPlayerRefreshIds.addAll(players);
-		pendingEntityRefreshIds.addAll(entities);
+		outboundEncoder.execute(() -> {
+			pendingPlayerRefreshIds.addAll(players);
+			pendingEntityRefreshIds.addAll(entities);
+		});
 
 		if (!players.isEmpty() || !entities.isEmpty()) {
 			LOGGER.info("Received refresh_req: players={}, entities={}", players.size(), entities.size());
 		}
 	}
 
-	private void applyPendingPlayerRefresh(
-			Map<String, Map<String, Object>> currentSnapshot,
+	/**
+	 * 按位掩码计算一种对象的出站差分：变化字段物化进 upsert，服务端刷新请求的对象补发全量，
+	 * 已不存在的刷新对象追加到 delete；只有坐标/速度变化的对象在协商启用后改走列式包。
+	 * budgetBytes 大于 0 时由 {@link EntityUploadScheduler} 按优先级裁剪，被顺延的对象保留待发状态留到下个周期；强制全量刷新同样受预算限制。
+	 * @return 列式坐标批量包；未启用或数量不足时返回 null
+	 */
+	private ProtocolPackets.PositionsBatchPacket collectOutboundDelta(
+			OutboundStateStore store,
+			String scope,
+			boolean forceFullRefresh,
+			Set<String> pendingRefreshIds,
 			Map<String, Map<String, Object>> upsert,
-			List<String> delete
+			List<String> delete,
+			List<OutboundStateStore.Slot> changedSlots,
+			int budgetBytes,
+			long budgetDeadlineMs
 	) {
-		if (pendingPlayerRefreshIds.isEmpty()) {
-			return;
+		PositionQuantization quantization = positionQuantization;
+		int fieldMask = store.fieldMask();
+		double errorBound = deadReckoningEnabled && config != null ? config.getDeadReckoningErrorBound() : 0.0;
+		long nowMs = System.currentTimeMillis();
+
+		if (!pendingRefreshIds.isEmpty()) {
+			for (String objectId : pendingRefreshIds) {
+				OutboundStateStore.Slot slot = store.find(UuidBinaryCodec.toUuid(objectId));
+				if (slot == null) {
+					if (!delete.contains(objectId)) {
+						delete.add(objectId);
+					}
+				} else {
+					store.forgetSent(slot.id);
+				}
+			}
+			pendingRefreshIds.clear();
 		}
 
-		Set<String> deleteSet = new HashSet<>(delete);
-		for (String playerId : new ArrayList<>(pendingPlayerRefreshIds)) {
-			Map<String, Object> fullData = currentSnapshot.get(playerId);
-			if (fullData != null) {
-				upsert.put(playerId, fullData);
+		positionsBatchCandidates.clear();
+		for (OutboundStateStore.Slot slot : store.slots()) {
+			int changed;
+			if (errorBound > 0.0) {
+				// 航位推算：坐标/速度只在接收端外推误差超限或速度突变时整组重发，其余字段照常逐字段比较
+				slot.useObservedVelocity();
+				changed = slot.changedMask(fieldMask & ~OutboundStateStore.POSITION_FIELDS, quantization);
+				if (!slot.hasSentBaseline() || slot.kinematicsDiverged(nowMs, errorBound)) {
+					changed |= fieldMask & OutboundStateStore.POSITION_FIELDS;
+				}
 			} else {
-				deleteSet.add(playerId);
+				changed = slot.changedMask(fieldMask, quantization);
+			}
+			if (forceFullRefresh) {
+				changed = fieldMask;
+				if (budgetBytes > 0) {
+					// 受预算限制时本周期发不完：丢弃基线，被顺延的对象在之后的周期仍按全量字段上报
+					store.forgetSent(slot.id);
+				}
 			}
-			pendingPlayerRefreshIds.remove(playerId);
+			if (changed == 0) {
+				continue;
+			}
+			slot.stage(changed);
+			changedSlots.add(slot);
 		}
 
-		delete.clear();
-		delete.addAll(deleteSet);
-	}
-
-	private void applyPendingEntityRefresh(
-			Map<String, Map<String, Object>> currentSnapshot,
-			Map<String, Map<String, Object>> upsert,
-			List<String> delete
-	) {
-		if (pendingEntityRefreshIds.isEmpty()) {
-			return;
+		if (budgetBytes > 0) {
+			uploadScheduler.retainWithinBudget(store, changedSlots, budgetBytes, budgetDeadlineMs, nowMs);
 		}
 
-		Set<String> deleteSet = new HashSet<>(delete);
-		for (String entityId : new ArrayList<>(pendingEntityRefreshIds)) {
-			Map<String, Object> fullData = currentSnapshot.get(entityId);
-			if (fullData != null) {
-				upsert.put(entityId, fullData);
+		for (OutboundStateStore.Slot slot : changedSlots) {
+			int changed = slot.stagedMask();
+			if (positionsBatchEnabled && slot.hasSentBaseline() && (changed & ~OutboundStateStore.POSITION_FIELDS) == 0) {
+				positionsBatchCandidates.add(slot);
 			} else {
-				deleteSet.add(entityId);
+				upsert.put(slot.idString, slot.toMap(changed, quantization));
 			}
-			pendingEntityRefreshIds.remove(entityId);
 		}
 
-		delete.clear();
-		delete.addAll(deleteSet);
+		if (positionsBatchCandidates.isEmpty()) {
+			return null;
+		}
+		PositionBatchColumns.Writer batch = null;
+		if (positionsBatchCandidates.size() >= MIN_POSITIONS_BATCH_SIZE) {
+			batch = PositionBatchColumns.writer(
+					scope,
+					positionsBatchCandidates.size(),
+					quantization.positionScale(),
+					quantization.velocityScale()
+			);
+		}
+		for (OutboundStateStore.Slot slot : positionsBatchCandidates) {
+			boolean batched = batch != null && batch.add(
+					slot.id,
+					slot.number(OutboundStateStore.FIELD_X),
+					slot.number(OutboundStateStore.FIELD_Y),
+					slot.number(OutboundStateStore.FIELD_Z),
+					slot.number(OutboundStateStore.FIELD_VX),
+					slot.number(OutboundStateStore.FIELD_VY),
+					slot.number(OutboundStateStore.FIELD_VZ)
+			);
+			if (!batched) {
+				upsert.put(slot.idString, slot.toMap(slot.stagedMask(), quantization));
+			}
+		}
+		positionsBatchCandidates.clear();
+		return batch == null || batch.size() == 0 ? null : batch.build();
 	}
 
-	private JsonObject extractDataNode(JsonObject node) {
-		if (node.has("data") && node.get("data").isJsonObject()) {
-			return node.getAsJsonObject("data");
+	private Set<String> idsOf(List<OutboundStateStore.Slot> slots) {
+		Set<String> ids = new HashSet<>(Math.max(4, slots.size() * 2));
+		for (OutboundStateStore.Slot slot : slots) {
+			ids.add(slot.idString);
 		}
-		return node;
+		return ids;
 	}
 
-	private Map<String, SharedWaypointInfo> parseWaypointsNode(JsonObject json, String fieldName) {
-		if (!json.has(fieldName) || !json.get(fieldName).isJsonObject()) {
-			return Map.of();
+	private void markSlotsSent(List<OutboundStateStore.Slot> slots, long sentAt) {
+		for (OutboundStateStore.Slot slot : slots) {
+			slot.markSent(sentAt);
 		}
-		return parseWaypointsFromObject(json.getAsJsonObject(fieldName));
 	}
 
-	private Map<String, SharedWaypointInfo> parseWaypointsFromObject(JsonObject waypointsJson) {
+	private Map<String, Object> extractDataNode(Map<String, Object> node) {
+		Map<String, Object> data = asObjectMap(node.get("data"));
+		return data != null ? data : node;
+	}
+
+	private Map<String, SharedWaypointInfo> parseWaypointsFromObject(Map<String, Object> waypointsNode) {
 		Map<String, SharedWaypointInfo> result = new HashMap<>();
 
-		for (Map.Entry<String, JsonElement> entry : waypointsJson.entrySet()) {
+		for (Map.Entry<String, Object> entry : waypointsNode.entrySet()) {
 			try {
 				String waypointId = entry.getKey();
-				if (!entry.getValue().isJsonObject()) {
+				Map<String, Object> node = asObjectMap(entry.getValue());
+				if (node == null) {
 					continue;
 				}
 
-				JsonObject node = entry.getValue().getAsJsonObject();
-				JsonObject data = extractDataNode(node);
-				Map<String, Object> rawData = jsonObjectToValueMap(data);
-				remoteWaypointDataCache.put(waypointId, rawData);
+				Map<String, Object> data = extractDataNode(node);
+				remoteWaypointDataCache.upsert(waypointId, data, null, true);
 
-				if (!data.has("x") || !data.has("y") || !data.has("z")) {
+				if (!data.containsKey("x") || !data.containsKey("y") || !data.containsKey("z")) {
 					continue;
 				}
 
 				UUID ownerId = parseOptionalUuid(data, "ownerId");
 
-				String name = data.has("name") ? data.get("name").getAsString() : "Waypoint";
-				String symbol = data.has("symbol") ? data.get("symbol").getAsString() : "W";
-				String ownerName = data.has("ownerName") ? data.get("ownerName").getAsString() : "Unknown";
-				String dimension = data.has("dimension") ? data.get("dimension").getAsString() : null;
-				int color = data.has("color") ? data.get("color").getAsInt() : 0x55FF55;
-				long createdAt = data.has("createdAt") ? data.get("createdAt").getAsLong() : System.currentTimeMillis();
-				String targetType = data.has("targetType") && !data.get("targetType").isJsonNull()
-						? data.get("targetType").getAsString()
-						: null;
-				String targetEntityId = data.has("targetEntityId") && !data.get("targetEntityId").isJsonNull()
-						? data.get("targetEntityId").getAsString()
-						: null;
-				String targetEntityType = data.has("targetEntityType") && !data.get("targetEntityType").isJsonNull()
-						? data.get("targetEntityType").getAsString()
-						: null;
-				String targetEntityName = data.has("targetEntityName") && !data.get("targetEntityName").isJsonNull()
-						? data.get("targetEntityName").getAsString()
-						: null;
-				String waypointKind = data.has("waypointKind") && !data.get("waypointKind").isJsonNull()
-						? data.get("waypointKind").getAsString()
-						: null;
-				String tacticalType = data.has("tacticalType") && !data.get("tacticalType").isJsonNull()
-						? data.get("tacticalType").getAsString()
-						: null;
-				String sourceType = data.has("sourceType") && !data.get("sourceType").isJsonNull()
-						? data.get("sourceType").getAsString()
-						: null;
+				String name = textOrDefault(data.get("name"), "Waypoint");
+				String symbol = textOrDefault(data.get("symbol"), "W");
+				String ownerName = textOrDefault(data.get("ownerName"), "Unknown");
+				String dimension = asText(data.get("dimension"));
+				int color = data.get("color") != null ? requireInt(data.get("color")) : 0x55FF55;
+				long createdAt = longOrDefault(data.get("createdAt"), System.currentTimeMillis());
 
 				SharedWaypointInfo waypoint = new SharedWaypointInfo(
 						waypointId,
@@ -2346,19 +3146,19 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 						ownerName,
 						name,
 						symbol,
-						data.get("x").getAsInt(),
-						data.get("y").getAsInt(),
-						data.get("z").getAsInt(),
+						requireInt(data.get("x")),
+						requireInt(data.get("y")),
+						requireInt(data.get("z")),
 						dimension,
 						color,
 						createdAt,
-						targetType,
-						targetEntityId,
-						targetEntityType,
-						targetEntityName,
-						waypointKind,
-						tacticalType,
-						sourceType);
+						asText(data.get("targetType")),
+						asText(data.get("targetEntityId")),
+						asText(data.get("targetEntityType")),
+						asText(data.get("targetEntityName")),
+						asText(data.get("waypointKind")),
+						asText(data.get("tacticalType")),
+						asText(data.get("sourceType")));
 				result.put(waypointId, waypoint);
 			} catch (Exception e) {
 				LOGGER.error("Failed to parse shared waypoint {}: {}", entry.getKey(), e.getMessage());
@@ -2368,19 +3168,21 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		return result;
 	}
 
-	private UUID parseOptionalUuid(JsonObject json, String fieldName) {
-		if (json == null || fieldName == null || fieldName.isBlank()) {
+	private static String textOrDefault(Object value, String fallback) {
+		String text = asText(value);
+		return text != null ? text : fallback;
+	}
+
+	private UUID parseOptionalUuid(Map<String, Object> node, String fieldName) {
+		if (node == null || fieldName == null || fieldName.isBlank()) {
 			return null;
 		}
-		if (!json.has(fieldName) || json.get(fieldName).isJsonNull()) {
+		String raw = asText(node.get(fieldName));
+		if (raw == null || raw.isBlank()) {
 			return null;
 		}
 		try {
-			String raw = json.get(fieldName).getAsString();
-			if (raw == null || raw.isBlank()) {
-				return null;
-			}
-			return UUID.fromString(raw.trim());
+			return UuidBinaryCodec.toUuid(raw);
 		} catch (Exception ignored) {
 			return null;
 		}
@@ -2417,41 +3219,41 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	}
 
 	private String computePlayersDigest() {
-		Map<String, Map<String, Object>> state = new HashMap<>();
-		for (Map.Entry<UUID, Map<String, Object>> entry : remotePlayerDataCache.entrySet()) {
-			state.put(entry.getKey().toString(), entry.getValue());
-		}
-		return stateDigest(state);
+		return stateDigest(materializeState(remotePlayerDataCache));
 	}
 
 	private String computeEntitiesDigest() {
-		return stateDigest(remoteEntityDataCache);
+		return stateDigest(materializeState(remoteEntityDataCache));
 	}
 
 	private String computeWaypointDigest() {
-		return stateDigest(remoteWaypointDataCache);
+		return stateDigest(materializeState(remoteWaypointDataCache));
 	}
 
-	private void replaceEntityCache(JsonObject entitiesJson) {
+	private static <K> Map<String, Map<String, Object>> materializeState(RemoteStateStore<K> store) {
+		Map<String, Map<String, Object>> state = new HashMap<>();
+		for (K id : store.ids()) {
+			state.put(String.valueOf(id), store.toMap(store.slot(id)));
+		}
+		return state;
+	}
+
+	private void replaceEntityCache(Map<String, Object> entitiesNode) {
 		remoteEntityDataCache.clear();
-		mergeEntityPatchUpsert(entitiesJson);
+		remoteEntityKinematicsAtMs.clear();
+		mergeEntityPatchUpsert(entitiesNode);
 	}
 
-	private void mergeEntityPatchUpsert(JsonObject upsertJson) {
-		for (Map.Entry<String, JsonElement> entry : upsertJson.entrySet()) {
+	private void mergeEntityPatchUpsert(Map<String, Object> upsertNode) {
+		for (Map.Entry<String, Object> entry : upsertNode.entrySet()) {
 			try {
-				if (!entry.getValue().isJsonObject()) {
+				Map<String, Object> node = asObjectMap(entry.getValue());
+				if (node == null) {
 					continue;
 				}
-				String entityId = entry.getKey();
-				JsonObject dataNode = extractDataNode(entry.getValue().getAsJsonObject());
-				Map<String, Object> merged = new HashMap<>();
-				Map<String, Object> existing = remoteEntityDataCache.get(entityId);
-				if (existing != null) {
-					merged.putAll(existing);
-				}
-				merged.putAll(jsonObjectToValueMap(dataNode));
-				remoteEntityDataCache.put(entityId, merged);
+				Map<String, Object> update = extractDataNode(node);
+				remoteEntityDataCache.upsert(entry.getKey(), update, positionQuantization, false);
+				touchKinematics(remoteEntityKinematicsAtMs, entry.getKey(), update);
 			} catch (Exception e) {
 				LOGGER.error("PlayerESP Network - Error applying entity patch: {}", e.getMessage());
 			}
@@ -2550,26 +3352,62 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		return text;
 	}
 
-	private String getOptionalString(JsonObject json, String key) {
-		if (!json.has(key) || json.get(key).isJsonNull()) {
-			return "";
+	private String getOptionalString(Map<String, Object> node, String key) {
+		String text = asText(node.get(key));
+		return text != null ? text : "";
+	}
+
+	/**
+	 * 应用列式坐标批量包：只覆盖已知对象的坐标/速度，未知对象等待 patch 或全量快照补齐其余字段。
+	 */
+	private void applyPositionsBatch(ProtocolPackets.PositionsBatchInboundPacket packet) {
+		if (packet == null) {
+			return;
+		}
+		boolean players = PositionBatchColumns.SCOPE_PLAYERS.equals(packet.scope);
+		if (!players && !PositionBatchColumns.SCOPE_ENTITIES.equals(packet.scope)) {
+			return;
 		}
+		RegistryKey<World> fallbackDimension = getCurrentDimension();
+
 		try {
-			return json.get(key).getAsString();
+			PositionBatchColumns.decode(packet, (ids, offset, x, y, z, vx, vy, vz) -> {
+				if (!players) {
+					String entityId = UuidBinaryCodec.toCanonicalString(ids, offset);
+					int slot = remoteEntityDataCache.slot(entityId);
+					if (slot >= 0) {
+						remoteEntityDataCache.setKinematics(slot, x, y, z, vx, vy, vz);
+						remoteEntityKinematicsAtMs.put(entityId, System.currentTimeMillis());
+					}
+					return;
+				}
+
+				UUID playerId = UuidBinaryCodec.toUuid(ids, offset);
+				int slot = remotePlayerDataCache.slot(playerId);
+				if (slot < 0) {
+					return;
+				}
+				remotePlayerDataCache.setKinematics(slot, x, y, z, vx, vy, vz);
+				RemotePlayerInfo info = buildRemotePlayerInfo(slot, fallbackDimension, playerId.toString());
+				if (info == null) {
+					return;
+				}
+				remotePlayerKinematicsAtMs.put(playerId, System.currentTimeMillis());
+				remotePlayers.put(playerId, info);
+				playerPositions.put(playerId, info.position());
+			});
 		} catch (Exception e) {
-			return "";
+			LOGGER.error("PlayerESP Network - Error applying positions batch: {}", e.getMessage());
 		}
 	}
 
-	private Map<String, Object> copyValueMap(Map<String, Object> source) {
-		Map<String, Object> copy = new HashMap<>();
-		if (source == null) {
-			return copy;
-		}
-		for (Map.Entry<String, Object> entry : source.entrySet()) {
-			copy.put(entry.getKey(), entry.getValue());
+	private void closeFrameCompressor() {
+		FrameCompressor compressor = frameCompressor;
+		if (compressor != null) {
+			frameCompressor = null;
+			// 编码线程可能仍在用它压缩已投递的帧，排在这些帧之后释放
+			outboundEncoder.execute(compressor::close);
 		}
-		return copy;
 	}
 
 	private void resetNegotiationState() {
@@ -2577,17 +3415,64 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 		serverProgramVersion = TeamviewerModMetadata.PROGRAM_VERSION_UNKNOWN;
 		digestIntervalSec = 10;
 		serverBroadcastHz = 20.0;
-		negotiatedReportIntervalTicks = config != null ? config.getUpdateInterval() : 10;
+		reportRateController.reset(config != null ? config.getUpdateInterval() : 10);
+		rttProbeEnabled = false;
+		tabPlayersDeltaEnabled = false;
+		waypointsPatchEnabled = false;
+		incrementalDigestEnabled = false;
+		digestBucketsEnabled = false;
+		patchSeqEnabled = false;
+		inboundPatchSequencer.clear();
+		outboundEncoder.execute(outboundPatchBuffer::clear);
+		deadReckoningEnabled = false;
+		handshakeSentMs = 0L;
+		lastRttProbeSentMs = 0L;
 		playerKeepaliveIntervalMs = DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS;
 		entityKeepaliveIntervalMs = DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS;
+		reportRateController.applyKeepaliveInterval(DEFAULT_OBJECT_KEEPALIVE_INTERVAL_MS);
+		advertisedPositionQuantization = PositionQuantization.DISABLED;
+		positionQuantization = PositionQuantization.DISABLED;
+		positionsBatchEnabled = false;
+		outboundEncoder.execute(() -> {
+			playerBackpressure.reset();
+			entityBackpressure.reset();
+		});
+		messageCodec.setFieldKeyDictionary(null);
+		messageCodec.setBinaryUuids(false);
+		compressionAdvertised = false;
+		closeFrameCompressor();
 		lastResyncRequestMs = 0L;
 		lastPlayersPacketSentMs = 0L;
 		lastEntitiesPacketSentMs = 0L;
 		lastTabPlayersPacketSentMs = 0L;
 	}
 
+	/**
+	 * @return 当前上报间隔：服务端建议值为下限，链路拥塞时由控制器乘性拉长
+	 */
 	public int getNegotiatedReportIntervalTicks() {
-		return Math.max(1, negotiatedReportIntervalTicks);
+		return reportRateController.intervalTicks();
+	}
+
+	/**
+	 * @return 服务端建议（或本地偏好）的上报间隔，即控制器提频的下限
+	 */
+	public int getReportIntervalFloorTicks() {
+		return reportRateController.floorTicks();
+	}
+
+	/**
+	 * @return 当前上报间隔决策原因，对应语言键 screen.multipleplayeresp.network_config.report_rate.reason.&lt;key&gt;
+	 */
+	public String getReportRateReasonKey() {
+		return reportRateController.reason().key();
+	}
+
+	/**
+	 * @return 平滑 RTT（毫秒），尚无样本时为 -1
+	 */
+	public long getSmoothedRttMs() {
+		return reportRateController.smoothedRttMs();
 	}
 
 	public double getServerBroadcastHz() {
@@ -2595,15 +3480,22 @@ public class PlayerESPNetworkManager extends WebSocketListener {
 	}
 
 	private void clearLocalOutboundSnapshots() {
-		lastSentPlayersSnapshot.clear();
-		lastSentEntitiesSnapshot.clear();
-		lastPlayerObjectLivenessMs.clear();
-		lastEntityObjectLivenessMs.clear();
-		lastTabPlayersSignature = "";
-		pendingPlayerRefreshIds.clear();
-		pendingEntityRefreshIds.clear();
+		outboundEncoder.execute(() -> {
+			outboundPlayers.clear();
+			outboundEntities.clear();
+			playerKeepaliveWheel.clear();
+			entityKeepaliveWheel.clear();
+			pendingPlayerRefreshIds.clear();
+			pendingEntityRefreshIds.clear();
+		});
+		playersWriter.requestResample();
+		entitiesWriter.requestResample();
+		tabListTracker.requestFullRefresh();
+		waypointUploadJournal.clear();
 		remotePlayerDataCache.clear();
+		remotePlayerKinematicsAtMs.clear();
 		remoteEntityDataCache.clear();
+		remoteEntityKinematicsAtMs.clear();
 		remoteWaypointDataCache.clear();
 		remoteWaypointCache.clear();
 		remotePlayerMarks.clear();
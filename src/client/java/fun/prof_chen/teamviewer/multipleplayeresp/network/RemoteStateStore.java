@@ -0,0 +1,444 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import fun.prof_chen.teamviewer.multipleplayeresp.network.protocol.PositionQuantization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 远程对象状态的列式存储：每个对象 ID 分配一个稠密槽位，坐标、速度、血量以 double 数组按槽位存放，
+ * 维度以字符串表下标存放，其余少见字段放在槽位自己的小型键值数组里。
+ * <p>
+ * 补丁只覆盖变化的列，不再为每次合并新建 HashMap；删除的槽位进入空闲栈供新对象复用。
+ * 数值列按 double 保存，摘要按规范化数字格式输出，整数与等值浮点结果一致。
+ * 每次写入同时按 {@link StateDigest64} 增减字段哈希与对象哈希，{@link #digest()} 为常数时间；
+ * 对象按 ID 哈希落入 {@link StateDigest64#BUCKET_COUNT} 个分桶，各桶摘要同步维护，供分桶校验定位不一致的范围。只在客户端主线程使用。
+ */
+final class RemoteStateStore<K> {
+	/**
+	 * 以 double 存放的热点字段。
+	 */
+	enum Column {
+		X("x"),
+		Y("y"),
+		Z("z"),
+		VX("vx"),
+		VY("vy"),
+		VZ("vz"),
+		HEALTH("health");
+
+		private static final Map<String, Column> BY_KEY = new HashMap<>();
+
+		static {
+			for (Column column : values()) {
+				BY_KEY.put(column.key, column);
+			}
+		}
+
+		private final String key;
+		private final long keyHash;
+
+		Column(String key) {
+			this.key = key;
+			this.keyHash = StateDigest64.text(key);
+		}
+
+		String key() {
+			return key;
+		}
+	}
+
+	private static final String DIMENSION_KEY = "dimension";
+	private static final long DIMENSION_KEY_HASH = StateDigest64.text(DIMENSION_KEY);
+	private static final int COLUMN_COUNT = Column.values().length;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Map<K, Integer> slots = new HashMap<>();
+	private final Map<String, Integer> dimensionIds = new HashMap<>();
+	private final List<String> dimensionNames = new ArrayList<>();
+
+	private Object[] ids = new Object[INITIAL_CAPACITY];
+	// 第 c 列第 s 个槽位位于 columns[s * COLUMN_COUNT + c]
+	private double[] columns = new double[INITIAL_CAPACITY * COLUMN_COUNT];
+	// 每个槽位已赋值的列，按 Column 序号置位
+	private int[] presentColumns = new int[INITIAL_CAPACITY];
+	private int[] dimensions = new int[INITIAL_CAPACITY];
+	// 少见字段：[key0, value0, key1, value1, ...]，无字段时为 null
+	private Object[][] extras = new Object[INITIAL_CAPACITY][];
+	private long[] idHashes = new long[INITIAL_CAPACITY];
+	// 每个槽位全部字段哈希之和
+	private long[] fieldSums = new long[INITIAL_CAPACITY];
+	private long digest = 0L;
+	private final long[] bucketDigests = new long[StateDigest64.BUCKET_COUNT];
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int freeCount = 0;
+	private int highWater = 0;
+
+	int size() {
+		return slots.size();
+	}
+
+	boolean contains(K id) {
+		return slots.containsKey(id);
+	}
+
+	/**
+	 * @return 对象所在槽位，不存在时为 -1
+	 */
+	int slot(K id) {
+		Integer slot = slots.get(id);
+		return slot == null ? -1 : slot;
+	}
+
+	@SuppressWarnings("unchecked")
+	K id(int slot) {
+		return (K) ids[slot];
+	}
+
+	Set<K> ids() {
+		return slots.keySet();
+	}
+
+	/**
+	 * 合并一次上报的字段；replace 为 true 时先清空该对象已有的全部字段。
+	 * 坐标与速度列按协商的定点编码还原为浮点。
+	 * @return 对象所在槽位
+	 */
+	int upsert(K id, Map<String, Object> fields, PositionQuantization quantization, boolean replace) {
+		int slot = slot(id);
+		if (slot < 0) {
+			slot = allocate(id);
+		}
+		long before = objectHash(slot);
+		if (replace) {
+			resetSlot(slot);
+		}
+		for (Map.Entry<String, Object> field : fields.entrySet()) {
+			put(slot, field.getKey(), field.getValue(), quantization);
+		}
+		addDigest(slot, objectHash(slot) - before);
+		return slot;
+	}
+
+	boolean remove(K id) {
+		Integer slot = slots.remove(id);
+		if (slot == null) {
+			return false;
+		}
+		addDigest(slot, -objectHash(slot));
+		resetSlot(slot);
+		ids[slot] = null;
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+		}
+		freeSlots[freeCount++] = slot;
+		return true;
+	}
+
+	void clear() {
+		slots.clear();
+		Arrays.fill(ids, 0, highWater, null);
+		Arrays.fill(extras, 0, highWater, null);
+		Arrays.fill(presentColumns, 0, highWater, 0);
+		freeCount = 0;
+		highWater = 0;
+		digest = 0L;
+		Arrays.fill(bucketDigests, 0L);
+	}
+
+	/**
+	 * @return 全部对象的 {@link StateDigest64} 摘要
+	 */
+	long digest() {
+		return digest;
+	}
+
+	long bucketDigest(int bucket) {
+		return bucketDigests[bucket];
+	}
+
+	/**
+	 * @param bucketMask 第 b 位置位表示选中第 b 个分桶
+	 * @return 落在选中分桶内的对象 ID
+	 */
+	List<K> idsInBuckets(long bucketMask) {
+		List<K> result = new ArrayList<>();
+		if (bucketMask == 0L) {
+			return result;
+		}
+		for (Map.Entry<K, Integer> entry : slots.entrySet()) {
+			if ((bucketMask & (1L << StateDigest64.bucket(idHashes[entry.getValue()]))) != 0L) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	boolean has(int slot, Column column) {
+		return (presentColumns[slot] & (1 << column.ordinal())) != 0;
+	}
+
+	double get(int slot, Column column) {
+		return columns[slot * COLUMN_COUNT + column.ordinal()];
+	}
+
+	boolean hasPosition(int slot) {
+		return has(slot, Column.X) && has(slot, Column.Y) && has(slot, Column.Z);
+	}
+
+	boolean hasVelocity(int slot) {
+		return has(slot, Column.VX) && has(slot, Column.VY) && has(slot, Column.VZ);
+	}
+
+	/**
+	 * 列式坐标批量包：直接覆盖坐标与速度列。
+	 */
+	void setKinematics(int slot, double x, double y, double z, double vx, double vy, double vz) {
+		long before = objectHash(slot);
+		setTracked(slot, Column.X, x);
+		setTracked(slot, Column.Y, y);
+		setTracked(slot, Column.Z, z);
+		setTracked(slot, Column.VX, vx);
+		setTracked(slot, Column.VY, vy);
+		setTracked(slot, Column.VZ, vz);
+		addDigest(slot, objectHash(slot) - before);
+	}
+
+	/**
+	 * @return 维度 ID，未上报时为 null
+	 */
+	String dimension(int slot) {
+		int dimensionId = dimensions[slot];
+		if (dimensionId >= 0) {
+			return dimensionNames.get(dimensionId);
+		}
+		Object value = extra(slot, DIMENSION_KEY);
+		return value == null ? null : String.valueOf(value);
+	}
+
+	/**
+	 * 按字段名读取任意字段；热点列返回装箱的 double。
+	 */
+	Object value(int slot, String key) {
+		Column column = Column.BY_KEY.get(key);
+		if (column != null && has(slot, column)) {
+			return get(slot, column);
+		}
+		if (DIMENSION_KEY.equals(key) && dimensions[slot] >= 0) {
+			return dimensionNames.get(dimensions[slot]);
+		}
+		return extra(slot, key);
+	}
+
+	/**
+	 * 还原为字段 Map，供状态摘要等非热点路径使用。
+	 */
+	Map<String, Object> toMap(int slot) {
+		Map<String, Object> result = new HashMap<>();
+		for (Column column : Column.values()) {
+			if (has(slot, column)) {
+				result.put(column.key, get(slot, column));
+			}
+		}
+		if (dimensions[slot] >= 0) {
+			result.put(DIMENSION_KEY, dimensionNames.get(dimensions[slot]));
+		}
+		Object[] slotExtras = extras[slot];
+		if (slotExtras != null) {
+			for (int i = 0; i < slotExtras.length; i += 2) {
+				if (slotExtras[i] != null) {
+					result.put((String) slotExtras[i], slotExtras[i + 1]);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void put(int slot, String key, Object value, PositionQuantization quantization) {
+		long before = fieldHash(slot, key);
+		write(slot, key, value, quantization);
+		fieldSums[slot] += fieldHash(slot, key) - before;
+	}
+
+	private void write(int slot, String key, Object value, PositionQuantization quantization) {
+		Column column = Column.BY_KEY.get(key);
+		if (column != null) {
+			if (value instanceof Number number) {
+				set(slot, column, dequantize(column, number.doubleValue(), quantization));
+				removeExtra(slot, key);
+				return;
+			}
+			presentColumns[slot] &= ~(1 << column.ordinal());
+		} else if (DIMENSION_KEY.equals(key)) {
+			if (value instanceof String text) {
+				dimensions[slot] = internDimension(text);
+				removeExtra(slot, key);
+				return;
+			}
+			dimensions[slot] = -1;
+		}
+		// 非数值的热点字段（null、字符串等）原样放入少见字段，保持与上报内容一致
+		putExtra(slot, key, value);
+	}
+
+	private static double dequantize(Column column, double value, PositionQuantization quantization) {
+		if (quantization == null) {
+			return value;
+		}
+		return switch (column) {
+			case X, Y, Z -> quantization.dequantizePosition(value);
+			case VX, VY, VZ -> quantization.dequantizeVelocity(value);
+			default -> value;
+		};
+	}
+
+	private void setTracked(int slot, Column column, double value) {
+		long before = fieldHash(slot, column.key);
+		set(slot, column, value);
+		removeExtra(slot, column.key);
+		fieldSums[slot] += columnHash(slot, column) - before;
+	}
+
+	private void addDigest(int slot, long delta) {
+		digest += delta;
+		bucketDigests[StateDigest64.bucket(idHashes[slot])] += delta;
+	}
+
+	private long objectHash(int slot) {
+		return StateDigest64.object(idHashes[slot], fieldSums[slot]);
+	}
+
+	private long columnHash(int slot, Column column) {
+		return StateDigest64.field(column.keyHash, StateDigest64.number(get(slot, column)));
+	}
+
+	/**
+	 * @return 该字段当前的哈希，字段不存在时为 0
+	 */
+	private long fieldHash(int slot, String key) {
+		Column column = Column.BY_KEY.get(key);
+		if (column != null && has(slot, column)) {
+			return columnHash(slot, column);
+		}
+		if (DIMENSION_KEY.equals(key) && dimensions[slot] >= 0) {
+			return StateDigest64.field(DIMENSION_KEY_HASH, StateDigest64.text(dimensionNames.get(dimensions[slot])));
+		}
+		Object[] slotExtras = extras[slot];
+		if (slotExtras != null) {
+			for (int i = 0; i < slotExtras.length; i += 2) {
+				if (key.equals(slotExtras[i])) {
+					return StateDigest64.field(StateDigest64.text(key), StateDigest64.value(slotExtras[i + 1]));
+				}
+			}
+		}
+		return 0L;
+	}
+
+	private void set(int slot, Column column, double value) {
+		columns[slot * COLUMN_COUNT + column.ordinal()] = value;
+		presentColumns[slot] |= 1 << column.ordinal();
+	}
+
+	private int internDimension(String name) {
+		Integer existing = dimensionIds.get(name);
+		if (existing != null) {
+			return existing;
+		}
+		int dimensionId = dimensionNames.size();
+		dimensionNames.add(name);
+		dimensionIds.put(name, dimensionId);
+		return dimensionId;
+	}
+
+	private Object extra(int slot, String key) {
+		Object[] slotExtras = extras[slot];
+		if (slotExtras == null) {
+			return null;
+		}
+		for (int i = 0; i < slotExtras.length; i += 2) {
+			if (key.equals(slotExtras[i])) {
+				return slotExtras[i + 1];
+			}
+		}
+		return null;
+	}
+
+	private void putExtra(int slot, String key, Object value) {
+		Object[] slotExtras = extras[slot];
+		if (slotExtras == null) {
+			extras[slot] = new Object[] {key, value};
+			return;
+		}
+		int freeIndex = -1;
+		for (int i = 0; i < slotExtras.length; i += 2) {
+			if (key.equals(slotExtras[i])) {
+				slotExtras[i + 1] = value;
+				return;
+			}
+			if (slotExtras[i] == null && freeIndex < 0) {
+				freeIndex = i;
+			}
+		}
+		if (freeIndex < 0) {
+			freeIndex = slotExtras.length;
+			slotExtras = Arrays.copyOf(slotExtras, slotExtras.length + 2);
+			extras[slot] = slotExtras;
+		}
+		slotExtras[freeIndex] = key;
+		slotExtras[freeIndex + 1] = value;
+	}
+
+	private void removeExtra(int slot, String key) {
+		Object[] slotExtras = extras[slot];
+		if (slotExtras == null) {
+			return;
+		}
+		for (int i = 0; i < slotExtras.length; i += 2) {
+			if (key.equals(slotExtras[i])) {
+				slotExtras[i] = null;
+				slotExtras[i + 1] = null;
+				return;
+			}
+		}
+	}
+
+	private int allocate(K id) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (highWater == ids.length) {
+				grow();
+			}
+			slot = highWater++;
+		}
+		ids[slot] = id;
+		idHashes[slot] = StateDigest64.ofId(id);
+		resetSlot(slot);
+		slots.put(id, slot);
+		addDigest(slot, objectHash(slot));
+		return slot;
+	}
+
+	private void resetSlot(int slot) {
+		presentColumns[slot] = 0;
+		dimensions[slot] = -1;
+		extras[slot] = null;
+		fieldSums[slot] = 0L;
+	}
+
+	private void grow() {
+		int capacity = ids.length * 2;
+		ids = Arrays.copyOf(ids, capacity);
+		columns = Arrays.copyOf(columns, capacity * COLUMN_COUNT);
+		presentColumns = Arrays.copyOf(presentColumns, capacity);
+		dimensions = Arrays.copyOf(dimensions, capacity);
+		extras = Arrays.copyOf(extras, capacity);
+		idHashes = Arrays.copyOf(idHashes, capacity);
+		fieldSums = Arrays.copyOf(fieldSums, capacity);
+	}
+}
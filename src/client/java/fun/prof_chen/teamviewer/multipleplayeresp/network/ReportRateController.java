@@ -0,0 +1,214 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+/**
+ * 客户端上报频率控制（AIMD）：综合实测往返时延、发送队列深度与服务端建议，决定坐标上报间隔。
+ * <p>
+ * 链路健康时每个评估周期把间隔向服务端建议值（握手确认或 report_rate_hint）收回超出部分的
+ * 1/{@link #RECOVERY_DIVISOR}（至少一个 tick），从任何退避深度恢复都只需对数级的周期数；
+ * 发送队列越过高水位或平滑 RTT 明显高于基线时间隔倍增（乘性退避）。退避上限为对象保活间隔的一半，
+ * 保活包随上报周期发出，间隔再长服务端会在保活到达前判定对象超时。结果始终落在握手声明的
+ * {@link #MIN_INTERVAL_TICKS}..{@link #MAX_INTERVAL_TICKS} 之内。状态在主线程更新，界面线程只读 volatile 字段。
+ */
+final class ReportRateController {
+	static final int MIN_INTERVAL_TICKS = 1;
+	static final int MAX_INTERVAL_TICKS = 1000;
+
+	private static final long EVALUATE_INTERVAL_MS = 1_000L;
+	// 两次退避之间至少间隔，给发送队列排空留出时间
+	private static final long BACKOFF_SPACING_MS = 2_000L;
+	// 退避后保持的时间，之后才重新加性提频
+	private static final long RECOVER_AFTER_BACKOFF_MS = 5_000L;
+	private static final int ADDITIVE_STEP_TICKS = 1;
+	// 每个恢复周期收回超出建议值部分的比例的倒数
+	private static final int RECOVERY_DIVISOR = 4;
+	private static final int BACKOFF_FACTOR = 2;
+	private static final long TICK_MS = 50L;
+
+	// RTT 平滑系数与拥塞判定：平滑 RTT 超过基线两倍且至少高出 150ms 视为排队延迟
+	private static final double RTT_SMOOTHING = 0.125;
+	private static final long RTT_CONGESTION_MARGIN_MS = 150L;
+	// 基线取最近若干样本的最小值，路由变化后能跟上新的基线
+	private static final int MIN_RTT_WINDOW = 32;
+	// 超过该时间没有新样本时不再以 RTT 判定
+	private static final long RTT_STALE_MS = 10_000L;
+
+	/**
+	 * 当前决策的原因，{@link #key()} 对应语言文件中的 screen.multipleplayeresp.network_config.report_rate.reason.*。
+	 */
+	enum Reason {
+		PREFERRED("preferred"),
+		SERVER_HINT("server_hint"),
+		STEADY("steady"),
+		RECOVERING("recovering"),
+		QUEUE_BACKOFF("queue_backoff"),
+		RTT_BACKOFF("rtt_backoff");
+
+		private final String key;
+
+		Reason(String key) {
+			this.key = key;
+		}
+
+		String key() {
+			return key;
+		}
+	}
+
+	private volatile int intervalTicks;
+	private volatile int floorTicks;
+	private volatile int ceilingTicks = MAX_INTERVAL_TICKS;
+	private volatile Reason reason = Reason.PREFERRED;
+	private volatile long smoothedRttMs = -1L;
+	private volatile long minRttMs = -1L;
+
+	private final long[] rttWindow = new long[MIN_RTT_WINDOW];
+	private int rttWindowCount = 0;
+	private int rttWindowNext = 0;
+	private long lastRttSampleMs = 0L;
+	private long lastEvaluateMs = 0L;
+	private long lastBackoffMs = 0L;
+
+	ReportRateController(int preferredTicks) {
+		reset(preferredTicks);
+	}
+
+	/**
+	 * 连接重建时回到本地偏好值并清空 RTT 统计。
+	 */
+	synchronized void reset(int preferredTicks) {
+		floorTicks = clamp(preferredTicks);
+		intervalTicks = floorTicks;
+		reason = Reason.PREFERRED;
+		smoothedRttMs = -1L;
+		minRttMs = -1L;
+		rttWindowCount = 0;
+		rttWindowNext = 0;
+		lastRttSampleMs = 0L;
+		lastEvaluateMs = 0L;
+		lastBackoffMs = 0L;
+	}
+
+	/**
+	 * 对象保活间隔（握手确认的超时换算而来）：退避间隔不超过它的一半，保证保活包在服务端超时前发出。
+	 * 服务端建议间隔本身更长时以建议值为准。
+	 */
+	synchronized void applyKeepaliveInterval(long keepaliveIntervalMs) {
+		ceilingTicks = clamp((int) Math.min(MAX_INTERVAL_TICKS, keepaliveIntervalMs / 2L / TICK_MS));
+		if (intervalTicks > ceilingTicks()) {
+			intervalTicks = ceilingTicks();
+		}
+	}
+
+	/**
+	 * 服务端建议间隔（握手确认或运行时 hint）：作为提频的下限；当前间隔比它更快时立即对齐。
+	 */
+	synchronized void applyServerHint(int hintTicks) {
+		floorTicks = clamp(hintTicks);
+		if (intervalTicks < floorTicks || lastBackoffMs == 0L) {
+			intervalTicks = floorTicks;
+		}
+		reason = Reason.SERVER_HINT;
+	}
+
+	synchronized void onRttSample(long rttMs, long nowMs) {
+		if (rttMs < 0L) {
+			return;
+		}
+		long previous = smoothedRttMs;
+		smoothedRttMs = previous < 0L ? rttMs : Math.round(previous + (rttMs - previous) * RTT_SMOOTHING);
+		rttWindow[rttWindowNext] = rttMs;
+		rttWindowNext = (rttWindowNext + 1) % rttWindow.length;
+		rttWindowCount = Math.min(rttWindowCount + 1, rttWindow.length);
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < rttWindowCount; i++) {
+			min = Math.min(min, rttWindow[i]);
+		}
+		minRttMs = min;
+		lastRttSampleMs = nowMs;
+	}
+
+	/**
+	 * 按评估周期调整上报间隔。
+	 * @param queueBytes OkHttp 发送队列中尚未写出的字节数
+	 */
+	synchronized void evaluate(long nowMs, long queueBytes) {
+		if (nowMs - lastEvaluateMs < EVALUATE_INTERVAL_MS) {
+			return;
+		}
+		lastEvaluateMs = nowMs;
+
+		Reason congestion = null;
+		if (queueBytes >= SendBackpressure.HIGH_WATERMARK_BYTES) {
+			congestion = Reason.QUEUE_BACKOFF;
+		} else if (isRttCongested(nowMs)) {
+			congestion = Reason.RTT_BACKOFF;
+		}
+
+		if (congestion != null) {
+			int ceiling = ceilingTicks();
+			if (nowMs - lastBackoffMs >= BACKOFF_SPACING_MS && intervalTicks < ceiling) {
+				intervalTicks = Math.min(ceiling, intervalTicks * BACKOFF_FACTOR);
+				lastBackoffMs = nowMs;
+			}
+			reason = congestion;
+			return;
+		}
+
+		if (intervalTicks <= floorTicks) {
+			intervalTicks = floorTicks;
+			if (reason != Reason.SERVER_HINT && reason != Reason.PREFERRED) {
+				reason = Reason.STEADY;
+			}
+			return;
+		}
+		if (nowMs - lastBackoffMs < RECOVER_AFTER_BACKOFF_MS) {
+			return;
+		}
+		int step = Math.max(ADDITIVE_STEP_TICKS, (intervalTicks - floorTicks) / RECOVERY_DIVISOR);
+		intervalTicks = Math.max(floorTicks, intervalTicks - step);
+		reason = intervalTicks == floorTicks ? Reason.STEADY : Reason.RECOVERING;
+	}
+
+	private boolean isRttCongested(long nowMs) {
+		long srtt = smoothedRttMs;
+		long base = minRttMs;
+		if (srtt < 0L || base < 0L || nowMs - lastRttSampleMs > RTT_STALE_MS) {
+			return false;
+		}
+		return srtt > Math.max(base * 2L, base + RTT_CONGESTION_MARGIN_MS);
+	}
+
+	int intervalTicks() {
+		return intervalTicks;
+	}
+
+	int floorTicks() {
+		return floorTicks;
+	}
+
+	/**
+	 * @return 退避上限：保活约束与服务端建议值中较大者
+	 */
+	int ceilingTicks() {
+		return Math.max(floorTicks, ceilingTicks);
+	}
+
+	Reason reason() {
+		return reason;
+	}
+
+	/**
+	 * @return 平滑 RTT（毫秒），尚无样本时为 -1
+	 */
+	long smoothedRttMs() {
+		return smoothedRttMs;
+	}
+
+	long minRttMs() {
+		return minRttMs;
+	}
+
+	private static int clamp(int ticks) {
+		return Math.max(MIN_INTERVAL_TICKS, Math.min(MAX_INTERVAL_TICKS, ticks));
+	}
+}
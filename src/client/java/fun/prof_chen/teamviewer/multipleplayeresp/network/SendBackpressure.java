@@ -0,0 +1,73 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+/**
+ * 发送队列背压：按 OkHttp {@code WebSocket.queueSize()}（已提交但尚未写出的字节数）决定坐标补丁是否推迟。
+ * <p>
+ * 队列超过高水位时本周期只把快照写入出站状态、不做差分，下个周期与已发送基线比较时自然只带最新值，
+ * 被取代的中间坐标不会进入发送队列（最新值优先合并）；路标、删除、握手等可靠包不经过这里，从不丢弃。
+ * 上报间隔本身由 {@link ReportRateController} 按队列深度与 RTT 调整。玩家与实体补丁各用一个实例，合并窗口互不影响。
+ * 只在出站编码线程写入，统计值允许跨线程读取。
+ */
+final class SendBackpressure {
+	static final long HIGH_WATERMARK_BYTES = 64L * 1024L;
+
+	// 连续推迟的最长时间：超过后强制发出一次合并后的补丁，保证对象保活与最终一致
+	private static final long MAX_COALESCE_MS = 1_000L;
+
+	private long deferringSinceMs = 0L;
+
+	private volatile long lastQueueBytes = 0L;
+	private volatile long maxQueueBytes = 0L;
+	private volatile long queueBytesTotal = 0L;
+	private volatile long samples = 0L;
+	private volatile long coalescedSnapshots = 0L;
+
+	/**
+	 * @return true 表示本周期的坐标补丁应推迟并合并到之后的周期
+	 */
+	boolean shouldDefer(long queueBytes, long nowMs) {
+		recordSample(queueBytes);
+		if (queueBytes < HIGH_WATERMARK_BYTES) {
+			deferringSinceMs = 0L;
+			return false;
+		}
+
+		if (deferringSinceMs == 0L) {
+			deferringSinceMs = nowMs;
+		} else if (nowMs - deferringSinceMs >= MAX_COALESCE_MS) {
+			deferringSinceMs = nowMs;
+			return false;
+		}
+		coalescedSnapshots++;
+		return true;
+	}
+
+	void reset() {
+		deferringSinceMs = 0L;
+		lastQueueBytes = 0L;
+	}
+
+	private void recordSample(long queueBytes) {
+		lastQueueBytes = queueBytes;
+		if (queueBytes > maxQueueBytes) {
+			maxQueueBytes = queueBytes;
+		}
+		queueBytesTotal += queueBytes;
+		samples++;
+	}
+
+	long lastQueueBytes() {
+		return lastQueueBytes;
+	}
+
+	String summary() {
+		long count = samples;
+		if (count <= 0L) {
+			return "";
+		}
+		return "queue=" + lastQueueBytes + "B"
+				+ " avg=" + queueBytesTotal / count + "B"
+				+ " max=" + maxQueueBytes + "B"
+				+ " coalesced=" + coalescedSnapshots;
+	}
+}
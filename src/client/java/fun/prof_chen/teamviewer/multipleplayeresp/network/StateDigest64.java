@@ -0,0 +1,181 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可增量维护的 64 位状态摘要（握手协商的 digestMode = "sum64"）。
+ * <p>
+ * 对象哈希 = mix(id 哈希 + Σ 字段哈希)，字段哈希 = mix(键哈希 ^ mix(值哈希))，整体摘要为全部对象哈希之和（mod 2^64），
+ * 以 16 位小写十六进制传输。字段与对象都以加法合并，与顺序无关，增删改时减去旧哈希、加上新哈希即可，校验为常数时间。
+ * <p>
+ * 与服务端约定的值哈希：字符串为 UTF-8 字节的 FNV-1a 64；null、true、false 为固定常量；数组按顺序折叠，对象按字段哈希求和。
+ * 数字（整数与浮点不区分，整数与等值浮点哈希相同）：
+ * <ul>
+ *   <li>整数值 n（含小数部分为 0 的浮点）且 |n| ≤ {@link #MAX_SCALED_INTEGER}：取精确的 n × 10^6</li>
+ *   <li>非整数浮点 v 且 |v| &lt; {@link #MAX_SCALED_INTEGER}：取 IEEE 754 双精度下 floor(v × 10^6 + 0.5)</li>
+ *   <li>超出上述范围、能以 64 位有符号整数表示的整数值 n：mix(0x5700000000000000 ^ n)，不缩放、不溢出</li>
+ *   <li>其余有限浮点：mix(0x5744000000000000 ^ IEEE 754 位模式)；NaN 与无穷按 null 处理</li>
+ * </ul>
+ * 校验向量（{@link #hex} 形式，服务端实现应逐一对齐）：
+ * <pre>
+ * value(0)                 = value(0.0)               = 643437bef2cd3059
+ * value(1)                 = value(1.0)               = f9aabf4ba16716a3
+ * value(-2.5)                                         = 5173cdbb6f92dfeb
+ * value(0.1234565)                                    = 230968b7913ea664
+ * value(1700000000123L)    = value(1.700000000123E12) = 18fbb8de48118fd5
+ * value(9223372036854L)    = value(9.223372036854E12) = 5061c9d6dc7566c1
+ * value(9223372036855L)    = value(9.223372036855E12) = 0a98ee1cd3d967b1
+ * value(1.0E19)                                       = 5077fbafbcbc9911
+ * value("minecraft:overworld")                        = 006089f20671d3c8
+ * </pre>
+ * <p>
+ * 分桶：对象落入第 mix(id 哈希) 高 {@link #BUCKET_BITS} 位个桶，桶摘要为桶内对象哈希之和，全部桶摘要之和即整体摘要。
+ */
+final class StateDigest64 {
+	static final String MODE = "sum64";
+	static final int BUCKET_BITS = 6;
+	// 桶数不超过 64，选中的桶集合可以用一个 long 位图表示
+	static final int BUCKET_COUNT = 1 << BUCKET_BITS;
+
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	private static final long NUMBER_SCALE = 1_000_000L;
+	// 乘以 10^6 后仍不溢出 long 的最大绝对值
+	static final long MAX_SCALED_INTEGER = Long.MAX_VALUE / NUMBER_SCALE;
+	// 2^63：不小于它的浮点无法精确转为 long
+	private static final double LONG_RANGE_LIMIT = 0x1p63;
+
+	private static final long NULL_HASH = 0x6E756C6C00000000L;
+	private static final long TRUE_HASH = 0x7472756500000001L;
+	private static final long FALSE_HASH = 0x66616C7300000002L;
+	private static final long NUMBER_TAG = 0x4E00000000000000L;
+	private static final long LIST_TAG = 0x4C00000000000000L;
+	private static final long MAP_TAG = 0x4D00000000000000L;
+	private static final long WIDE_INTEGER_TAG = 0x5700000000000000L;
+	private static final long WIDE_DOUBLE_TAG = 0x5744000000000000L;
+
+	private StateDigest64() {
+	}
+
+	static long ofId(Object id) {
+		return text(String.valueOf(id));
+	}
+
+	static int bucket(long idHash) {
+		return (int) (mix(idHash) >>> (64 - BUCKET_BITS));
+	}
+
+	static long object(long idHash, long fieldSum) {
+		return mix(idHash + fieldSum);
+	}
+
+	static long field(long keyHash, long valueHash) {
+		return mix(keyHash ^ mix(valueHash));
+	}
+
+	static long value(Object value) {
+		if (value == null) {
+			return NULL_HASH;
+		}
+		if (value instanceof Boolean bool) {
+			return bool ? TRUE_HASH : FALSE_HASH;
+		}
+		if (value instanceof Number number) {
+			if (number instanceof Byte || number instanceof Short
+					|| number instanceof Integer || number instanceof Long) {
+				return wholeNumber(number.longValue());
+			}
+			return number(number.doubleValue());
+		}
+		if (value instanceof String string) {
+			return text(string);
+		}
+		if (value instanceof Map<?, ?> map) {
+			long sum = MAP_TAG;
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				sum += field(text(String.valueOf(entry.getKey())), value(entry.getValue()));
+			}
+			return mix(sum);
+		}
+		if (value instanceof List<?> list) {
+			long hash = LIST_TAG;
+			for (Object item : list) {
+				hash = mix(hash + value(item));
+			}
+			return hash;
+		}
+		return text(String.valueOf(value));
+	}
+
+	static long number(double value) {
+		if (!Double.isFinite(value)) {
+			return NULL_HASH;
+		}
+		if (Math.abs(value) < LONG_RANGE_LIMIT && value == Math.rint(value)) {
+			// 整数值与 long 走同一条精确路径
+			return wholeNumber((long) value);
+		}
+		if (Math.abs(value) >= MAX_SCALED_INTEGER) {
+			return mix(WIDE_DOUBLE_TAG ^ Double.doubleToLongBits(value));
+		}
+		return scaled((long) Math.floor(value * NUMBER_SCALE + 0.5));
+	}
+
+	private static long wholeNumber(long value) {
+		if (value > MAX_SCALED_INTEGER || value < -MAX_SCALED_INTEGER) {
+			return mix(WIDE_INTEGER_TAG ^ value);
+		}
+		return scaled(value * NUMBER_SCALE);
+	}
+
+	private static long scaled(long scaled) {
+		return mix(NUMBER_TAG ^ scaled);
+	}
+
+	/**
+	 * UTF-8 字节的 FNV-1a 64，逐字符编码，不分配字节数组。
+	 */
+	static long text(String text) {
+		long hash = FNV_OFFSET;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			int c = text.charAt(i);
+			if (c < 0x80) {
+				hash = (hash ^ c) * FNV_PRIME;
+			} else if (c < 0x800) {
+				hash = (hash ^ (0xC0 | (c >> 6))) * FNV_PRIME;
+				hash = (hash ^ (0x80 | (c & 0x3F))) * FNV_PRIME;
+			} else {
+				if (Character.isHighSurrogate((char) c) && i + 1 < length
+						&& Character.isLowSurrogate(text.charAt(i + 1))) {
+					c = Character.toCodePoint((char) c, text.charAt(++i));
+					hash = (hash ^ (0xF0 | (c >> 18))) * FNV_PRIME;
+					hash = (hash ^ (0x80 | ((c >> 12) & 0x3F))) * FNV_PRIME;
+				} else {
+					if (Character.isSurrogate((char) c)) {
+						// 孤立代理项按 UTF-8 编码器的替换字符 '?' 处理
+						hash = (hash ^ '?') * FNV_PRIME;
+						continue;
+					}
+					hash = (hash ^ (0xE0 | (c >> 12))) * FNV_PRIME;
+				}
+				hash = (hash ^ (0x80 | ((c >> 6) & 0x3F))) * FNV_PRIME;
+				hash = (hash ^ (0x80 | (c & 0x3F))) * FNV_PRIME;
+			}
+		}
+		return hash;
+	}
+
+	static String hex(long digest) {
+		String hex = Long.toHexString(digest);
+		return hex.length() >= 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+	}
+
+	// SplitMix64 终混
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
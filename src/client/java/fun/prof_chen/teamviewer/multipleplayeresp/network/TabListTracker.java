@@ -0,0 +1,172 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tab 玩家列表的增量跟踪：每个上报周期由采集方逐条 {@link #observe} 当前列表，
+ * 按条目 ID、名称与队伍前缀计算 64 位指纹，只记录新增、变化与消失的条目。
+ * <p>
+ * 所有条目指纹之和作为列表整体哈希随条目增删改滚动更新，与顺序无关，随增量包发送供服务端校验。
+ * 列表不变时一个周期只做逐条指纹比较，不分配 Map 也不序列化。只在客户端主线程使用。
+ */
+public final class TabListTracker {
+	private final Map<UUID, Entry> entries = new HashMap<>();
+	private final List<Entry> changed = new ArrayList<>();
+	private final List<UUID> removed = new ArrayList<>();
+	private long scan = 0L;
+	private long listHash = 0L;
+	private volatile boolean fullRefreshRequested = true;
+
+	/**
+	 * 开始新一轮采集；本轮未 {@link #observe} 的条目在 {@link #finishScan()} 时视为已离开列表。
+	 */
+	public void beginScan() {
+		scan++;
+	}
+
+	public void observe(UUID id, String name, String displayName) {
+		if (id == null) {
+			return;
+		}
+		long fingerprint = fingerprint(id, name, displayName);
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			entry = new Entry(id);
+			entries.put(id, entry);
+			listHash += fingerprint;
+		} else if (entry.fingerprint != fingerprint) {
+			listHash += fingerprint - entry.fingerprint;
+		} else {
+			entry.scan = scan;
+			return;
+		}
+		entry.fingerprint = fingerprint;
+		entry.name = name;
+		entry.displayName = displayName;
+		entry.scan = scan;
+		if (!entry.pending) {
+			entry.pending = true;
+			changed.add(entry);
+		}
+	}
+
+	/**
+	 * 结束本轮采集：移除本轮未出现的条目并记入待发送的删除列表。
+	 */
+	void finishScan() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.scan == scan) {
+				continue;
+			}
+			iterator.remove();
+			listHash -= entry.fingerprint;
+			if (entry.pending) {
+				entry.pending = false;
+				changed.remove(entry);
+			}
+			removed.add(entry.id);
+		}
+	}
+
+	boolean hasPendingChanges() {
+		return !changed.isEmpty() || !removed.isEmpty();
+	}
+
+	/**
+	 * @return 自上次发送以来新增或变化的条目
+	 */
+	List<Entry> changed() {
+		return changed;
+	}
+
+	/**
+	 * @return 自上次发送以来离开列表的条目 ID
+	 */
+	List<UUID> removed() {
+		return removed;
+	}
+
+	Collection<Entry> entries() {
+		return Collections.unmodifiableCollection(entries.values());
+	}
+
+	long listHash() {
+		return listHash;
+	}
+
+	/**
+	 * 本轮变化已发送（或已被全量包覆盖）。
+	 */
+	void clearPending() {
+		for (Entry entry : changed) {
+			entry.pending = false;
+		}
+		changed.clear();
+		removed.clear();
+	}
+
+	/**
+	 * 连接重建或出站状态清空后，下次发送全量列表。
+	 */
+	void requestFullRefresh() {
+		fullRefreshRequested = true;
+	}
+
+	boolean takeFullRefreshRequest() {
+		boolean requested = fullRefreshRequested;
+		fullRefreshRequested = false;
+		return requested;
+	}
+
+	private static long fingerprint(UUID id, String name, String displayName) {
+		long h = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+		h = mix(h ^ textBits(name));
+		return mix(h + textBits(displayName));
+	}
+
+	// 空值与空串区分开；长度放在高 32 位，降低 String.hashCode 碰撞的影响
+	private static long textBits(String text) {
+		return text == null ? -1L : ((long) text.length() << 32) | (text.hashCode() & 0xFFFFFFFFL);
+	}
+
+	// SplitMix64 终混，使单字符差异也能扩散到全部 64 位
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	static final class Entry {
+		private final UUID id;
+		private String name;
+		private String displayName;
+		private long fingerprint;
+		private long scan;
+		private boolean pending;
+
+		private Entry(UUID id) {
+			this.id = id;
+		}
+
+		UUID id() {
+			return id;
+		}
+
+		String name() {
+			return name;
+		}
+
+		String displayName() {
+			return displayName;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 出站路标日志：在一个短窗口内合并本地路标的创建、修改、删除与快速报点溢出淘汰，窗口结束后一次性发出。
+ * <p>
+ * 同一路标在窗口内多次修改只保留合并后的字段；窗口内创建又删除且从未发送过的路标直接抵消；
+ * 发送时与上次已发送的字段比较，只携带变化的字段。服务端删除某路标后丢弃其已发送基线，下次重新发送全部字段。
+ * 方法可能来自主线程与桥接回调，统一加锁。
+ */
+final class WaypointUploadJournal {
+	// 合并窗口(毫秒)：从窗口内第一条变更起计时，不随后续变更顺延，保证报点延迟有上限
+	static final long FLUSH_WINDOW_MS = 200L;
+
+	private final Map<String, Pending> pending = new LinkedHashMap<>();
+	private final Map<String, Map<String, Object>> sent = new HashMap<>();
+	private UUID submitPlayerId;
+	private long windowStartMs = 0L;
+
+	synchronized void upsert(UUID submitter, String waypointId, Map<String, Object> fields, long nowMs) {
+		if (waypointId == null || waypointId.isBlank() || fields == null) {
+			return;
+		}
+		Pending entry = open(submitter, waypointId, nowMs);
+		if (entry.delete) {
+			// 先删后建：按新路标处理，发送全部字段
+			entry.delete = false;
+			entry.recreated = true;
+			entry.fields.clear();
+		}
+		entry.fields.putAll(fields);
+	}
+
+	synchronized void delete(UUID submitter, String waypointId, long nowMs) {
+		if (waypointId == null || waypointId.isBlank()) {
+			return;
+		}
+		Pending existing = pending.get(waypointId);
+		if (existing != null && !existing.delete && !sent.containsKey(waypointId)) {
+			// 窗口内创建后又删除，服务端从未见过，两条变更一起抵消
+			pending.remove(waypointId);
+			return;
+		}
+		Pending entry = open(submitter, waypointId, nowMs);
+		entry.delete = true;
+		entry.recreated = false;
+		entry.fields.clear();
+	}
+
+	private Pending open(UUID submitter, String waypointId, long nowMs) {
+		if (submitter != null) {
+			submitPlayerId = submitter;
+		}
+		if (pending.isEmpty()) {
+			windowStartMs = nowMs;
+		}
+		return pending.computeIfAbsent(waypointId, id -> new Pending());
+	}
+
+	synchronized boolean isDue(long nowMs) {
+		return !pending.isEmpty() && nowMs - windowStartMs >= FLUSH_WINDOW_MS;
+	}
+
+	/**
+	 * 取出本窗口的合并结果并推进已发送基线；没有实际变化时返回 null。
+	 */
+	synchronized Batch drain() {
+		if (pending.isEmpty()) {
+			return null;
+		}
+		Batch batch = new Batch(submitPlayerId);
+		for (Map.Entry<String, Pending> item : pending.entrySet()) {
+			String waypointId = item.getKey();
+			Pending entry = item.getValue();
+			if (entry.delete) {
+				batch.deletes.add(waypointId);
+				sent.remove(waypointId);
+				continue;
+			}
+
+			Map<String, Object> baseline = entry.recreated ? null : sent.get(waypointId);
+			Map<String, Object> changed = new HashMap<>();
+			for (Map.Entry<String, Object> field : entry.fields.entrySet()) {
+				if (baseline == null
+						|| !baseline.containsKey(field.getKey())
+						|| !Objects.equals(baseline.get(field.getKey()), field.getValue())) {
+					changed.put(field.getKey(), field.getValue());
+				}
+			}
+			if (changed.isEmpty()) {
+				continue;
+			}
+			Map<String, Object> full = baseline == null ? new HashMap<>() : new HashMap<>(baseline);
+			full.putAll(entry.fields);
+			sent.put(waypointId, full);
+			batch.changedFields.put(waypointId, changed);
+			batch.fullFields.put(waypointId, new HashMap<>(full));
+		}
+		pending.clear();
+		return batch.isEmpty() ? null : batch;
+	}
+
+	/**
+	 * 服务端已删除这些路标（过期、他人删除或本端删除的回显）：丢弃已发送基线。
+	 */
+	synchronized void forgetSent(Collection<String> waypointIds) {
+		for (String waypointId : waypointIds) {
+			sent.remove(waypointId);
+		}
+	}
+
+	/**
+	 * 连接重建或出站状态清空：丢弃未发送的变更与已发送基线。
+	 */
+	synchronized void clear() {
+		pending.clear();
+		sent.clear();
+		windowStartMs = 0L;
+	}
+
+	private static final class Pending {
+		private final Map<String, Object> fields = new HashMap<>();
+		private boolean delete;
+		private boolean recreated;
+	}
+
+	/**
+	 * 一个窗口的合并结果：changedFields 只含变化字段，fullFields 为合并后的完整字段（供不支持补丁的服务端使用）。
+	 */
+	static final class Batch {
+		final UUID submitPlayerId;
+		final Map<String, Map<String, Object>> changedFields = new LinkedHashMap<>();
+		final Map<String, Map<String, Object>> fullFields = new LinkedHashMap<>();
+		final List<String> deletes = new ArrayList<>();
+
+		private Batch(UUID submitPlayerId) {
+			this.submitPlayerId = submitPlayerId;
+		}
+
+		boolean isEmpty() {
+			return changedFields.isEmpty() && deletes.isEmpty();
+		}
+	}
+}
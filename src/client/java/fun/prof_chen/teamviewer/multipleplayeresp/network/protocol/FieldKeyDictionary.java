@@ -0,0 +1,86 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 数据字段名与小整数编号的双向映射，握手时以有序字段名列表协商。
+ * 编号即列表下标，msgpack 中 0..127 的编号只占 1 字节。
+ */
+public final class FieldKeyDictionary {
+	private static final int MAX_KEYS = 1024;
+
+	private final List<String> keys;
+	private final Map<String, Integer> ids;
+
+	private FieldKeyDictionary(List<String> keys) {
+		this.keys = Collections.unmodifiableList(keys);
+		Map<String, Integer> idMap = new HashMap<>(keys.size() * 2);
+		for (int i = 0; i < keys.size(); i++) {
+			idMap.putIfAbsent(keys.get(i), i);
+		}
+		this.ids = idMap;
+	}
+
+	/**
+	 * 以多个字段集合的并集按字典序构建，保证两端在相同 schema 下得到相同编号。
+	 */
+	@SafeVarargs
+	public static FieldKeyDictionary fromFieldNames(Collection<String>... fieldSets) {
+		TreeSet<String> union = new TreeSet<>();
+		for (Collection<String> fieldSet : fieldSets) {
+			if (fieldSet != null) {
+				union.addAll(fieldSet);
+			}
+		}
+		return new FieldKeyDictionary(new ArrayList<>(union));
+	}
+
+	/**
+	 * 按对端给出的顺序构建；列表为空或不合法时返回 null 表示不启用字典模式。
+	 */
+	public static FieldKeyDictionary fromOrderedKeys(List<String> orderedKeys) {
+		if (orderedKeys == null || orderedKeys.isEmpty() || orderedKeys.size() > MAX_KEYS) {
+			return null;
+		}
+		List<String> copy = new ArrayList<>(orderedKeys.size());
+		for (String key : orderedKeys) {
+			if (key == null || key.isEmpty()) {
+				return null;
+			}
+			copy.add(key);
+		}
+		return new FieldKeyDictionary(copy);
+	}
+
+	/**
+	 * @return 字段编号；不在字典内返回 -1
+	 */
+	public int idOf(String key) {
+		Integer id = key == null ? null : ids.get(key);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @return 编号对应的字段名；越界返回 null
+	 */
+	public String nameOf(long id) {
+		if (id < 0 || id >= keys.size()) {
+			return null;
+		}
+		return keys.get((int) id);
+	}
+
+	public List<String> keys() {
+		return keys;
+	}
+
+	public int size() {
+		return keys.size();
+	}
+}
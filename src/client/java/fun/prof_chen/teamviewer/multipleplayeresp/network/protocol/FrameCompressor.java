@@ -0,0 +1,146 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import okio.ByteString;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 单连接的逐帧 deflate 压缩器（raw deflate，每帧独立 reset，不跨帧保留窗口）。
+ * <p>
+ * 压缩帧以 {@link #COMPRESSED_FRAME_MARKER} 开头，该字节是 msgpack 保留的永不使用编码，
+ * 因此与未压缩的 msgpack 帧不会混淆；低于阈值或压缩无收益的帧原样发送。非线程安全。
+ */
+public final class FrameCompressor {
+	public static final byte COMPRESSED_FRAME_MARKER = (byte) 0xC1;
+	public static final String ALGORITHM_DEFLATE = "deflate";
+	public static final String PRESET_DICTIONARY_V1 = "tv-msgpack-v1";
+
+	private static final int MAX_INFLATED_BYTES = 16 * 1024 * 1024;
+
+	// 预置字典内容一经发布不可修改，变更时必须换新的字典 ID
+	private static final String[] PRESET_DICTIONARY_V1_STRINGS = {
+			"minecraft:the_end", "minecraft:the_nether", "minecraft:overworld",
+			"minecraft:item", "minecraft:arrow", "minecraft:zombie", "minecraft:skeleton", "minecraft:creeper",
+			"minecraft:spider", "minecraft:enderman", "minecraft:villager", "minecraft:horse", "minecraft:boat",
+			"snapshot_full", "patch", "digest", "waypoints_update", "waypoints_delete", "tab_players_update",
+			"players_patch", "entities_patch", "state_keepalive",
+			"tabPlayers", "displayName", "waypoints", "entities", "players", "playerMarks", "upsert", "delete",
+			"submitPlayerId", "sourceType", "tacticalType", "permanent", "roomCode", "targetEntityName",
+			"targetEntityType", "targetEntityId", "targetType", "maxQuickMarks", "replaceOldQuick", "waypointKind",
+			"ttlSeconds", "createdAt", "ownerName", "ownerId", "color", "symbol", "name",
+			"entityName", "entityType", "isRiding", "armor", "maxHealth", "health", "playerUUID", "playerName",
+			"width", "height", "dimension", "vx", "vy", "vz", "x", "y", "z", "data", "type"
+	};
+
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+	private final Inflater inflater = new Inflater(true);
+	private final byte[] dictionary;
+	private final int thresholdBytes;
+	// 压缩在出站编码线程、解压在主线程，各用各的缓冲区
+	private byte[] deflateBuffer = new byte[8 * 1024];
+	private byte[] inflateBuffer = new byte[8 * 1024];
+
+	public FrameCompressor(String dictionaryId, int thresholdBytes) {
+		this.dictionary = presetDictionary(dictionaryId);
+		this.thresholdBytes = Math.max(1, thresholdBytes);
+	}
+
+	public static boolean isCompressed(byte[] frame) {
+		return frame != null && frame.length > 0 && frame[0] == COMPRESSED_FRAME_MARKER;
+	}
+
+	public boolean shouldCompress(int frameBytes) {
+		return frameBytes >= thresholdBytes;
+	}
+
+	/**
+	 * @return 带标记字节的压缩帧；压缩后不比原帧小时返回原帧
+	 */
+	public ByteString compress(ByteString frame) {
+		deflater.reset();
+		if (dictionary != null) {
+			deflater.setDictionary(dictionary);
+		}
+		deflater.setInput(frame.asByteBuffer());
+		deflater.finish();
+
+		deflateBuffer[0] = COMPRESSED_FRAME_MARKER;
+		int length = 1;
+		while (!deflater.finished()) {
+			if (length == deflateBuffer.length) {
+				if (length > frame.size()) {
+					return frame;
+				}
+				deflateBuffer = Arrays.copyOf(deflateBuffer, deflateBuffer.length * 2);
+			}
+			length += deflater.deflate(deflateBuffer, length, deflateBuffer.length - length);
+		}
+		if (length >= frame.size()) {
+			return frame;
+		}
+		return ByteString.of(deflateBuffer, 0, length);
+	}
+
+	/**
+	 * @return 解压后的 msgpack 帧；未带压缩标记时原样返回
+	 */
+	public byte[] decompress(byte[] frame) throws DataFormatException {
+		if (!isCompressed(frame)) {
+			return frame;
+		}
+		inflater.reset();
+		// raw deflate 没有 zlib 头，不会触发 needsDictionary，必须在解压前预先设置字典
+		if (dictionary != null) {
+			inflater.setDictionary(dictionary);
+		}
+		inflater.setInput(frame, 1, frame.length - 1);
+
+		int length = 0;
+		while (!inflater.finished()) {
+			if (length == inflateBuffer.length) {
+				if (inflateBuffer.length >= MAX_INFLATED_BYTES) {
+					throw new DataFormatException("Inflated frame exceeds " + MAX_INFLATED_BYTES + " bytes");
+				}
+				inflateBuffer = Arrays.copyOf(inflateBuffer, Math.min(inflateBuffer.length * 2, MAX_INFLATED_BYTES));
+			}
+			int inflated = inflater.inflate(inflateBuffer, length, inflateBuffer.length - length);
+			if (inflated == 0) {
+				if (inflater.needsInput()) {
+					throw new DataFormatException("Truncated compressed frame");
+				}
+				if (!inflater.finished() && length < inflateBuffer.length) {
+					throw new DataFormatException("Stalled while inflating frame");
+				}
+			}
+			length += inflated;
+		}
+		return Arrays.copyOf(inflateBuffer, length);
+	}
+
+	public void close() {
+		deflater.end();
+		inflater.end();
+	}
+
+	/**
+	 * @return 预置字典字节；未知 ID 返回 null（不使用字典）
+	 */
+	public static byte[] presetDictionary(String dictionaryId) {
+		if (!PRESET_DICTIONARY_V1.equals(dictionaryId)) {
+			return null;
+		}
+		// 以 msgpack fixstr 形式拼接，使字典与真实帧中的字段名字节一致
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String value : PRESET_DICTIONARY_V1_STRINGS) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.write(0xA0 | bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+		return out.toByteArray();
+	}
+}
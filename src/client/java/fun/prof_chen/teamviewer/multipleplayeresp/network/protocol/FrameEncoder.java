@@ -0,0 +1,10 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import okio.ByteString;
+
+/**
+ * 单连接的出站帧编码器，内部缓冲区在多次调用间复用，非线程安全。
+ */
+public interface FrameEncoder {
+	ByteString encode(Object packet);
+}
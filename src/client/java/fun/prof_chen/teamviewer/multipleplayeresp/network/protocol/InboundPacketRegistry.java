@@ -0,0 +1,39 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 下行包类型注册表：type -> (包类, 处理器)。
+ * 帧先经 {@link MessageCodec#peekType(byte[])} 取得 type，再按注册的包类只解码一次。
+ */
+public final class InboundPacketRegistry {
+	private final Map<String, Registration<?>> registrations = new HashMap<>();
+
+	public <T> InboundPacketRegistry register(String type, Class<T> packetType, Consumer<T> handler) {
+		if (type == null || type.isBlank() || packetType == null || handler == null) {
+			throw new IllegalArgumentException("Invalid inbound packet registration: " + type);
+		}
+		registrations.put(type, new Registration<>(packetType, handler));
+		return this;
+	}
+
+	/**
+	 * @return 是否找到了对应 type 的处理器
+	 */
+	public boolean dispatch(MessageCodec codec, String type, byte[] payload) {
+		Registration<?> registration = type == null ? null : registrations.get(type);
+		if (registration == null) {
+			return false;
+		}
+		registration.dispatch(codec, payload);
+		return true;
+	}
+
+	private record Registration<T>(Class<T> packetType, Consumer<T> handler) {
+		void dispatch(MessageCodec codec, byte[] payload) {
+			handler.accept(codec.decode(payload, packetType));
+		}
+	}
+}
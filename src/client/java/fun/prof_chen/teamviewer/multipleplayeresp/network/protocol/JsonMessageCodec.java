@@ -1,6 +1,10 @@
 package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.StringReader;
 
 public final class JsonMessageCodec implements MessageCodec {
 	private final Gson gson;
@@ -18,4 +22,27 @@ public final class JsonMessageCodec implements MessageCodec {
 	public <T> T decode(byte[] payload, Class<T> packetType) {
 		return gson.fromJson(new String(payload, java.nio.charset.StandardCharsets.UTF_8), packetType);
 	}
+
+	@Override
+	public String peekType(byte[] payload) {
+		if (payload == null || payload.length == 0) {
+			return null;
+		}
+		try (JsonReader reader = new JsonReader(new StringReader(new String(payload, java.nio.charset.StandardCharsets.UTF_8)))) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return null;
+			}
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if ("type".equals(name) && reader.peek() == JsonToken.STRING) {
+					return reader.nextString();
+				}
+				reader.skipValue();
+			}
+			return null;
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Failed to peek json packet type", e);
+		}
+	}
 }
@@ -1,7 +1,38 @@
 package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
 
+import okio.ByteString;
+
 public interface MessageCodec {
 	byte[] encode(Object packet);
 
 	<T> T decode(byte[] payload, Class<T> packetType);
+
+	/**
+	 * 只扫描根 map 读取 type 字段，不物化其余字段。
+	 * @return type 字段值；帧不是 map 或缺少 type 时返回 null
+	 */
+	String peekType(byte[] payload);
+
+	/**
+	 * 为单个连接创建出站帧编码器。
+	 * 默认实现为 encode 后再拷贝进 ByteString，编解码器可覆盖以复用缓冲区。
+	 */
+	default FrameEncoder newFrameEncoder() {
+		return packet -> {
+			byte[] payload = encode(packet);
+			return ByteString.of(payload, 0, payload.length);
+		};
+	}
+
+	/**
+	 * 设置握手协商出的字段名字典；null 表示关闭字典模式。不支持字典的编解码器忽略此调用。
+	 */
+	default void setFieldKeyDictionary(FieldKeyDictionary dictionary) {
+	}
+
+	/**
+	 * 设置握手是否协商出二进制 UUID；false 时出站 UUID 以字符串传输。不支持二进制的编解码器忽略此调用。
+	 */
+	default void setBinaryUuids(boolean enabled) {
+	}
 }
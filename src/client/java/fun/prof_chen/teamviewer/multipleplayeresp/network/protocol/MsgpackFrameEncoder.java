@@ -0,0 +1,37 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import okio.Buffer;
+import okio.ByteString;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePacker;
+
+/**
+ * 复用同一个 MessagePacker 与 okio Buffer 的 msgpack 帧编码器：省去每帧新建 packer 与输出缓冲，
+ * 包体经 packer 内部缓冲写入 Buffer 的池化分段。
+ * <p>
+ * readByteString 仍会产生一次拷贝：不足 4 KiB 的帧拷贝进一个新 byte[]，更大的帧共享分段快照（分段不再回收进池）。
+ * 这份 byte[] 无法池化复用，OkHttp 会持有返回的 ByteString 直到写出，期间不能被下一帧覆盖。
+ * 相比 encode 后再 ByteString.of 的旧路径，每帧少一次完整数组分配与拷贝。
+ */
+final class MsgpackFrameEncoder implements FrameEncoder {
+	private final MsgpackMessageCodec codec;
+	private final Buffer buffer = new Buffer();
+	private final MessagePacker packer = MessagePack.newDefaultPacker(buffer.outputStream());
+
+	MsgpackFrameEncoder(MsgpackMessageCodec codec) {
+		this.codec = codec;
+	}
+
+	@Override
+	public ByteString encode(Object packet) {
+		try {
+			PacketMsgpackWriter.writePacket(packer, packet, PacketFieldSchemas.forPacket(packet == null ? null : packet.getClass()), codec.fieldKeyDictionary(), codec.binaryUuids());
+			packer.flush();
+			return buffer.readByteString();
+		} catch (Exception e) {
+			packer.clear();
+			buffer.clear();
+			throw new IllegalArgumentException("Failed to encode msgpack payload", e);
+		}
+	}
+}
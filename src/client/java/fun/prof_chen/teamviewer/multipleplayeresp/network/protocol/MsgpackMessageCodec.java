@@ -2,6 +2,7 @@ package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessagePack;
 import org.msgpack.core.MessageUnpacker;
 import org.msgpack.jackson.dataformat.MessagePackFactory;
@@ -13,36 +14,11 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public final class MsgpackMessageCodec implements MessageCodec {
 	private final ObjectMapper objectMapper;
-	private static final Set<String> UUID_SCALAR_KEYS = Set.of(
-			"submitPlayerId",
-			"playerId",
-			"playerUUID",
-			"ownerId",
-			"targetEntityId",
-			"uuid",
-			"id"
-	);
-	private static final Set<String> UUID_LIST_KEYS = Set.of(
-			"targetEntityIds",
-			"players",
-			"delete",
-			"connections",
-			"members",
-			"waypointIds"
-	);
-	private static final Set<String> UUID_KEYED_MAP_KEYS = Set.of(
-			"players",
-			"entities",
-			"waypoints",
-			"playerMarks",
-			"reports",
-			"sourceToGroup",
-			"upsert"
-	);
+	private volatile FieldKeyDictionary fieldKeyDictionary;
+	private volatile boolean binaryUuids;
 
 	public MsgpackMessageCodec() {
 		this.objectMapper = new ObjectMapper(new MessagePackFactory());
@@ -52,24 +28,80 @@ public final class MsgpackMessageCodec implements MessageCodec {
 	@Override
 	public byte[] encode(Object packet) {
 		try {
-			Object normalized = normalizeUuidOutbound(packet, null);
-			return objectMapper.writeValueAsBytes(normalized);
+			MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
+			PacketMsgpackWriter.writePacket(packer, packet, PacketFieldSchemas.forPacket(packet == null ? null : packet.getClass()), fieldKeyDictionary, binaryUuids);
+			packer.close();
+			return packer.toByteArray();
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Failed to encode msgpack payload", e);
 		}
 	}
 
+	@Override
+	public FrameEncoder newFrameEncoder() {
+		return new MsgpackFrameEncoder(this);
+	}
+
+	@Override
+	public void setFieldKeyDictionary(FieldKeyDictionary dictionary) {
+		this.fieldKeyDictionary = dictionary;
+	}
+
+	FieldKeyDictionary fieldKeyDictionary() {
+		return fieldKeyDictionary;
+	}
+
+	@Override
+	public void setBinaryUuids(boolean enabled) {
+		this.binaryUuids = enabled;
+	}
+
+	boolean binaryUuids() {
+		return binaryUuids;
+	}
+
 	@Override
 	public <T> T decode(byte[] payload, Class<T> packetType) {
 		try {
+			if (StreamingPacketDecoder.supports(packetType)) {
+				return StreamingPacketDecoder.decode(payload, packetType, fieldKeyDictionary);
+			}
 			Object decoded = unpackValueToJavaObject(payload);
-			Object normalized = normalizeUuidInbound(decoded, null);
-			return objectMapper.convertValue(normalized, packetType);
+			normalizeInbound(decoded, PacketFieldSchemas.forPacket(packetType).root(), fieldKeyDictionary);
+			return objectMapper.convertValue(decoded, packetType);
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Failed to decode msgpack payload", e);
 		}
 	}
 
+	@Override
+	public String peekType(byte[] payload) {
+		if (payload == null || payload.length == 0) {
+			return null;
+		}
+		try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(payload)) {
+			if (!unpacker.hasNext() || unpacker.getNextFormat().getValueType() != ValueType.MAP) {
+				return null;
+			}
+			int size = unpacker.unpackMapHeader();
+			for (int i = 0; i < size; i++) {
+				if (unpacker.getNextFormat().getValueType() != ValueType.STRING) {
+					unpacker.skipValue();
+					unpacker.skipValue();
+					continue;
+				}
+				String key = unpacker.unpackString();
+				if ("type".equals(key) && unpacker.getNextFormat().getValueType() == ValueType.STRING) {
+					return unpacker.unpackString();
+				}
+				unpacker.skipValue();
+			}
+			return null;
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Failed to peek msgpack packet type", e);
+		}
+	}
+
 	private Object unpackValueToJavaObject(byte[] payload) throws Exception {
 		try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(payload)) {
 			Value value = unpacker.unpackValue();
@@ -108,6 +140,12 @@ public final class MsgpackMessageCodec implements MessageCodec {
 				MapValue mapValue = value.asMapValue();
 				for (Map.Entry<Value, Value> entry : mapValue.entrySet()) {
 					Object key = valueToJava(entry.getKey());
+					if (key instanceof byte[] bytes) {
+						String canonical = UuidBinaryCodec.toCanonicalString(bytes);
+						if (canonical != null) {
+							key = canonical;
+						}
+					}
 					Object itemValue = valueToJava(entry.getValue());
 					map.put(key, itemValue);
 				}
@@ -120,114 +158,99 @@ public final class MsgpackMessageCodec implements MessageCodec {
 		}
 	}
 
-	private Object normalizeUuidInbound(Object value, String keyName) {
-		if (value instanceof Map<?, ?> map) {
-			Map<Object, Object> normalized = new LinkedHashMap<>();
-			for (Map.Entry<?, ?> entry : map.entrySet()) {
-				Object rawKey = entry.getKey();
-				Object normalizedKey = normalizeInboundMapKey(rawKey, keyName);
-				String childKey = normalizedKey instanceof String ? (String) normalizedKey : null;
-				Object rawValue = entry.getValue();
-
-				if (childKey != null && UUID_SCALAR_KEYS.contains(childKey)) {
-					String canonical = UuidBinaryCodec.toCanonicalString(rawValue);
-					normalized.put(normalizedKey, canonical != null ? canonical : rawValue);
-					continue;
-				}
+	private void normalizeInbound(Object value, PacketFieldSchema.Node node, FieldKeyDictionary dictionary) {
+		if (node == null) {
+			return;
+		}
 
-				if (childKey != null && UUID_LIST_KEYS.contains(childKey) && rawValue instanceof List<?> list) {
-					List<Object> converted = new ArrayList<>(list.size());
-					for (Object item : list) {
-						String canonical = UuidBinaryCodec.toCanonicalString(item);
-						converted.add(canonical != null ? canonical : item);
-					}
-					normalized.put(normalizedKey, converted);
+		if (value instanceof Map<?, ?> rawMap) {
+			@SuppressWarnings("unchecked")
+			Map<Object, Object> map = (Map<Object, Object>) rawMap;
+			if (node.uuidKeys()) {
+				canonicalizeKeys(map);
+			}
+			if (node.dictionaryKeys() && dictionary != null) {
+				expandDictionaryKeys(map, dictionary);
+			}
+			for (Map.Entry<Object, Object> entry : map.entrySet()) {
+				String childKey = entry.getKey() instanceof String text ? text : null;
+				PacketFieldSchema.Node child = node.child(childKey);
+				if (child == null) {
 					continue;
 				}
-
-				normalized.put(normalizedKey, normalizeUuidInbound(rawValue, childKey));
+				if (child.uuidValue()) {
+					entry.setValue(canonicalOrRaw(entry.getValue()));
+				} else {
+					normalizeInbound(entry.getValue(), child, dictionary);
+				}
 			}
-			return normalized;
+			return;
 		}
 
-		if (value instanceof List<?> list) {
-			List<Object> normalized = new ArrayList<>(list.size());
-			for (Object item : list) {
-				normalized.add(normalizeUuidInbound(item, keyName));
+		if (value instanceof List<?> rawList) {
+			@SuppressWarnings("unchecked")
+			List<Object> list = (List<Object>) rawList;
+			PacketFieldSchema.Node itemNode = node.anyChild();
+			for (int i = 0; i < list.size(); i++) {
+				if (node.uuidItems() || (itemNode != null && itemNode.uuidValue())) {
+					list.set(i, canonicalOrRaw(list.get(i)));
+				} else if (itemNode != null) {
+					normalizeInbound(list.get(i), itemNode, dictionary);
+				}
 			}
-			return normalized;
 		}
-
-		return value;
 	}
 
-	private Object normalizeUuidOutbound(Object value, String keyName) {
-		if (value instanceof Map<?, ?> map) {
-			Map<Object, Object> normalized = new LinkedHashMap<>();
-			for (Map.Entry<?, ?> entry : map.entrySet()) {
-				Object rawKey = entry.getKey();
-				Object normalizedKey = normalizeOutboundMapKey(rawKey, keyName);
-				String childKey = rawKey instanceof String ? (String) rawKey : null;
-				Object rawValue = entry.getValue();
-
-				if (childKey != null && UUID_SCALAR_KEYS.contains(childKey)) {
-					byte[] raw = UuidBinaryCodec.toBytes(rawValue instanceof String ? (String) rawValue : UuidBinaryCodec.toCanonicalString(rawValue));
-					normalized.put(normalizedKey, raw != null ? raw : rawValue);
-					continue;
+	private void canonicalizeKeys(Map<Object, Object> map) {
+		boolean changed = false;
+		for (Object key : map.keySet()) {
+			if (key instanceof String text) {
+				String canonical = UuidBinaryCodec.toCanonicalString(text);
+				if (canonical != null && !canonical.equals(text)) {
+					changed = true;
+					break;
 				}
-
-				if (childKey != null && UUID_LIST_KEYS.contains(childKey) && rawValue instanceof List<?> list) {
-					List<Object> converted = new ArrayList<>(list.size());
-					for (Object item : list) {
-						String canonical = UuidBinaryCodec.toCanonicalString(item);
-						byte[] raw = UuidBinaryCodec.toBytes(canonical);
-						converted.add(raw != null ? raw : item);
-					}
-					normalized.put(normalizedKey, converted);
-					continue;
-				}
-
-				normalized.put(normalizedKey, normalizeUuidOutbound(rawValue, childKey));
 			}
-			return normalized;
 		}
-
-		if (value instanceof List<?> list) {
-			List<Object> normalized = new ArrayList<>(list.size());
-			for (Object item : list) {
-				normalized.add(normalizeUuidOutbound(item, keyName));
-			}
-			return normalized;
+		if (!changed) {
+			return;
 		}
 
-		return value;
+		Map<Object, Object> rekeyed = new LinkedHashMap<>(map.size() * 2);
+		for (Map.Entry<Object, Object> entry : map.entrySet()) {
+			rekeyed.put(canonicalOrRaw(entry.getKey()), entry.getValue());
+		}
+		map.clear();
+		map.putAll(rekeyed);
 	}
 
-	private Object normalizeInboundMapKey(Object rawKey, String parentKey) {
-		if (rawKey instanceof byte[] bytes) {
-			String canonical = UuidBinaryCodec.toCanonicalString(bytes);
-			if (canonical != null) {
-				return canonical;
+	private void expandDictionaryKeys(Map<Object, Object> map, FieldKeyDictionary dictionary) {
+		boolean hasNumericKey = false;
+		for (Object key : map.keySet()) {
+			if (key instanceof Long) {
+				hasNumericKey = true;
+				break;
 			}
 		}
+		if (!hasNumericKey) {
+			return;
+		}
 
-		if (parentKey != null && UUID_KEYED_MAP_KEYS.contains(parentKey) && rawKey instanceof String text) {
-			String canonical = UuidBinaryCodec.toCanonicalString(text);
-			if (canonical != null) {
-				return canonical;
+		Map<Object, Object> expanded = new LinkedHashMap<>(map.size() * 2);
+		for (Map.Entry<Object, Object> entry : map.entrySet()) {
+			Object key = entry.getKey();
+			if (key instanceof Long id) {
+				String name = dictionary.nameOf(id);
+				key = name != null ? name : String.valueOf(id);
 			}
+			expanded.put(key, entry.getValue());
 		}
-
-		return rawKey;
+		map.clear();
+		map.putAll(expanded);
 	}
 
-	private Object normalizeOutboundMapKey(Object rawKey, String parentKey) {
-		if (parentKey != null && UUID_KEYED_MAP_KEYS.contains(parentKey) && rawKey instanceof String text) {
-			byte[] raw = UuidBinaryCodec.toBytes(text);
-			if (raw != null) {
-				return raw;
-			}
-		}
-		return rawKey;
+	private static Object canonicalOrRaw(Object value) {
+		String canonical = UuidBinaryCodec.toCanonicalString(value);
+		return canonical != null ? canonical : value;
 	}
 }
@@ -0,0 +1,141 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编译后的包字段路径表：只有声明过的路径会做 UUID 字符串/二进制互转或字段名字典编码，其余子树原样透传。
+ * <p>
+ * 路径语法（以 . 分隔）：
+ * <ul>
+ *   <li>{@code name} 具名字段；作为最后一段时表示该字段值是 UUID 标量</li>
+ *   <li>{@code *} 任意 map 值或任意列表元素</li>
+ *   <li>{@code <key>} 表示上一段 map 的键是 UUID</li>
+ *   <li>{@code <field>} 表示上一段 map 的键是数据字段名，字典模式下以整数编号传输</li>
+ *   <li>{@code name[]} 表示该字段是 UUID 列表</li>
+ * </ul>
+ * 例如 {@code upsert.<key>}、{@code upsert.*.<field>}、{@code waypoints.*.ownerId}、{@code delete[]}。
+ */
+public final class PacketFieldSchema {
+	public static final PacketFieldSchema EMPTY = new PacketFieldSchema(new Node());
+
+	private final Node root;
+
+	private PacketFieldSchema(Node root) {
+		this.root = root;
+	}
+
+	public static PacketFieldSchema compile(String... paths) {
+		Node root = new Node();
+		if (paths != null) {
+			for (String path : paths) {
+				compilePath(root, path);
+			}
+		}
+		return new PacketFieldSchema(root);
+	}
+
+	public Node root() {
+		return root;
+	}
+
+	private static void compilePath(Node root, String path) {
+		if (path == null || path.isBlank()) {
+			throw new IllegalArgumentException("Empty field schema path");
+		}
+		String[] segments = path.trim().split("\\.");
+		Node current = root;
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			boolean last = i == segments.length - 1;
+			if ("<key>".equals(segment) || "<field>".equals(segment)) {
+				if (!last) {
+					throw new IllegalArgumentException(segment + " must be the last segment: " + path);
+				}
+				if ("<key>".equals(segment)) {
+					current.uuidKeys = true;
+				} else {
+					current.dictionaryKeys = true;
+				}
+				return;
+			}
+
+			boolean listSegment = segment.endsWith("[]");
+			String name = listSegment ? segment.substring(0, segment.length() - 2) : segment;
+			if (name.isEmpty()) {
+				throw new IllegalArgumentException("Invalid field schema segment in " + path);
+			}
+			Node next = current.childForCompile(name);
+			if (last) {
+				if (listSegment) {
+					next.uuidItems = true;
+				} else {
+					next.uuidValue = true;
+				}
+				return;
+			}
+			if (listSegment) {
+				throw new IllegalArgumentException("[] must be the last segment: " + path);
+			}
+			current = next;
+		}
+	}
+
+	public static final class Node {
+		private Map<String, Node> children;
+		private Node anyChild;
+		private boolean uuidKeys;
+		private boolean dictionaryKeys;
+		private boolean uuidValue;
+		private boolean uuidItems;
+
+		private Node() {
+		}
+
+		private Node childForCompile(String name) {
+			if ("*".equals(name)) {
+				if (anyChild == null) {
+					anyChild = new Node();
+				}
+				return anyChild;
+			}
+			if (children == null) {
+				children = new HashMap<>();
+			}
+			return children.computeIfAbsent(name, ignored -> new Node());
+		}
+
+		/**
+		 * @return 指定键对应的子节点；不存在时返回 {@code *} 节点或 null（表示该子树无需转换）
+		 */
+		public Node child(String key) {
+			if (children != null && key != null) {
+				Node named = children.get(key);
+				if (named != null) {
+					return named;
+				}
+			}
+			return anyChild;
+		}
+
+		public Node anyChild() {
+			return anyChild;
+		}
+
+		public boolean uuidKeys() {
+			return uuidKeys;
+		}
+
+		public boolean dictionaryKeys() {
+			return dictionaryKeys;
+		}
+
+		public boolean uuidValue() {
+			return uuidValue;
+		}
+
+		public boolean uuidItems() {
+			return uuidItems;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.Map;
+
+/**
+ * 各协议包的 UUID 字段与字典键路径声明，类加载时编译一次。
+ * 未登记的包类型使用 {@link PacketFieldSchema#EMPTY}，即整包透传。
+ */
+final class PacketFieldSchemas {
+	private static final Map<Class<?>, PacketFieldSchema> SCHEMAS = Map.ofEntries(
+			Map.entry(ProtocolPackets.HandshakePacket.class, PacketFieldSchema.compile(
+					"submitPlayerId"
+			)),
+			Map.entry(ProtocolPackets.PlayersPatchPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"upsert.<key>",
+					"upsert.*.playerUUID",
+					"upsert.*.<field>",
+					"delete[]"
+			)),
+			Map.entry(ProtocolPackets.EntitiesPatchPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"upsert.<key>",
+					"upsert.*.<field>",
+					"delete[]"
+			)),
+			Map.entry(ProtocolPackets.PositionsBatchPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId"
+			)),
+			Map.entry(ProtocolPackets.StateKeepalivePacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"players[]"
+			)),
+			Map.entry(ProtocolPackets.WaypointsUpdatePacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"waypoints.<key>",
+					"waypoints.*.ownerId",
+					"waypoints.*.targetEntityId",
+					"waypoints.*.<field>"
+			)),
+			Map.entry(ProtocolPackets.WaypointsPatchPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"upsert.<key>",
+					"upsert.*.ownerId",
+					"upsert.*.targetEntityId",
+					"upsert.*.<field>",
+					"delete[]"
+			)),
+			Map.entry(ProtocolPackets.TabPlayersUpdatePacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"tabPlayers.*.id"
+			)),
+			Map.entry(ProtocolPackets.TabPlayersDeltaPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"upsert.*.id",
+					"delete[]"
+			)),
+			Map.entry(ProtocolPackets.WaypointsDeletePacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"waypointIds[]"
+			)),
+			Map.entry(ProtocolPackets.WaypointsEntityDeathCancelPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId",
+					"targetEntityIds[]"
+			)),
+			Map.entry(ProtocolPackets.ResyncReqPacket.class, PacketFieldSchema.compile(
+					"submitPlayerId"
+			)),
+			Map.entry(ProtocolPackets.SnapshotFullInboundPacket.class, PacketFieldSchema.compile(
+					"players.<key>",
+					"players.*.playerUUID",
+					"players.*.data.playerUUID",
+					"players.*.<field>",
+					"players.*.data.<field>",
+					"entities.<key>",
+					"entities.*.<field>",
+					"entities.*.data.<field>",
+					"waypoints.<key>",
+					"waypoints.*.ownerId",
+					"waypoints.*.targetEntityId",
+					"waypoints.*.data.ownerId",
+					"waypoints.*.data.targetEntityId",
+					"waypoints.*.<field>",
+					"waypoints.*.data.<field>",
+					"playerMarks.<key>"
+			)),
+			Map.entry(ProtocolPackets.PatchInboundPacket.class, PacketFieldSchema.compile(
+					"players.upsert.<key>",
+					"players.upsert.*.playerUUID",
+					"players.upsert.*.data.playerUUID",
+					"players.upsert.*.<field>",
+					"players.upsert.*.data.<field>",
+					"players.delete[]",
+					"entities.upsert.<key>",
+					"entities.upsert.*.<field>",
+					"entities.upsert.*.data.<field>",
+					"entities.delete[]",
+					"waypoints.upsert.<key>",
+					"waypoints.upsert.*.ownerId",
+					"waypoints.upsert.*.targetEntityId",
+					"waypoints.upsert.*.data.ownerId",
+					"waypoints.upsert.*.data.targetEntityId",
+					"waypoints.upsert.*.<field>",
+					"waypoints.upsert.*.data.<field>",
+					"waypoints.delete[]",
+					"playerMarks.<key>",
+					"playerMarks.upsert.<key>",
+					"playerMarks.delete[]"
+			)),
+			Map.entry(ProtocolPackets.SnapshotBucketsInboundPacket.class, PacketFieldSchema.compile(
+					"players.<key>",
+					"players.*.playerUUID",
+					"players.*.data.playerUUID",
+					"players.*.<field>",
+					"players.*.data.<field>",
+					"entities.<key>",
+					"entities.*.<field>",
+					"entities.*.data.<field>",
+					"waypoints.<key>",
+					"waypoints.*.ownerId",
+					"waypoints.*.targetEntityId",
+					"waypoints.*.data.ownerId",
+					"waypoints.*.data.targetEntityId",
+					"waypoints.*.<field>",
+					"waypoints.*.data.<field>"
+			)),
+			Map.entry(ProtocolPackets.RefreshReqInboundPacket.class, PacketFieldSchema.compile(
+					"players[]",
+					"entities[]"
+			)),
+			Map.entry(ProtocolPackets.WaypointsUpdateInboundPacket.class, PacketFieldSchema.compile(
+					"waypoints.<key>",
+					"waypoints.*.ownerId",
+					"waypoints.*.targetEntityId",
+					"waypoints.*.data.ownerId",
+					"waypoints.*.data.targetEntityId",
+					"waypoints.*.<field>",
+					"waypoints.*.data.<field>"
+			)),
+			Map.entry(ProtocolPackets.WaypointsDeleteInboundPacket.class, PacketFieldSchema.compile(
+					"waypointIds[]"
+			))
+	);
+
+	private PacketFieldSchemas() {
+	}
+
+	static PacketFieldSchema forPacket(Class<?> packetType) {
+		PacketFieldSchema schema = packetType == null ? null : SCHEMAS.get(packetType);
+		return schema != null ? schema : PacketFieldSchema.EMPTY;
+	}
+}
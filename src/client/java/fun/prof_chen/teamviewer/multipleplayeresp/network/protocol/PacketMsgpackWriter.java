@@ -0,0 +1,153 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import org.msgpack.core.MessagePacker;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 按 {@link PacketFieldSchema} 直接把出站包写入 MessagePacker：
+ * 只有 schema 声明的位置做 UUID 字符串到 16 字节二进制的转换或字段名字典编码，其余值原样写出，不复制中间 Map。
+ * UUID 转换只在握手协商出 binaryUuids 后进行；未协商时 UUID 仍以字符串写出，只有包中本身就是 byte[] 的字段为二进制。
+ */
+final class PacketMsgpackWriter {
+	private static final ClassValue<Field[]> PUBLIC_FIELDS = new ClassValue<>() {
+		@Override
+		protected Field[] computeValue(Class<?> type) {
+			return collectPublicFields(type);
+		}
+	};
+
+	private PacketMsgpackWriter() {
+	}
+
+	static void writePacket(MessagePacker packer, Object packet, PacketFieldSchema schema, FieldKeyDictionary dictionary, boolean binaryUuids) throws IOException {
+		writeValue(packer, packet, schema == null ? null : schema.root(), dictionary, binaryUuids);
+	}
+
+	private static void writeValue(MessagePacker packer, Object value, PacketFieldSchema.Node node, FieldKeyDictionary dictionary, boolean binaryUuids) throws IOException {
+		if (value == null) {
+			packer.packNil();
+			return;
+		}
+		if (binaryUuids && node != null && node.uuidValue() && writeUuid(packer, value)) {
+			return;
+		}
+
+		if (value instanceof String text) {
+			packer.packString(text);
+		} else if (value instanceof Boolean bool) {
+			packer.packBoolean(bool);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			packer.packInt(((Number) value).intValue());
+		} else if (value instanceof Long longValue) {
+			packer.packLong(longValue);
+		} else if (value instanceof Double doubleValue) {
+			packer.packDouble(doubleValue);
+		} else if (value instanceof Float floatValue) {
+			packer.packFloat(floatValue);
+		} else if (value instanceof BigInteger bigInteger) {
+			packer.packBigInteger(bigInteger);
+		} else if (value instanceof Number number) {
+			packer.packDouble(number.doubleValue());
+		} else if (value instanceof byte[] bytes) {
+			packer.packBinaryHeader(bytes.length);
+			packer.writePayload(bytes);
+		} else if (value instanceof Map<?, ?> map) {
+			writeMap(packer, map, node, dictionary, binaryUuids);
+		} else if (value instanceof Collection<?> collection) {
+			writeCollection(packer, collection, node, dictionary, binaryUuids);
+		} else if (value instanceof Object[] array) {
+			writeCollection(packer, List.of(array), node, dictionary, binaryUuids);
+		} else if (value instanceof UUID || value instanceof Character || value instanceof Enum<?>) {
+			packer.packString(value instanceof Enum<?> enumValue ? enumValue.name() : value.toString());
+		} else {
+			writeObject(packer, value, node, dictionary, binaryUuids);
+		}
+	}
+
+	private static void writeMap(MessagePacker packer, Map<?, ?> map, PacketFieldSchema.Node node, FieldKeyDictionary dictionary, boolean binaryUuids) throws IOException {
+		packer.packMapHeader(map.size());
+		boolean uuidKeys = binaryUuids && node != null && node.uuidKeys();
+		FieldKeyDictionary keyDictionary = node != null && node.dictionaryKeys() ? dictionary : null;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			String key = entry.getKey() == null ? "null" : entry.getKey().toString();
+			int keyId = keyDictionary == null ? -1 : keyDictionary.idOf(key);
+			if (keyId >= 0) {
+				packer.packInt(keyId);
+			} else if (!uuidKeys || !writeUuid(packer, key)) {
+				packer.packString(key);
+			}
+			writeValue(packer, entry.getValue(), node == null ? null : node.child(key), dictionary, binaryUuids);
+		}
+	}
+
+	private static void writeCollection(MessagePacker packer, Collection<?> collection, PacketFieldSchema.Node node, FieldKeyDictionary dictionary, boolean binaryUuids) throws IOException {
+		packer.packArrayHeader(collection.size());
+		boolean uuidItems = binaryUuids && node != null && node.uuidItems();
+		PacketFieldSchema.Node itemNode = node == null ? null : node.anyChild();
+		for (Object item : collection) {
+			if (uuidItems && item != null && writeUuid(packer, item)) {
+				continue;
+			}
+			writeValue(packer, item, itemNode, dictionary, binaryUuids);
+		}
+	}
+
+	private static void writeObject(MessagePacker packer, Object value, PacketFieldSchema.Node node, FieldKeyDictionary dictionary, boolean binaryUuids) throws IOException {
+		Field[] fields = PUBLIC_FIELDS.get(value.getClass());
+		packer.packMapHeader(fields.length);
+		for (Field field : fields) {
+			String name = field.getName();
+			packer.packString(name);
+			try {
+				writeValue(packer, field.get(value), node == null ? null : node.child(name), dictionary, binaryUuids);
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Cannot read packet field " + name, e);
+			}
+		}
+	}
+
+	private static boolean writeUuid(MessagePacker packer, Object value) throws IOException {
+		byte[] raw;
+		if (value instanceof byte[] bytes) {
+			raw = bytes.length == 16 ? bytes : null;
+		} else if (value instanceof UUID uuid) {
+			raw = UuidBinaryCodec.toBytes(uuid);
+		} else if (value instanceof String text) {
+			raw = UuidBinaryCodec.toBytes(text);
+		} else {
+			raw = null;
+		}
+		if (raw == null) {
+			return false;
+		}
+		packer.packBinaryHeader(raw.length);
+		packer.writePayload(raw);
+		return true;
+	}
+
+	private static Field[] collectPublicFields(Class<?> type) {
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			hierarchy.add(0, current);
+		}
+		List<Field> fields = new ArrayList<>();
+		for (Class<?> current : hierarchy) {
+			for (Field field : current.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+					fields.add(field);
+				}
+			}
+		}
+		return fields.toArray(new Field[0]);
+	}
+}
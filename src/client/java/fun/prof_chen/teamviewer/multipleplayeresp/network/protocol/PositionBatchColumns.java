@@ -0,0 +1,171 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * positions_batch 的列式编解码：ids 为 count 个 16 字节 UUID 首尾相接，
+ * x/y/z/vx/vy/vz 各为一列大端定长数值——scale 为 0 时每项 8 字节 float64，否则为 round(value * scale) 的 4 字节 int32。
+ */
+public final class PositionBatchColumns {
+	public static final String SCOPE_PLAYERS = "players";
+	public static final String SCOPE_ENTITIES = "entities";
+
+	private static final String[] FIELDS = {"x", "y", "z", "vx", "vy", "vz"};
+	private static final int UUID_BYTES = 16;
+
+	private PositionBatchColumns() {
+	}
+
+	public interface Sink {
+		void accept(byte[] ids, int idOffset, double x, double y, double z, double vx, double vy, double vz);
+	}
+
+	public static Writer writer(String scope, int capacity, int positionScale, int velocityScale) {
+		return new Writer(scope, capacity, positionScale, velocityScale);
+	}
+
+	/**
+	 * 逐对象回调解码结果，坐标已还原为浮点；列长度与 count 不符时抛出 IllegalArgumentException。
+	 * @return 解码的对象数
+	 */
+	public static int decode(ProtocolPackets.PositionsBatchInboundPacket packet, Sink sink) {
+		if (packet == null || packet.count == null || packet.count <= 0 || packet.ids == null) {
+			return 0;
+		}
+		int count = packet.count;
+		int positionScale = packet.positionScale == null ? 0 : Math.max(0, packet.positionScale);
+		int velocityScale = packet.velocityScale == null ? 0 : Math.max(0, packet.velocityScale);
+		if (packet.ids.length != count * UUID_BYTES) {
+			throw new IllegalArgumentException("positions_batch ids length mismatch");
+		}
+
+		byte[][] raw = {packet.x, packet.y, packet.z, packet.vx, packet.vy, packet.vz};
+		ByteBuffer[] columns = new ByteBuffer[FIELDS.length];
+		for (int field = 0; field < FIELDS.length; field++) {
+			int scale = scaleOf(field, positionScale, velocityScale);
+			if (raw[field] == null || raw[field].length != count * columnWidth(scale)) {
+				throw new IllegalArgumentException("positions_batch column " + FIELDS[field] + " length mismatch");
+			}
+			columns[field] = ByteBuffer.wrap(raw[field]);
+		}
+
+		for (int i = 0; i < count; i++) {
+			sink.accept(
+					packet.ids,
+					i * UUID_BYTES,
+					read(columns[0], positionScale),
+					read(columns[1], positionScale),
+					read(columns[2], positionScale),
+					read(columns[3], velocityScale),
+					read(columns[4], velocityScale),
+					read(columns[5], velocityScale)
+			);
+		}
+		return count;
+	}
+
+	/**
+	 * 逐对象追加坐标/速度并直接写入列缓冲区；scale 大于 0 的列在写入时量化为 int32 刻度。
+	 */
+	public static final class Writer {
+		private final String scope;
+		private final int positionScale;
+		private final int velocityScale;
+		private final byte[] ids;
+		private final ByteBuffer[] columns = new ByteBuffer[FIELDS.length];
+		private final double[] values = new double[FIELDS.length];
+		private final long[] ticks = new long[FIELDS.length];
+		private int count = 0;
+
+		private Writer(String scope, int capacity, int positionScale, int velocityScale) {
+			this.scope = scope;
+			this.positionScale = Math.max(0, positionScale);
+			this.velocityScale = Math.max(0, velocityScale);
+			this.ids = new byte[capacity * UUID_BYTES];
+			for (int field = 0; field < FIELDS.length; field++) {
+				columns[field] = ByteBuffer.allocate(capacity * columnWidth(scaleOf(field, this.positionScale, this.velocityScale)));
+			}
+		}
+
+		/**
+		 * @return 写入成功返回 true；量化值超出 int32 或非有限值时不写入并返回 false，调用方应改走 patch
+		 */
+		public boolean add(UUID id, double x, double y, double z, double vx, double vy, double vz) {
+			if (count * UUID_BYTES == ids.length) {
+				return false;
+			}
+			values[0] = x;
+			values[1] = y;
+			values[2] = z;
+			values[3] = vx;
+			values[4] = vy;
+			values[5] = vz;
+			for (int field = 0; field < FIELDS.length; field++) {
+				int scale = scaleOf(field, positionScale, velocityScale);
+				if (scale <= 0) {
+					continue;
+				}
+				if (!Double.isFinite(values[field])) {
+					return false;
+				}
+				long value = Math.round(values[field] * scale);
+				if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+					return false;
+				}
+				ticks[field] = value;
+			}
+
+			UuidBinaryCodec.toBytes(id, ids, count * UUID_BYTES);
+			for (int field = 0; field < FIELDS.length; field++) {
+				if (scaleOf(field, positionScale, velocityScale) > 0) {
+					columns[field].putInt((int) ticks[field]);
+				} else {
+					columns[field].putDouble(values[field]);
+				}
+			}
+			count++;
+			return true;
+		}
+
+		public int size() {
+			return count;
+		}
+
+		public ProtocolPackets.PositionsBatchPacket build() {
+			ProtocolPackets.PositionsBatchPacket packet = new ProtocolPackets.PositionsBatchPacket();
+			packet.scope = scope;
+			packet.count = count;
+			packet.positionScale = positionScale;
+			packet.velocityScale = velocityScale;
+			packet.ids = Arrays.copyOf(ids, count * UUID_BYTES);
+			packet.x = column(0);
+			packet.y = column(1);
+			packet.z = column(2);
+			packet.vx = column(3);
+			packet.vy = column(4);
+			packet.vz = column(5);
+			return packet;
+		}
+
+		private byte[] column(int field) {
+			ByteBuffer column = columns[field];
+			byte[] array = column.array();
+			return column.position() == array.length ? array : Arrays.copyOf(array, column.position());
+		}
+	}
+
+	private static double read(ByteBuffer column, int scale) {
+		return scale > 0 ? column.getInt() / (double) scale : column.getDouble();
+	}
+
+	private static int scaleOf(int field, int positionScale, int velocityScale) {
+		return field < 3 ? positionScale : velocityScale;
+	}
+
+	private static int columnWidth(int scale) {
+		return scale > 0 ? Integer.BYTES : Double.BYTES;
+	}
+
+}
@@ -0,0 +1,84 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.Map;
+
+/**
+ * 握手协商的定点坐标编码：x/y/z 与 vx/vy/vz 以 round(value * scale) 的整数上报，接收时再除以 scale。
+ * scale 为 0 表示该组字段保持浮点。
+ */
+public record PositionQuantization(int positionScale, int velocityScale) {
+	public static final PositionQuantization DISABLED = new PositionQuantization(0, 0);
+
+	private static final String[] POSITION_KEYS = {"x", "y", "z"};
+	private static final String[] VELOCITY_KEYS = {"vx", "vy", "vz"};
+	private static final int MAX_SCALE = 4096;
+
+	public static PositionQuantization of(Integer positionScale, Integer velocityScale) {
+		int position = sanitizeScale(positionScale);
+		int velocity = sanitizeScale(velocityScale);
+		if (position == 0 && velocity == 0) {
+			return DISABLED;
+		}
+		return new PositionQuantization(position, velocity);
+	}
+
+	public boolean isEnabled() {
+		return positionScale > 0 || velocityScale > 0;
+	}
+
+	public void quantizeInPlace(Map<String, Object> data) {
+		if (data == null || !isEnabled()) {
+			return;
+		}
+		quantizeKeys(data, POSITION_KEYS, positionScale);
+		quantizeKeys(data, VELOCITY_KEYS, velocityScale);
+	}
+
+	public void dequantizeInPlace(Map<String, Object> data) {
+		if (data == null || !isEnabled()) {
+			return;
+		}
+		dequantizeKeys(data, POSITION_KEYS, positionScale);
+		dequantizeKeys(data, VELOCITY_KEYS, velocityScale);
+	}
+
+	public double dequantizePosition(double value) {
+		return positionScale > 0 ? value / positionScale : value;
+	}
+
+	public double dequantizeVelocity(double value) {
+		return velocityScale > 0 ? value / velocityScale : value;
+	}
+
+	private static void quantizeKeys(Map<String, Object> data, String[] keys, int scale) {
+		if (scale <= 0) {
+			return;
+		}
+		for (String key : keys) {
+			if (data.get(key) instanceof Number number) {
+				double value = number.doubleValue();
+				if (Double.isFinite(value)) {
+					data.put(key, Math.round(value * scale));
+				}
+			}
+		}
+	}
+
+	private static void dequantizeKeys(Map<String, Object> data, String[] keys, int scale) {
+		if (scale <= 0) {
+			return;
+		}
+		for (String key : keys) {
+			if (data.get(key) instanceof Number number) {
+				data.put(key, number.doubleValue() / scale);
+			}
+		}
+	}
+
+	private static int sanitizeScale(Integer scale) {
+		if (scale == null || scale <= 0) {
+			return 0;
+		}
+		return Math.min(scale, MAX_SCALE);
+	}
+}
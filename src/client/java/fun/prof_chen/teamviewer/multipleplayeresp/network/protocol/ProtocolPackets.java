@@ -25,6 +25,20 @@ public final class ProtocolPackets {
 		public Integer reportIntervalTicks;
 		public Integer playerTimeoutSec;
 		public Integer entityTimeoutSec;
+		public Integer positionQuantizationScale;
+		public Integer velocityQuantizationScale;
+		public List<String> fieldKeyDictionary;
+		public String compressionAlgorithm;
+		public String compressionDictionaryId;
+		public Boolean positionsBatch;
+		public Boolean rttProbe;
+		public Boolean tabPlayersDelta;
+		public Boolean waypointsPatch;
+		public String digestMode;
+		public Boolean digestBuckets;
+		public Boolean patchSeq;
+		public Boolean deadReckoning;
+		public Boolean binaryUuids;
 	}
 
 	public static class SnapshotFullInboundPacket extends BaseInboundPacket {
@@ -32,6 +46,7 @@ public final class ProtocolPackets {
 		public Map<String, Object> entities;
 		public Map<String, Object> waypoints;
 		public Map<String, Object> playerMarks;
+		public Long seq;
 	}
 
 	public static class PatchInboundPacket extends BaseInboundPacket {
@@ -40,10 +55,29 @@ public final class ProtocolPackets {
 		public Map<String, Object> waypoints;
 		public Map<String, Object> playerMarks;
 		public Map<String, Object> meta;
+		public Long seq;
+	}
+
+	public static class PatchAckInboundPacket extends BaseInboundPacket {
+		public Long seq;
+	}
+
+	public static class PatchNackInboundPacket extends BaseInboundPacket {
+		public Long from;
+		public Long to;
 	}
 
 	public static class DigestInboundPacket extends BaseInboundPacket {
+		public String mode;
 		public Map<String, String> hashes;
+		public Map<String, List<String>> buckets;
+	}
+
+	public static class SnapshotBucketsInboundPacket extends BaseInboundPacket {
+		public Map<String, List<Integer>> buckets;
+		public Map<String, Object> players;
+		public Map<String, Object> entities;
+		public Map<String, Object> waypoints;
 	}
 
 	public static class RefreshReqInboundPacket extends BaseInboundPacket {
@@ -58,6 +92,11 @@ public final class ProtocolPackets {
 		public String reason;
 	}
 
+	public static class PongInboundPacket extends BaseInboundPacket {
+		public Long seq;
+		public Long sentAtMs;
+	}
+
 	public static class WaypointsUpdateInboundPacket extends BaseInboundPacket {
 		public Map<String, Object> waypoints;
 	}
@@ -66,6 +105,20 @@ public final class ProtocolPackets {
 		public List<String> waypointIds;
 	}
 
+	public static class PositionsBatchInboundPacket extends BaseInboundPacket {
+		public String scope;
+		public Integer count;
+		public Integer positionScale;
+		public Integer velocityScale;
+		public byte[] ids;
+		public byte[] x;
+		public byte[] y;
+		public byte[] z;
+		public byte[] vx;
+		public byte[] vy;
+		public byte[] vz;
+	}
+
 	public static class HandshakePacket {
 		public final String type = "handshake";
 		public String networkProtocolVersion;
@@ -76,11 +129,33 @@ public final class ProtocolPackets {
 		public Integer preferredReportIntervalTicks;
 		public Integer minReportIntervalTicks;
 		public Integer maxReportIntervalTicks;
+		public Integer positionQuantizationScale;
+		public Integer velocityQuantizationScale;
+		public List<String> fieldKeyDictionary;
+		public List<String> compressionAlgorithms;
+		public String compressionDictionaryId;
+		public Integer compressionThresholdBytes;
+		public Boolean positionsBatch;
+		public Boolean rttProbe;
+		public Boolean tabPlayersDelta;
+		public Boolean waypointsPatch;
+		public List<String> digestModes;
+		public Boolean digestBuckets;
+		public Boolean patchSeq;
+		public Boolean deadReckoning;
+		public Boolean binaryUuids;
+	}
+
+	public static class PingPacket {
+		public final String type = "ping";
+		public Long seq;
+		public Long sentAtMs;
 	}
 
 	public static class PlayersPatchPacket {
 		public final String type = "players_patch";
 		public byte[] submitPlayerId;
+		public Long seq;
 		public Map<String, Map<String, Object>> upsert;
 		public List<String> delete;
 	}
@@ -88,10 +163,27 @@ public final class ProtocolPackets {
 	public static class EntitiesPatchPacket {
 		public final String type = "entities_patch";
 		public byte[] submitPlayerId;
+		public Long seq;
 		public Map<String, Map<String, Object>> upsert;
 		public List<String> delete;
 	}
 
+	public static class PositionsBatchPacket {
+		public final String type = "positions_batch";
+		public byte[] submitPlayerId;
+		public String scope;
+		public Integer count;
+		public Integer positionScale;
+		public Integer velocityScale;
+		public byte[] ids;
+		public byte[] x;
+		public byte[] y;
+		public byte[] z;
+		public byte[] vx;
+		public byte[] vy;
+		public byte[] vz;
+	}
+
 	public static class StateKeepalivePacket {
 		public final String type = "state_keepalive";
 		public byte[] submitPlayerId;
@@ -105,12 +197,28 @@ public final class ProtocolPackets {
 		public Map<String, Map<String, Object>> waypoints;
 	}
 
+	public static class WaypointsPatchPacket {
+		public final String type = "waypoints_patch";
+		public byte[] submitPlayerId;
+		public Map<String, Map<String, Object>> upsert;
+		public List<String> delete;
+	}
+
 	public static class TabPlayersUpdatePacket {
 		public final String type = "tab_players_update";
 		public byte[] submitPlayerId;
 		public List<Map<String, Object>> tabPlayers;
 	}
 
+	public static class TabPlayersDeltaPacket {
+		public final String type = "tab_players_delta";
+		public byte[] submitPlayerId;
+		public List<Map<String, Object>> upsert;
+		public List<byte[]> delete;
+		public Integer count;
+		public Long listHash;
+	}
+
 	public static class WaypointsDeletePacket {
 		public final String type = "waypoints_delete";
 		public byte[] submitPlayerId;
@@ -123,9 +231,21 @@ public final class ProtocolPackets {
 		public List<String> targetEntityIds;
 	}
 
+	public static class PatchAckPacket {
+		public final String type = "patch_ack";
+		public Long seq;
+	}
+
+	public static class PatchNackPacket {
+		public final String type = "patch_nack";
+		public Long from;
+		public Long to;
+	}
+
 	public static class ResyncReqPacket {
 		public final String type = "resync_req";
 		public String reason;
 		public byte[] submitPlayerId;
+		public Map<String, List<Integer>> buckets;
 	}
 }
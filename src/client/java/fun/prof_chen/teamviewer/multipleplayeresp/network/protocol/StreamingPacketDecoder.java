@@ -0,0 +1,371 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import org.msgpack.core.ExtensionTypeHeader;
+import org.msgpack.core.MessageFormat;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessageUnpacker;
+import org.msgpack.value.ValueType;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单遍流式解码器：直接从 MessageUnpacker 读入 snapshot_full / patch 包字段，
+ * 按 {@link PacketFieldSchemas} 中声明的路径在读取时把 UUID 转换为规范字符串，不再经过 Value 树、中间 Map 与 convertValue。
+ */
+final class StreamingPacketDecoder {
+	private StreamingPacketDecoder() {
+	}
+
+	static boolean supports(Class<?> packetType) {
+		return packetType == ProtocolPackets.SnapshotFullInboundPacket.class
+				|| packetType == ProtocolPackets.PatchInboundPacket.class
+				|| packetType == ProtocolPackets.PositionsBatchInboundPacket.class;
+	}
+
+	static <T> T decode(byte[] payload, Class<T> packetType, FieldKeyDictionary dictionary) throws IOException {
+		try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(payload)) {
+			if (packetType == ProtocolPackets.SnapshotFullInboundPacket.class) {
+				return packetType.cast(readSnapshotFull(unpacker, dictionary));
+			}
+			if (packetType == ProtocolPackets.PatchInboundPacket.class) {
+				return packetType.cast(readPatch(unpacker, dictionary));
+			}
+			if (packetType == ProtocolPackets.PositionsBatchInboundPacket.class) {
+				return packetType.cast(readPositionsBatch(unpacker));
+			}
+			throw new IllegalArgumentException("Unsupported streaming packet type: " + packetType.getName());
+		}
+	}
+
+	private static ProtocolPackets.SnapshotFullInboundPacket readSnapshotFull(MessageUnpacker unpacker, FieldKeyDictionary dictionary) throws IOException {
+		int size = readRootMapHeader(unpacker);
+		if (size < 0) {
+			return null;
+		}
+
+		PacketFieldSchema.Node root = PacketFieldSchemas.forPacket(ProtocolPackets.SnapshotFullInboundPacket.class).root();
+		ProtocolPackets.SnapshotFullInboundPacket packet = new ProtocolPackets.SnapshotFullInboundPacket();
+		for (int i = 0; i < size; i++) {
+			String key = readFieldName(unpacker);
+			if (key == null) {
+				unpacker.skipValue();
+				continue;
+			}
+			switch (key) {
+				case "type":
+					packet.type = readNullableString(unpacker);
+					break;
+				case "players":
+					packet.players = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "entities":
+					packet.entities = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "waypoints":
+					packet.waypoints = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "playerMarks":
+					packet.playerMarks = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "seq":
+					packet.seq = readNullableLong(unpacker);
+					break;
+				default:
+					unpacker.skipValue();
+					break;
+			}
+		}
+		return packet;
+	}
+
+	private static ProtocolPackets.PatchInboundPacket readPatch(MessageUnpacker unpacker, FieldKeyDictionary dictionary) throws IOException {
+		int size = readRootMapHeader(unpacker);
+		if (size < 0) {
+			return null;
+		}
+
+		PacketFieldSchema.Node root = PacketFieldSchemas.forPacket(ProtocolPackets.PatchInboundPacket.class).root();
+		ProtocolPackets.PatchInboundPacket packet = new ProtocolPackets.PatchInboundPacket();
+		for (int i = 0; i < size; i++) {
+			String key = readFieldName(unpacker);
+			if (key == null) {
+				unpacker.skipValue();
+				continue;
+			}
+			switch (key) {
+				case "type":
+					packet.type = readNullableString(unpacker);
+					break;
+				case "players":
+					packet.players = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "entities":
+					packet.entities = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "waypoints":
+					packet.waypoints = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "playerMarks":
+					packet.playerMarks = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "meta":
+					packet.meta = readObjectMap(unpacker, root.child(key), dictionary);
+					break;
+				case "seq":
+					packet.seq = readNullableLong(unpacker);
+					break;
+				default:
+					unpacker.skipValue();
+					break;
+			}
+		}
+		return packet;
+	}
+
+	private static ProtocolPackets.PositionsBatchInboundPacket readPositionsBatch(MessageUnpacker unpacker) throws IOException {
+		int size = readRootMapHeader(unpacker);
+		if (size < 0) {
+			return null;
+		}
+
+		ProtocolPackets.PositionsBatchInboundPacket packet = new ProtocolPackets.PositionsBatchInboundPacket();
+		for (int i = 0; i < size; i++) {
+			String key = readFieldName(unpacker);
+			if (key == null) {
+				unpacker.skipValue();
+				continue;
+			}
+			switch (key) {
+				case "type":
+					packet.type = readNullableString(unpacker);
+					break;
+				case "scope":
+					packet.scope = readNullableString(unpacker);
+					break;
+				case "count":
+					packet.count = readNullableInt(unpacker);
+					break;
+				case "positionScale":
+					packet.positionScale = readNullableInt(unpacker);
+					break;
+				case "velocityScale":
+					packet.velocityScale = readNullableInt(unpacker);
+					break;
+				case "ids":
+					packet.ids = readNullableBinary(unpacker);
+					break;
+				case "x":
+					packet.x = readNullableBinary(unpacker);
+					break;
+				case "y":
+					packet.y = readNullableBinary(unpacker);
+					break;
+				case "z":
+					packet.z = readNullableBinary(unpacker);
+					break;
+				case "vx":
+					packet.vx = readNullableBinary(unpacker);
+					break;
+				case "vy":
+					packet.vy = readNullableBinary(unpacker);
+					break;
+				case "vz":
+					packet.vz = readNullableBinary(unpacker);
+					break;
+				default:
+					unpacker.skipValue();
+					break;
+			}
+		}
+		return packet;
+	}
+
+	private static int readRootMapHeader(MessageUnpacker unpacker) throws IOException {
+		if (!unpacker.hasNext()) {
+			return -1;
+		}
+		MessageFormat format = unpacker.getNextFormat();
+		if (format.getValueType() == ValueType.NIL) {
+			unpacker.unpackNil();
+			return -1;
+		}
+		if (format.getValueType() != ValueType.MAP) {
+			throw new IllegalArgumentException("Expected msgpack map at frame root, got " + format);
+		}
+		return unpacker.unpackMapHeader();
+	}
+
+	private static String readFieldName(MessageUnpacker unpacker) throws IOException {
+		if (unpacker.getNextFormat().getValueType() != ValueType.STRING) {
+			unpacker.skipValue();
+			return null;
+		}
+		return unpacker.unpackString();
+	}
+
+	private static String readNullableString(MessageUnpacker unpacker) throws IOException {
+		MessageFormat format = unpacker.getNextFormat();
+		if (format.getValueType() == ValueType.NIL) {
+			unpacker.unpackNil();
+			return null;
+		}
+		if (format.getValueType() != ValueType.STRING) {
+			Object value = readValue(unpacker, null, null);
+			return value == null ? null : String.valueOf(value);
+		}
+		return unpacker.unpackString();
+	}
+
+	private static Integer readNullableInt(MessageUnpacker unpacker) throws IOException {
+		if (unpacker.getNextFormat().getValueType() != ValueType.INTEGER) {
+			unpacker.skipValue();
+			return null;
+		}
+		return unpacker.unpackInt();
+	}
+
+	private static Long readNullableLong(MessageUnpacker unpacker) throws IOException {
+		if (unpacker.getNextFormat().getValueType() != ValueType.INTEGER) {
+			unpacker.skipValue();
+			return null;
+		}
+		return unpacker.unpackLong();
+	}
+
+	private static byte[] readNullableBinary(MessageUnpacker unpacker) throws IOException {
+		if (unpacker.getNextFormat().getValueType() != ValueType.BINARY) {
+			unpacker.skipValue();
+			return null;
+		}
+		return readBinary(unpacker);
+	}
+
+	private static Map<String, Object> readObjectMap(MessageUnpacker unpacker, PacketFieldSchema.Node node, FieldKeyDictionary dictionary) throws IOException {
+		MessageFormat format = unpacker.getNextFormat();
+		if (format.getValueType() == ValueType.NIL) {
+			unpacker.unpackNil();
+			return null;
+		}
+		if (format.getValueType() != ValueType.MAP) {
+			unpacker.skipValue();
+			return null;
+		}
+
+		int size = unpacker.unpackMapHeader();
+		Map<String, Object> map = new LinkedHashMap<>(mapCapacity(size));
+		for (int i = 0; i < size; i++) {
+			String key = readMapKey(unpacker, node != null && node.uuidKeys(), node != null && node.dictionaryKeys() ? dictionary : null);
+			map.put(key, readValue(unpacker, node == null ? null : node.child(key), dictionary));
+		}
+		return map;
+	}
+
+	private static String readMapKey(MessageUnpacker unpacker, boolean uuidKey, FieldKeyDictionary keyDictionary) throws IOException {
+		MessageFormat format = unpacker.getNextFormat();
+		ValueType type = format.getValueType();
+		if (type == ValueType.STRING) {
+			String text = unpacker.unpackString();
+			if (uuidKey) {
+				String canonical = UuidBinaryCodec.toCanonicalString(text);
+				if (canonical != null) {
+					return canonical;
+				}
+			}
+			return text;
+		}
+		if (type == ValueType.BINARY) {
+			byte[] bytes = readBinary(unpacker);
+			String canonical = UuidBinaryCodec.toCanonicalString(bytes);
+			return canonical != null ? canonical : new String(bytes, StandardCharsets.UTF_8);
+		}
+		Object key = readValue(unpacker, null, null);
+		if (keyDictionary != null && key instanceof Long id) {
+			String name = keyDictionary.nameOf(id);
+			if (name != null) {
+				return name;
+			}
+		}
+		return String.valueOf(key);
+	}
+
+	private static Object readValue(MessageUnpacker unpacker, PacketFieldSchema.Node node, FieldKeyDictionary dictionary) throws IOException {
+		MessageFormat format = unpacker.getNextFormat();
+		switch (format.getValueType()) {
+			case NIL:
+				unpacker.unpackNil();
+				return null;
+			case BOOLEAN:
+				return unpacker.unpackBoolean();
+			case INTEGER:
+				return readInteger(unpacker, format);
+			case FLOAT:
+				return unpacker.unpackDouble();
+			case STRING: {
+				String text = unpacker.unpackString();
+				return isUuidValue(node) ? canonicalOrRaw(text) : text;
+			}
+			case BINARY: {
+				byte[] bytes = readBinary(unpacker);
+				return isUuidValue(node) ? canonicalOrRaw(bytes) : bytes;
+			}
+			case ARRAY:
+				return readList(unpacker, node, dictionary);
+			case MAP:
+				return readObjectMap(unpacker, node, dictionary);
+			case EXTENSION: {
+				ExtensionTypeHeader header = unpacker.unpackExtensionTypeHeader();
+				return unpacker.readPayload(header.getLength());
+			}
+			default:
+				unpacker.skipValue();
+				return null;
+		}
+	}
+
+	private static List<Object> readList(MessageUnpacker unpacker, PacketFieldSchema.Node node, FieldKeyDictionary dictionary) throws IOException {
+		int size = unpacker.unpackArrayHeader();
+		List<Object> list = new ArrayList<>(size);
+		boolean uuidList = node != null && node.uuidItems();
+		PacketFieldSchema.Node itemNode = node == null ? null : node.anyChild();
+		for (int i = 0; i < size; i++) {
+			if (uuidList) {
+				list.add(canonicalOrRaw(readValue(unpacker, null, null)));
+			} else {
+				list.add(readValue(unpacker, itemNode, dictionary));
+			}
+		}
+		return list;
+	}
+
+	private static Object readInteger(MessageUnpacker unpacker, MessageFormat format) throws IOException {
+		if (format == MessageFormat.UINT64) {
+			BigInteger value = unpacker.unpackBigInteger();
+			return value.bitLength() < 64 ? (Object) value.longValue() : value;
+		}
+		return unpacker.unpackLong();
+	}
+
+	private static byte[] readBinary(MessageUnpacker unpacker) throws IOException {
+		int length = unpacker.unpackBinaryHeader();
+		return unpacker.readPayload(length);
+	}
+
+	private static boolean isUuidValue(PacketFieldSchema.Node node) {
+		return node != null && node.uuidValue();
+	}
+
+	private static Object canonicalOrRaw(Object value) {
+		String canonical = UuidBinaryCodec.toCanonicalString(value);
+		return canonical != null ? canonical : value;
+	}
+
+	private static int mapCapacity(int size) {
+		return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
+	}
+}
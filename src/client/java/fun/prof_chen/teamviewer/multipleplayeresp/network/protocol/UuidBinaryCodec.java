@@ -1,9 +1,19 @@
 package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
 
-import java.nio.ByteBuffer;
 import java.util.UUID;
 
+/**
+ * UUID 与 16 字节二进制/规范字符串之间的转换。
+ * <p>
+ * 规范 36 字符形式走手写十六进制解析与格式化，不经过 UUID.fromString / ByteBuffer；
+ * 最近出现的 UUID 保存在一个有界的直接映射缓存中，同一个 ID 反复到达时返回共享的 String 与 UUID 实例。
+ */
 public final class UuidBinaryCodec {
+	private static final int CANONICAL_LENGTH = 36;
+	private static final int INTERN_CACHE_SIZE = 1024;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final Entry[] INTERN_CACHE = new Entry[INTERN_CACHE_SIZE];
+
 	private UuidBinaryCodec() {
 	}
 
@@ -11,54 +21,239 @@ public final class UuidBinaryCodec {
 		if (uuid == null) {
 			return null;
 		}
-		ByteBuffer buffer = ByteBuffer.allocate(16);
-		buffer.putLong(uuid.getMostSignificantBits());
-		buffer.putLong(uuid.getLeastSignificantBits());
-		return buffer.array();
+		byte[] bytes = new byte[16];
+		toBytes(uuid, bytes, 0);
+		return bytes;
+	}
+
+	public static void toBytes(UUID uuid, byte[] target, int offset) {
+		writeLong(uuid.getMostSignificantBits(), target, offset);
+		writeLong(uuid.getLeastSignificantBits(), target, offset + 8);
 	}
 
 	public static byte[] toBytes(String value) {
-		if (value == null || value.isBlank()) {
-			return null;
+		byte[] bytes = new byte[16];
+		return toBytes(value, bytes, 0) ? bytes : null;
+	}
+
+	/**
+	 * @return 解析成功并已写入 target 时返回 true
+	 */
+	public static boolean toBytes(String value, byte[] target, int offset) {
+		if (value == null) {
+			return false;
 		}
-		try {
-			return toBytes(UUID.fromString(value.trim()));
-		} catch (Exception ignored) {
-			return null;
+		int start = firstNonBlank(value);
+		int end = lastNonBlank(value) + 1;
+		if (start >= end) {
+			return false;
 		}
+		if (end - start == CANONICAL_LENGTH) {
+			if (!isCanonicalLayout(value, start)) {
+				return false;
+			}
+			writeLong(parseMostSignificantBits(value, start), target, offset);
+			writeLong(parseLeastSignificantBits(value, start), target, offset + 8);
+			return true;
+		}
+		UUID parsed = parseLenient(value);
+		if (parsed == null) {
+			return false;
+		}
+		toBytes(parsed, target, offset);
+		return true;
 	}
 
 	public static String toCanonicalString(Object value) {
-		if (value == null) {
-			return null;
-		}
+		Entry entry = intern(value);
+		return entry == null ? null : entry.canonical;
+	}
 
-		if (value instanceof UUID uuid) {
-			return uuid.toString();
-		}
+	public static UUID toUuid(Object value) {
+		Entry entry = intern(value);
+		return entry == null ? null : entry.uuid;
+	}
 
+	/**
+	 * 从 bytes[offset, offset + 16) 读取 UUID，不复制字节数组。
+	 */
+	public static String toCanonicalString(byte[] bytes, int offset) {
+		return intern(readLong(bytes, offset), readLong(bytes, offset + 8), null, null).canonical;
+	}
+
+	public static UUID toUuid(byte[] bytes, int offset) {
+		return intern(readLong(bytes, offset), readLong(bytes, offset + 8), null, null).uuid;
+	}
+
+	private static Entry intern(Object value) {
 		if (value instanceof byte[] bytes) {
 			if (bytes.length != 16) {
 				return null;
 			}
-			try {
-				ByteBuffer buffer = ByteBuffer.wrap(bytes);
-				long msb = buffer.getLong();
-				long lsb = buffer.getLong();
-				return new UUID(msb, lsb).toString();
-			} catch (Exception ignored) {
-				return null;
-			}
+			return intern(readLong(bytes, 0), readLong(bytes, 8), null, null);
 		}
 
 		if (value instanceof String text) {
-			try {
-				return UUID.fromString(text.trim()).toString();
-			} catch (Exception ignored) {
+			int start = firstNonBlank(text);
+			int end = lastNonBlank(text) + 1;
+			if (start >= end) {
 				return null;
 			}
+			if (end - start == CANONICAL_LENGTH) {
+				if (!isCanonicalLayout(text, start)) {
+					return null;
+				}
+				String candidate = start == 0 && end == text.length() && isLowerCase(text) ? text : null;
+				return intern(parseMostSignificantBits(text, start), parseLeastSignificantBits(text, start), candidate, null);
+			}
+			UUID parsed = parseLenient(text);
+			return parsed == null ? null : intern(parsed.getMostSignificantBits(), parsed.getLeastSignificantBits(), null, parsed);
+		}
+
+		if (value instanceof UUID uuid) {
+			return intern(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null, uuid);
 		}
 
 		return null;
 	}
+
+	private static Entry intern(long msb, long lsb, String canonical, UUID uuid) {
+		int slot = slotOf(msb, lsb);
+		Entry cached = INTERN_CACHE[slot];
+		if (cached != null && cached.msb == msb && cached.lsb == lsb) {
+			return cached;
+		}
+		Entry created = new Entry(
+				msb,
+				lsb,
+				canonical != null ? canonical : format(msb, lsb),
+				uuid != null ? uuid : new UUID(msb, lsb)
+		);
+		INTERN_CACHE[slot] = created;
+		return created;
+	}
+
+	private static int slotOf(long msb, long lsb) {
+		long mixed = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+		return (int) (mixed >>> 54) & (INTERN_CACHE_SIZE - 1);
+	}
+
+	private static String format(long msb, long lsb) {
+		char[] chars = new char[CANONICAL_LENGTH];
+		writeHex(chars, 0, msb >>> 32, 8);
+		chars[8] = '-';
+		writeHex(chars, 9, msb >>> 16, 4);
+		chars[13] = '-';
+		writeHex(chars, 14, msb, 4);
+		chars[18] = '-';
+		writeHex(chars, 19, lsb >>> 48, 4);
+		chars[23] = '-';
+		writeHex(chars, 24, lsb, 12);
+		return new String(chars);
+	}
+
+	private static void writeHex(char[] chars, int offset, long value, int digits) {
+		for (int i = digits - 1; i >= 0; i--) {
+			chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+			value >>>= 4;
+		}
+	}
+
+	private static boolean isCanonicalLayout(String text, int start) {
+		for (int i = 0; i < CANONICAL_LENGTH; i++) {
+			char c = text.charAt(start + i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return false;
+				}
+			} else if (hexValue(c) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLowerCase(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= 'A' && c <= 'F') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long parseMostSignificantBits(String text, int start) {
+		long value = parseHex(text, start, 8);
+		value = (value << 16) | parseHex(text, start + 9, 4);
+		return (value << 16) | parseHex(text, start + 14, 4);
+	}
+
+	private static long parseLeastSignificantBits(String text, int start) {
+		long value = parseHex(text, start + 19, 4);
+		return (value << 48) | parseHex(text, start + 24, 12);
+	}
+
+	private static long parseHex(String text, int offset, int digits) {
+		long value = 0L;
+		for (int i = 0; i < digits; i++) {
+			value = (value << 4) | hexValue(text.charAt(offset + i));
+		}
+		return value;
+	}
+
+	private static int hexValue(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		return -1;
+	}
+
+	private static UUID parseLenient(String text) {
+		try {
+			return UUID.fromString(text.trim());
+		} catch (Exception ignored) {
+			return null;
+		}
+	}
+
+	private static int firstNonBlank(String text) {
+		int index = 0;
+		while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	private static int lastNonBlank(String text) {
+		int index = text.length() - 1;
+		while (index >= 0 && Character.isWhitespace(text.charAt(index))) {
+			index--;
+		}
+		return index;
+	}
+
+	private static void writeLong(long value, byte[] target, int offset) {
+		for (int i = 7; i >= 0; i--) {
+			target[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		long value = 0L;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (bytes[offset + i] & 0xFFL);
+		}
+		return value;
+	}
+
+	private record Entry(long msb, long lsb, String canonical, UUID uuid) {
+	}
 }
@@ -8,6 +8,7 @@ import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.client.gui.widget.TextWidget;
 import net.minecraft.text.Text;
 import fun.prof_chen.teamviewer.multipleplayeresp.core.StandaloneMultiPlayerESP;
+import fun.prof_chen.teamviewer.multipleplayeresp.network.PlayerESPNetworkManager;
 
 public class PlayerESPNetworkConfigScreen extends Screen {
     private final Screen parent;
@@ -24,6 +25,7 @@ public class PlayerESPNetworkConfigScreen extends Screen {
     private static final int BUTTON_SPACING = 25;
     private int startY;
     private int currentY;
+    private int reportRateStatusY;
 
     public PlayerESPNetworkConfigScreen(Screen parent) {
         super(Text.translatable("screen.multipleplayeresp.network_config.title"));
@@ -39,6 +41,7 @@ public class PlayerESPNetworkConfigScreen extends Screen {
         totalHeight += BUTTON_SPACING;
         totalHeight += BUTTON_SPACING;
         totalHeight += BUTTON_SPACING;
+        totalHeight += LABEL_SPACING * 2;
 
         startY = (this.height - totalHeight) / 2;
         currentY = startY;
@@ -123,6 +126,7 @@ public class PlayerESPNetworkConfigScreen extends Screen {
             Text.translatable("screen.multipleplayeresp.config.back"),
             button -> close()
         ).dimensions(componentX, backButtonY, COMPONENT_WIDTH, COMPONENT_HEIGHT).build());
+        reportRateStatusY = currentY;
 
         updateUploadEntitiesButton();
         updateUploadSharedWaypointsButton();
@@ -141,6 +145,49 @@ public class PlayerESPNetworkConfigScreen extends Screen {
             startY - 30,
             0xFFFFFF
         );
+        renderReportRateStatus(context);
+    }
+
+    // 上报频率控制器的当前决策与原因，随连接状态实时刷新
+    private void renderReportRateStatus(DrawContext context) {
+        PlayerESPNetworkManager networkManager = StandaloneMultiPlayerESP.getNetworkManager();
+        if (networkManager == null || !networkManager.isConnected()) {
+            context.drawCenteredTextWithShadow(
+                this.textRenderer,
+                Text.translatable("screen.multipleplayeresp.network_config.report_rate.offline"),
+                this.width / 2,
+                reportRateStatusY,
+                0xA0A0A0
+            );
+            return;
+        }
+
+        Text reason = Text.translatable(
+            "screen.multipleplayeresp.network_config.report_rate.reason." + networkManager.getReportRateReasonKey());
+        context.drawCenteredTextWithShadow(
+            this.textRenderer,
+            Text.translatable("screen.multipleplayeresp.network_config.report_rate",
+                networkManager.getNegotiatedReportIntervalTicks(),
+                networkManager.getReportIntervalFloorTicks(),
+                reason),
+            this.width / 2,
+            reportRateStatusY,
+            0xFFFFFF
+        );
+
+        long rttMs = networkManager.getSmoothedRttMs();
+        Object rtt = rttMs >= 0L
+            ? rttMs
+            : Text.translatable("screen.multipleplayeresp.network_config.report_rate.rtt_unknown");
+        context.drawCenteredTextWithShadow(
+            this.textRenderer,
+            Text.translatable("screen.multipleplayeresp.network_config.report_rate.rtt",
+                rtt,
+                networkManager.getSendQueueBytes() / 1024L),
+            this.width / 2,
+            reportRateStatusY + LABEL_SPACING,
+            0xA0A0A0
+        );
     }
 
     @Override
@@ -0,0 +1,76 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import com.google.gson.Gson;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 上下行包的编解码基准，对比 msgpack 与 json 两种编解码器。
+ * 运行：./gradlew jmh（已启用 -prof gc，结果中的 gc.alloc.rate.norm 即每次操作分配字节数）
+ */
+@State(Scope.Thread)
+public class MessageCodecBenchmark {
+	@Param({"10", "100", "1000", "10000"})
+	public int objectCount;
+
+	@Param({"msgpack", "json"})
+	public String codecName;
+
+	private MessageCodec codec;
+	private FrameEncoder frameEncoder;
+	private ProtocolPackets.PlayersPatchPacket playersPatch;
+	private ProtocolPackets.EntitiesPatchPacket entitiesPatch;
+	private byte[] snapshotFullFrame;
+	private byte[] patchFrame;
+
+	@Setup
+	public void setUp() {
+		codec = "json".equals(codecName) ? new JsonMessageCodec(new Gson()) : new MsgpackMessageCodec();
+		frameEncoder = codec.newFrameEncoder();
+
+		ProtocolFixtures fixtures = new ProtocolFixtures(objectCount, 0x5EEDL + objectCount);
+		playersPatch = fixtures.playersPatch();
+		entitiesPatch = fixtures.entitiesPatch();
+		snapshotFullFrame = codec.encode(fixtures.snapshotFullFrame());
+		patchFrame = codec.encode(fixtures.patchFrame());
+	}
+
+	@Benchmark
+	public byte[] encodePlayersPatch() {
+		return codec.encode(playersPatch);
+	}
+
+	@Benchmark
+	public byte[] encodeEntitiesPatch() {
+		return codec.encode(entitiesPatch);
+	}
+
+	@Benchmark
+	public ByteString frameEncodePlayersPatch() {
+		return frameEncoder.encode(playersPatch);
+	}
+
+	@Benchmark
+	public ByteString frameEncodeEntitiesPatch() {
+		return frameEncoder.encode(entitiesPatch);
+	}
+
+	@Benchmark
+	public ProtocolPackets.SnapshotFullInboundPacket decodeSnapshotFull() {
+		return codec.decode(snapshotFullFrame, ProtocolPackets.SnapshotFullInboundPacket.class);
+	}
+
+	@Benchmark
+	public ProtocolPackets.PatchInboundPacket decodePatch() {
+		return codec.decode(patchFrame, ProtocolPackets.PatchInboundPacket.class);
+	}
+
+	@Benchmark
+	public String peekPatchType() {
+		return codec.peekType(patchFrame);
+	}
+}
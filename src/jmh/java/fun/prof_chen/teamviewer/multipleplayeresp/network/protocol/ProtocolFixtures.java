@@ -0,0 +1,185 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 基准用的生成夹具：按固定种子生成与客户端真实上报形状一致的玩家/实体数据，
+ * 下行包按服务端格式（data 包装 + 来源信息）拼成 Map 再交给编解码器序列化。
+ */
+final class ProtocolFixtures {
+	private static final String[] DIMENSIONS = {"minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"};
+	private static final String[] ENTITY_TYPES = {
+			"minecraft:zombie", "minecraft:skeleton", "minecraft:creeper", "minecraft:spider",
+			"minecraft:enderman", "minecraft:item", "minecraft:arrow", "minecraft:villager"
+	};
+
+	private final Random random;
+	private final UUID submitPlayerId;
+	private final List<String> playerIds;
+	private final List<String> entityIds;
+
+	ProtocolFixtures(int objectCount, long seed) {
+		this.random = new Random(seed);
+		this.submitPlayerId = randomUuid();
+		this.playerIds = randomIds(objectCount);
+		this.entityIds = randomIds(objectCount);
+	}
+
+	UUID submitPlayerId() {
+		return submitPlayerId;
+	}
+
+	/**
+	 * 一半对象为首次上报的全量字段，另一半只带坐标/速度差分，接近稳态下的 players_patch。
+	 */
+	ProtocolPackets.PlayersPatchPacket playersPatch() {
+		ProtocolPackets.PlayersPatchPacket packet = new ProtocolPackets.PlayersPatchPacket();
+		packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+		packet.upsert = new HashMap<>();
+		for (int i = 0; i < playerIds.size(); i++) {
+			String id = playerIds.get(i);
+			Map<String, Object> data = playerData(id, i);
+			packet.upsert.put(id, i % 2 == 0 ? data : movementDelta(data));
+		}
+		packet.delete = new ArrayList<>(randomIds(Math.max(1, playerIds.size() / 20)));
+		return packet;
+	}
+
+	ProtocolPackets.EntitiesPatchPacket entitiesPatch() {
+		ProtocolPackets.EntitiesPatchPacket packet = new ProtocolPackets.EntitiesPatchPacket();
+		packet.submitPlayerId = UuidBinaryCodec.toBytes(submitPlayerId);
+		packet.upsert = new HashMap<>();
+		for (int i = 0; i < entityIds.size(); i++) {
+			String id = entityIds.get(i);
+			Map<String, Object> data = entityData(i);
+			packet.upsert.put(id, i % 2 == 0 ? data : movementDelta(data));
+		}
+		packet.delete = new ArrayList<>(randomIds(Math.max(1, entityIds.size() / 20)));
+		return packet;
+	}
+
+	Map<String, Object> snapshotFullFrame() {
+		Map<String, Object> players = new LinkedHashMap<>();
+		for (int i = 0; i < playerIds.size(); i++) {
+			players.put(playerIds.get(i), wrapped(playerData(playerIds.get(i), i)));
+		}
+		Map<String, Object> entities = new LinkedHashMap<>();
+		for (int i = 0; i < entityIds.size(); i++) {
+			entities.put(entityIds.get(i), wrapped(entityData(i)));
+		}
+
+		Map<String, Object> frame = new LinkedHashMap<>();
+		frame.put("type", "snapshot_full");
+		frame.put("players", players);
+		frame.put("entities", entities);
+		frame.put("waypoints", new LinkedHashMap<>());
+		frame.put("playerMarks", new LinkedHashMap<>());
+		return frame;
+	}
+
+	Map<String, Object> patchFrame() {
+		Map<String, Object> playerUpsert = new LinkedHashMap<>();
+		for (int i = 0; i < playerIds.size(); i++) {
+			Map<String, Object> data = playerData(playerIds.get(i), i);
+			playerUpsert.put(playerIds.get(i), wrapped(i % 2 == 0 ? data : movementDelta(data)));
+		}
+		Map<String, Object> entityUpsert = new LinkedHashMap<>();
+		for (int i = 0; i < entityIds.size(); i++) {
+			Map<String, Object> data = entityData(i);
+			entityUpsert.put(entityIds.get(i), wrapped(i % 2 == 0 ? data : movementDelta(data)));
+		}
+
+		Map<String, Object> frame = new LinkedHashMap<>();
+		frame.put("type", "patch");
+		frame.put("players", section(playerUpsert, randomIds(Math.max(1, playerIds.size() / 20))));
+		frame.put("entities", section(entityUpsert, randomIds(Math.max(1, entityIds.size() / 20))));
+		frame.put("meta", Map.of("seq", 1L));
+		return frame;
+	}
+
+	// 字段集与 OutboundStateStore 的玩家/实体全量上报一致
+	private Map<String, Object> playerData(String id, int index) {
+		Map<String, Object> data = kinematics();
+		data.put("dimension", DIMENSIONS[index % DIMENSIONS.length]);
+		data.put("playerName", "Player" + index);
+		data.put("playerUUID", id);
+		data.put("health", 1.0f + random.nextInt(20));
+		data.put("maxHealth", 20.0f);
+		data.put("armor", (float) random.nextInt(21));
+		data.put("isRiding", random.nextInt(8) == 0);
+		data.put("width", 0.6f);
+		data.put("height", 1.8f);
+		return data;
+	}
+
+	private Map<String, Object> entityData(int index) {
+		String entityType = ENTITY_TYPES[index % ENTITY_TYPES.length];
+		Map<String, Object> data = kinematics();
+		data.put("dimension", DIMENSIONS[index % DIMENSIONS.length]);
+		data.put("entityType", entityType);
+		data.put("entityName", entityType.substring("minecraft:".length()));
+		data.put("width", 0.6f);
+		data.put("height", 1.95f);
+		return data;
+	}
+
+	private Map<String, Object> kinematics() {
+		Map<String, Object> data = new HashMap<>();
+		data.put("x", coordinate());
+		data.put("y", 64.0 + random.nextDouble() * 64.0);
+		data.put("z", coordinate());
+		data.put("vx", velocity());
+		data.put("vy", velocity());
+		data.put("vz", velocity());
+		return data;
+	}
+
+	private Map<String, Object> wrapped(Map<String, Object> data) {
+		Map<String, Object> node = new LinkedHashMap<>();
+		node.put("data", data);
+		node.put("submitPlayerId", submitPlayerId.toString());
+		node.put("timestamp", 1_700_000_000_000L + random.nextInt(100_000));
+		return node;
+	}
+
+	private static Map<String, Object> section(Map<String, Object> upsert, List<String> delete) {
+		Map<String, Object> section = new LinkedHashMap<>();
+		section.put("upsert", upsert);
+		section.put("delete", delete);
+		return section;
+	}
+
+	private static Map<String, Object> movementDelta(Map<String, Object> data) {
+		Map<String, Object> delta = new HashMap<>();
+		for (String key : new String[]{"x", "y", "z", "vx", "vy", "vz"}) {
+			delta.put(key, data.get(key));
+		}
+		return delta;
+	}
+
+	private double coordinate() {
+		return (random.nextDouble() - 0.5) * 20_000.0;
+	}
+
+	private double velocity() {
+		return (random.nextDouble() - 0.5) * 0.8;
+	}
+
+	private List<String> randomIds(int count) {
+		List<String> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(randomUuid().toString());
+		}
+		return ids;
+	}
+
+	private UUID randomUuid() {
+		return new UUID(random.nextLong(), random.nextLong());
+	}
+}
@@ -0,0 +1,66 @@
+package fun.prof_chen.teamviewer.multipleplayeresp.network.protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * UUID 字符串与 16 字节二进制互转的基准；每次操作处理 idCount 个 ID，
+ * idCount 超过驻留缓存容量时可观察缓存未命中的开销。
+ */
+@State(Scope.Thread)
+public class UuidBinaryCodecBenchmark {
+	@Param({"10", "100", "1000", "10000"})
+	public int idCount;
+
+	private String[] canonicalIds;
+	private byte[] packedIds;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(0x5EEDL + idCount);
+		canonicalIds = new String[idCount];
+		packedIds = new byte[idCount * 16];
+		for (int i = 0; i < idCount; i++) {
+			UUID uuid = new UUID(random.nextLong(), random.nextLong());
+			canonicalIds[i] = uuid.toString();
+			UuidBinaryCodec.toBytes(uuid, packedIds, i * 16);
+		}
+	}
+
+	@Benchmark
+	public byte[] stringToBytes() {
+		byte[] target = new byte[canonicalIds.length * 16];
+		for (int i = 0; i < canonicalIds.length; i++) {
+			UuidBinaryCodec.toBytes(canonicalIds[i], target, i * 16);
+		}
+		return target;
+	}
+
+	@Benchmark
+	public void bytesToCanonicalString(Blackhole blackhole) {
+		for (int i = 0; i < idCount; i++) {
+			blackhole.consume(UuidBinaryCodec.toCanonicalString(packedIds, i * 16));
+		}
+	}
+
+	@Benchmark
+	public void stringToUuid(Blackhole blackhole) {
+		for (String id : canonicalIds) {
+			blackhole.consume(UuidBinaryCodec.toUuid(id));
+		}
+	}
+
+	@Benchmark
+	public void jdkUuidFromString(Blackhole blackhole) {
+		for (String id : canonicalIds) {
+			blackhole.consume(UUID.fromString(id));
+		}
+	}
+}